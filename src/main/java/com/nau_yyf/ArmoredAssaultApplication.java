@@ -1,6 +1,7 @@
 package com.nau_yyf;
 
 import com.nau_yyf.updater.UpdateManager;
+import com.nau_yyf.util.SpriteAtlas;
 import com.nau_yyf.view.GameView;
 import javafx.application.Application;
 import javafx.application.Platform;
@@ -44,6 +45,9 @@ public class ArmoredAssaultApplication extends Application {
             if (!updateInProgress) {
                 Platform.runLater(() -> {
                     try {
+                        // 启动时加载全局精灵图集，进入单人或双人模式时无需再加载图片
+                        SpriteAtlas.getInstance();
+
                         // 创建游戏视图并显示主菜单
                         GameView gameView = new GameView(primaryStage);
                         gameView.showMainMenu();
@@ -4,11 +4,11 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.nau_yyf.model.*;
 import com.nau_yyf.util.MapLoader;
+import com.nau_yyf.util.SpriteAtlas;
 import com.nau_yyf.view.GameView;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.image.Image;
 import javafx.scene.paint.Color;
-import javafx.scene.shape.Rectangle;
 
 import java.io.File;
 import java.io.FileReader;
@@ -54,9 +54,6 @@ public class MultiGameController implements GameController {
     // 游戏事件监听器
     private GameEventListener eventListener;
 
-    // 增益效果图片缓存
-    private Map<String, Image> powerUpImages = new HashMap<>();
-
     // 玩家坦克类型
     private String player1TankType = "MEDIUM";
     private String player2TankType = "LIGHT";
@@ -68,24 +65,8 @@ public class MultiGameController implements GameController {
      * 构造函数
      */
     public MultiGameController() {
-        // 初始化资源
-        loadImages();
-    }
-
-    /**
-     * 加载图片资源
-     */
-    private void loadImages() {
-        // 加载增益效果图片
-        for (Tank.PowerUpType type : Tank.PowerUpType.values()) {
-            try {
-                String imagePath = "/images/powerups/" + type.getName().toLowerCase() + ".png";
-                Image img = new Image(getClass().getResourceAsStream(imagePath));
-                powerUpImages.put(type.getName(), img);
-            } catch (Exception e) {
-                
-            }
-        }
+        // 初始化资源（全局精灵图集只加载一次，与单人模式共享）
+        SpriteAtlas.getInstance();
     }
 
     /**
@@ -192,7 +173,7 @@ public class MultiGameController implements GameController {
 
         // 绘制敌方坦克
         for (Tank tank : enemyTanks) {
-            tank.render(gc);
+            renderTank(gc, tank);
         }
 
         // 绘制子弹
@@ -207,14 +188,95 @@ public class MultiGameController implements GameController {
 
         // 绘制玩家坦克
         if (player1Tank != null) {
-            player1Tank.render(gc);
+            renderTank(gc, player1Tank);
         }
 
         if (player2Tank != null) {
-            player2Tank.render(gc);
+            renderTank(gc, player2Tank);
         }
     }
 
+    /**
+     * 渲染坦克到画布
+     * @param gc   图形上下文
+     * @param tank 要绘制的坦克
+     */
+    private void renderTank(GraphicsContext gc, Tank tank) {
+        int x = tank.getX();
+        int y = tank.getY();
+        int width = tank.getWidth();
+        int height = tank.getHeight();
+
+        if (!tank.isVisibleDuringRespawnInvincible()) {
+            return;  // 如果在无敌状态闪烁期间不可见，则不渲染
+        }
+        
+        // 设置坦克颜色
+        if (tank.isFriendly()) {
+            gc.setFill(javafx.scene.paint.Color.BLUE);  // 友方坦克为蓝色
+        } else {
+            gc.setFill(javafx.scene.paint.Color.RED);   // 敌方坦克为红色
+        }
+        
+        // 绘制坦克主体
+        gc.fillRect(x, y, width, height);
+        
+        // 绘制坦克炮塔
+        double turretWidth = width * 0.5;
+        double turretHeight = height * 0.2;
+        
+        double turretX = x + (width - turretWidth) / 2;
+        double turretY = y;
+        
+        // 根据方向调整炮塔位置
+        switch (tank.getDirection()) {
+            case UP:
+                turretY = y - turretHeight;
+                break;
+            case DOWN:
+                turretY = y + height;
+                break;
+            case LEFT:
+                turretWidth = width * 0.2;
+                turretHeight = height * 0.5;
+                turretX = x - turretWidth;
+                turretY = y + (height - turretHeight) / 2;
+                break;
+            case RIGHT:
+                turretWidth = width * 0.2;
+                turretHeight = height * 0.5;
+                turretX = x + width;
+                turretY = y + (height - turretHeight) / 2;
+                break;
+        }
+        
+        gc.fillRect(turretX, turretY, turretWidth, turretHeight);
+        
+        // 如果有护盾则绘制
+        if (tank.isShielded()) {
+            gc.setStroke(javafx.scene.paint.Color.CYAN);
+            gc.setLineWidth(2);
+            gc.strokeOval(x - 5, y - 5, width + 10, height + 10);
+        }
+        
+        // 如果有无敌效果则绘制
+        if (tank.isInvincible()) {
+            gc.setStroke(javafx.scene.paint.Color.GOLD);
+            gc.setLineWidth(2);
+            gc.strokeOval(x - 3, y - 3, width + 6, height + 6);
+        }
+        
+        // 绘制血量条
+        double healthPercentage = (double) tank.getHealth() / tank.getMaxHealth();
+        double healthBarWidth = width * healthPercentage;
+        
+        gc.setFill(javafx.scene.paint.Color.RED);
+        gc.fillRect(x, y - 8, width, 5);
+        
+        gc.setFill(javafx.scene.paint.Color.GREEN);
+        gc.fillRect(x, y - 8, healthBarWidth, 5);
+    }
+
     /**
      * 判断关卡是否完成
      */
@@ -311,33 +373,32 @@ public class MultiGameController implements GameController {
      * 更新增益道具
      */
     public void updatePowerUps(double deltaTime) {
-        // 更新所有增益效果
-        List<PowerUp> powerUpsToRemove = new ArrayList<>();
-
-        for (PowerUp powerUp : powerUps) {
+        // 更新所有增益效果，直接在迭代中移除已使用或过期的增益，避免每帧分配临时列表
+        Iterator<PowerUp> iterator = powerUps.iterator();
+        while (iterator.hasNext()) {
+            PowerUp powerUp = iterator.next();
             updatePowerUp(powerUp, deltaTime);
 
+            boolean remove = false;
+
             // 检查玩家1是否获得增益
             if (player1Tank != null && isColliding(powerUp, player1Tank)) {
                 player1Tank.applyPowerUp(powerUp.getType());
-                powerUpsToRemove.add(powerUp);
+                remove = true;
             }
 
             // 检查玩家2是否获得增益
             if (player2Tank != null && isColliding(powerUp, player2Tank)) {
                 player2Tank.applyPowerUp(powerUp.getType());
-                powerUpsToRemove.add(powerUp);
+                remove = true;
             }
 
             // 检查增益效果是否过期
-            if (isPowerUpExpired(powerUp)) {
-                powerUpsToRemove.add(powerUp);
+            if (remove || isPowerUpExpired(powerUp)) {
+                iterator.remove();
             }
         }
 
-        // 移除已使用或过期的增益
-        powerUps.removeAll(powerUpsToRemove);
-
         // 随机生成新的增益
         if (Math.random() < 0.005) { // 0.5%几率生成增益
             generateRandomPowerUp();
@@ -468,7 +529,7 @@ public class MultiGameController implements GameController {
      * 获取增益道具图片
      */
     public Image getPowerUpImage(String type) {
-        return powerUpImages.get(type);
+        return SpriteAtlas.getInstance().getImage(type);
     }
 
     /**
@@ -12,7 +12,7 @@ public class Bomb extends GameObject {
         return placedTime;
     }
 
-    public boolean shouldExplode() {
-        return System.currentTimeMillis() - placedTime > 5000; // 5秒后爆炸
+    public boolean shouldExplode(long currentTime) {
+        return currentTime - placedTime > 5000; // 5秒后爆炸
     }
 } 
\ No newline at end of file
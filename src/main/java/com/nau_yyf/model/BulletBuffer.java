@@ -0,0 +1,183 @@
+package com.nau_yyf.model;
+
+import com.nau_yyf.model.Tank.Direction;
+import com.nau_yyf.util.AABB;
+
+import java.util.Arrays;
+
+/**
+ * 子弹缓冲区（数组结构存储）
+ * 所有存活子弹的属性分别保存在并列的基本类型数组中，子弹用下标访问，
+ * 移除时把最后一颗子弹移到空位（O(1)），数组容量只增不减，发射子弹不再创建对象
+ */
+public class BulletBuffer {
+    // 子弹尺寸（与Bullet一致）
+    public static final int BULLET_SIZE = 10;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private int size;
+    private int[] x;
+    private int[] y;
+    private int[] dx;
+    private int[] dy;
+    private byte[] direction;
+    private double[] speed;
+    private int[] damage;
+    private boolean[] fromPlayer;
+    private String[] bulletType;
+
+    public BulletBuffer() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public BulletBuffer(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        x = new int[capacity];
+        y = new int[capacity];
+        dx = new int[capacity];
+        dy = new int[capacity];
+        direction = new byte[capacity];
+        speed = new double[capacity];
+        damage = new int[capacity];
+        fromPlayer = new boolean[capacity];
+        bulletType = new String[capacity];
+    }
+
+    /**
+     * 添加一颗子弹
+     *
+     * @return 子弹的下标（只在下一次移除操作之前有效）
+     */
+    public int add(int bulletX, int bulletY, Direction bulletDirection, String type,
+                   double bulletSpeed, int bulletDamage, boolean isFromPlayer) {
+        if (size == x.length) {
+            grow();
+        }
+        int index = size++;
+        x[index] = bulletX;
+        y[index] = bulletY;
+        dx[index] = bulletDirection.getDx();
+        dy[index] = bulletDirection.getDy();
+        direction[index] = (byte) bulletDirection.ordinal();
+        speed[index] = bulletSpeed;
+        damage[index] = bulletDamage;
+        fromPlayer[index] = isFromPlayer;
+        bulletType[index] = type;
+        return index;
+    }
+
+    /**
+     * 复制一个子弹对象的状态到缓冲区
+     */
+    public int add(Bullet bullet) {
+        return add(bullet.getX(), bullet.getY(), bullet.getDirection(), bullet.getBulletType(),
+                bullet.getSpeed(), bullet.getDamage(), bullet.isFromPlayer());
+    }
+
+    /**
+     * 移除指定下标的子弹：最后一颗子弹移到该位置，遍历时移除后不要递增下标
+     */
+    public void removeAt(int index) {
+        int last = --size;
+        if (index != last) {
+            x[index] = x[last];
+            y[index] = y[last];
+            dx[index] = dx[last];
+            dy[index] = dy[last];
+            direction[index] = direction[last];
+            speed[index] = speed[last];
+            damage[index] = damage[last];
+            fromPlayer[index] = fromPlayer[last];
+            bulletType[index] = bulletType[last];
+        }
+        bulletType[last] = null;
+    }
+
+    public void clear() {
+        Arrays.fill(bulletType, 0, size, null);
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 按方向和速度移动一步（与Bullet.move相同的取整方式）
+     */
+    public void move(int index) {
+        x[index] += (int) Math.round(dx[index] * speed[index]);
+        y[index] += (int) Math.round(dy[index] * speed[index]);
+    }
+
+    public boolean isOutOfBounds(int index, int mapWidth, int mapHeight) {
+        return x[index] < 0 || y[index] < 0 || x[index] > mapWidth || y[index] > mapHeight;
+    }
+
+    // 与任意矩形区域的碰撞检测
+    public boolean collidesWith(int index, int otherX, int otherY, int otherWidth, int otherHeight) {
+        return AABB.intersects(x[index], y[index], BULLET_SIZE, BULLET_SIZE, otherX, otherY, otherWidth, otherHeight);
+    }
+
+    public int getX(int index) {
+        return x[index];
+    }
+
+    public int getY(int index) {
+        return y[index];
+    }
+
+    public int getDx(int index) {
+        return dx[index];
+    }
+
+    public int getDy(int index) {
+        return dy[index];
+    }
+
+    public Direction getDirection(int index) {
+        return DIRECTIONS[direction[index]];
+    }
+
+    public double getSpeed(int index) {
+        return speed[index];
+    }
+
+    public int getDamage(int index) {
+        return damage[index];
+    }
+
+    public boolean isFromPlayer(int index) {
+        return fromPlayer[index];
+    }
+
+    public String getBulletType(int index) {
+        return bulletType[index];
+    }
+
+    /**
+     * 创建指定子弹的独立对象副本（用于需要Bullet对象的旧接口）
+     */
+    public Bullet toBullet(int index) {
+        return new Bullet(x[index], y[index], getDirection(index), bulletType[index],
+                speed[index], damage[index], fromPlayer[index]);
+    }
+
+    private void grow() {
+        int capacity = x.length * 2;
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        dx = Arrays.copyOf(dx, capacity);
+        dy = Arrays.copyOf(dy, capacity);
+        direction = Arrays.copyOf(direction, capacity);
+        speed = Arrays.copyOf(speed, capacity);
+        damage = Arrays.copyOf(damage, capacity);
+        fromPlayer = Arrays.copyOf(fromPlayer, capacity);
+        bulletType = Arrays.copyOf(bulletType, capacity);
+    }
+}
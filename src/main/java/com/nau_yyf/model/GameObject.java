@@ -1,5 +1,6 @@
 package com.nau_yyf.model;
 
+import com.nau_yyf.util.AABB;
 import javafx.scene.canvas.GraphicsContext;
 
 public class GameObject {
@@ -49,10 +50,13 @@ public class GameObject {
 
     // 碰撞检测
     public boolean collidesWith(GameObject other) {
-        return x < other.getX() + other.getWidth() &&
-                x + width > other.getX() &&
-                y < other.getY() + other.getHeight() &&
-                y + height > other.getY();
+        return AABB.intersects(x, y, width, height,
+                other.getX(), other.getY(), other.getWidth(), other.getHeight());
+    }
+
+    // 与任意矩形区域的碰撞检测
+    public boolean collidesWith(int otherX, int otherY, int otherWidth, int otherHeight) {
+        return AABB.intersects(x, y, width, height, otherX, otherY, otherWidth, otherHeight);
     }
 
     /**
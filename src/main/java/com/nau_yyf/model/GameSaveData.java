@@ -31,6 +31,11 @@ public class GameSaveData {
     private int totalEnemyTanksToGenerate;
     private int enemyTanksGenerated;
 
+    // 模拟状态（用于恢复可复现的对局），旧存档中为0
+    private long simulationTime;
+    private long randomSeed;
+    private Long randomState; // 对局随机数的内部状态，旧存档中为null
+
     // 内部类：坦克数据
     public static class TankData {
         private String type;
@@ -38,6 +43,8 @@ public class GameSaveData {
         private int y;
         private int direction;
         private int health;
+        private String behavior; // 敌方坦克AI行为，旧存档中没有该字段
+        private Long randomState; // 坦克AI随机数的内部状态，旧存档中没有该字段
         private Map<String, Double> activeEffects = new HashMap<>();
 
         // 默认构造函数（用于JSON反序列化）
@@ -51,6 +58,8 @@ public class GameSaveData {
             this.y = tank.getY();
             this.direction = tank.getDirectionValue();
             this.health = tank.getHealth();
+            this.behavior = tank.getAIBehavior().name();
+            this.randomState = tank.getRandomState();
 
             // 复制激活效果
             for (Map.Entry<Tank.PowerUpType, Double> entry : tank.getActiveEffects().entrySet()) {
@@ -99,6 +108,22 @@ public class GameSaveData {
             this.health = health;
         }
 
+        public String getBehavior() {
+            return behavior;
+        }
+
+        public void setBehavior(String behavior) {
+            this.behavior = behavior;
+        }
+
+        public Long getRandomState() {
+            return randomState;
+        }
+
+        public void setRandomState(Long randomState) {
+            this.randomState = randomState;
+        }
+
         public Map<String, Double> getActiveEffects() {
             return activeEffects;
         }
@@ -131,6 +156,16 @@ public class GameSaveData {
             this.fromPlayer = bullet.isFromPlayer();
         }
 
+        public BulletData(BulletBuffer buffer, int index) {
+            this.x = buffer.getX(index);
+            this.y = buffer.getY(index);
+            this.direction = buffer.getDirection(index).ordinal();
+            this.bulletType = buffer.getBulletType(index);
+            this.speed = buffer.getSpeed(index);
+            this.damage = buffer.getDamage(index);
+            this.fromPlayer = buffer.isFromPlayer(index);
+        }
+
         public String getBulletType() {
             return bulletType;
         }
@@ -343,4 +378,28 @@ public class GameSaveData {
     public void setEnemyTanksGenerated(int enemyTanksGenerated) {
         this.enemyTanksGenerated = enemyTanksGenerated;
     }
-}
\ No newline at end of file
+
+    public long getSimulationTime() {
+        return simulationTime;
+    }
+
+    public void setSimulationTime(long simulationTime) {
+        this.simulationTime = simulationTime;
+    }
+
+    public long getRandomSeed() {
+        return randomSeed;
+    }
+
+    public void setRandomSeed(long randomSeed) {
+        this.randomSeed = randomSeed;
+    }
+
+    public Long getRandomState() {
+        return randomState;
+    }
+
+    public void setRandomState(Long randomState) {
+        this.randomState = randomState;
+    }
+}
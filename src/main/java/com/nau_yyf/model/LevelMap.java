@@ -3,6 +3,9 @@ package com.nau_yyf.model;
 import java.util.List;
 
 public class LevelMap {
+    // 地形格子大小（像素），地图元素都按20像素对齐
+    public static final int TILE_SIZE = 20;
+
     private int level;
     private String name;
     private int width;
@@ -12,6 +15,67 @@ public class LevelMap {
     private List<MapElement> elements;
     private List<EnemySpawn> enemies;
 
+    // 地形格子层：JSON中的元素列表只作为加载格式，运行时按坐标O(1)查询地形
+    private int tileCols;
+    private int tileRows;
+    private byte[] tiles;                // 每个格子的地形编码（TerrainType.getCode）
+    private MapElement[] tileElements;   // 覆盖每个格子的地图元素
+
+    // 地形类型
+    public enum TerrainType {
+        EMPTY(0, "empty"),
+        BRICK(1, "brick"),
+        STEEL(2, "steel"),
+        GRASS(3, "grass"),
+        WATER(4, "water");
+
+        private static final TerrainType[] BY_CODE = values();
+
+        private final byte code;
+        private final String name;
+
+        TerrainType(int code, String name) {
+            this.code = (byte) code;
+            this.name = name;
+        }
+
+        public byte getCode() {
+            return code;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        // 坦克是否无法通过
+        public boolean isSolid() {
+            return this == BRICK || this == STEEL || this == WATER;
+        }
+
+        // 子弹是否会被阻挡（草地可以穿过）
+        public boolean blocksBullets() {
+            return this != EMPTY && this != GRASS;
+        }
+
+        // 是否遮挡视线（水面和草地不遮挡，草丛只隐藏其中的坦克）
+        public boolean blocksSight() {
+            return this == BRICK || this == STEEL;
+        }
+
+        public static TerrainType fromCode(byte code) {
+            return BY_CODE[code];
+        }
+
+        public static TerrainType fromName(String name) {
+            for (TerrainType type : BY_CODE) {
+                if (type.name.equals(name)) {
+                    return type;
+                }
+            }
+            return EMPTY;
+        }
+    }
+
     // 地图位置类
     public static class MapPosition {
         private int x;
@@ -60,6 +124,8 @@ public class LevelMap {
         private int y;
         private int width;
         private int height;
+        private TerrainType terrainType; // 由type解析并缓存，避免逐帧比较字符串
+        private int listIndex = -1;      // 在元素列表中的位置，用于交换删除
 
         // Getters and setters
         public String getType() {
@@ -68,6 +134,14 @@ public class LevelMap {
 
         public void setType(String type) {
             this.type = type;
+            this.terrainType = null;
+        }
+
+        public TerrainType getTerrainType() {
+            if (terrainType == null) {
+                terrainType = TerrainType.fromName(type);
+            }
+            return terrainType;
         }
 
         public int getX() {
@@ -149,6 +223,7 @@ public class LevelMap {
 
     public void setWidth(int width) {
         this.width = width;
+        this.tiles = null;
     }
 
     public int getHeight() {
@@ -157,6 +232,7 @@ public class LevelMap {
 
     public void setHeight(int height) {
         this.height = height;
+        this.tiles = null;
     }
 
     public MapPosition getPlayerBase() {
@@ -181,6 +257,7 @@ public class LevelMap {
 
     public void setElements(List<MapElement> elements) {
         this.elements = elements;
+        this.tiles = null;
     }
 
     public List<EnemySpawn> getEnemies() {
@@ -191,14 +268,153 @@ public class LevelMap {
         this.enemies = enemies;
     }
 
-    public boolean isGrassAt(int cellX, int cellY) {
-        // 确保坐标在地图范围内
-        if (cellX < 0 || cellX >= width || cellY < 0 || cellY >= height) {
-            return false;
+    /**
+     * 根据元素列表构建地形格子层（首次查询时自动调用）
+     */
+    public void buildTileLayer() {
+        tileCols = Math.max(1, (width + TILE_SIZE - 1) / TILE_SIZE);
+        tileRows = Math.max(1, (height + TILE_SIZE - 1) / TILE_SIZE);
+        tiles = new byte[tileCols * tileRows];
+        tileElements = new MapElement[tileCols * tileRows];
+
+        if (elements == null) {
+            return;
+        }
+        for (int i = 0; i < elements.size(); i++) {
+            MapElement element = elements.get(i);
+            element.listIndex = i;
+            writeTiles(element, element);
+        }
+    }
+
+    private void ensureTileLayer() {
+        if (tiles == null) {
+            buildTileLayer();
         }
+    }
+
+    // 将元素覆盖的格子写为指定元素（null表示清空为空地）
+    private void writeTiles(MapElement element, MapElement owner) {
+        int minTileX = Math.max(0, Math.floorDiv(element.getX(), TILE_SIZE));
+        int minTileY = Math.max(0, Math.floorDiv(element.getY(), TILE_SIZE));
+        int maxTileX = Math.min(tileCols - 1, Math.floorDiv(element.getX() + element.getWidth() - 1, TILE_SIZE));
+        int maxTileY = Math.min(tileRows - 1, Math.floorDiv(element.getY() + element.getHeight() - 1, TILE_SIZE));
+
+        for (int ty = minTileY; ty <= maxTileY; ty++) {
+            for (int tx = minTileX; tx <= maxTileX; tx++) {
+                int index = ty * tileCols + tx;
+                if (owner == null && tileElements[index] != element) {
+                    continue; // 格子已被其他元素占用
+                }
+                tileElements[index] = owner;
+                tiles[index] = owner == null ? TerrainType.EMPTY.getCode() : owner.getTerrainType().getCode();
+            }
+        }
+    }
+
+    /**
+     * 移除地图元素（例如被击毁的砖块），同时清空其占用的格子
+     * 使用交换删除，不移动列表中的其他元素
+     */
+    public void removeElement(MapElement element) {
+        ensureTileLayer();
+        int index = element.listIndex;
+        if (index < 0 || index >= elements.size() || elements.get(index) != element) {
+            return; // 元素不在地图中
+        }
+
+        writeTiles(element, null);
+
+        int last = elements.size() - 1;
+        MapElement moved = elements.get(last);
+        elements.set(index, moved);
+        moved.listIndex = index;
+        elements.remove(last);
+        element.listIndex = -1;
+    }
+
+    /**
+     * 获取像素坐标处的地形类型
+     */
+    public TerrainType getTerrainAt(int px, int py) {
+        return getTerrainAtTile(Math.floorDiv(px, TILE_SIZE), Math.floorDiv(py, TILE_SIZE));
+    }
+
+    public TerrainType getTerrainAtTile(int tileX, int tileY) {
+        ensureTileLayer();
+        if (tileX < 0 || tileX >= tileCols || tileY < 0 || tileY >= tileRows) {
+            return TerrainType.EMPTY;
+        }
+        return TerrainType.fromCode(tiles[tileY * tileCols + tileX]);
+    }
+
+    public MapElement getElementAtTile(int tileX, int tileY) {
+        ensureTileLayer();
+        if (tileX < 0 || tileX >= tileCols || tileY < 0 || tileY >= tileRows) {
+            return null;
+        }
+        return tileElements[tileY * tileCols + tileX];
+    }
+
+    /**
+     * 查询与区域覆盖的格子重叠的地图元素（粗筛，调用方仍需做精确相交判断）
+     *
+     * @param out 结果列表，调用前会被清空，可复用以避免分配
+     * @return 传入的结果列表
+     */
+    public List<MapElement> queryElements(int x, int y, int width, int height, List<MapElement> out) {
+        out.clear();
+        ensureTileLayer();
+
+        int minTileX = Math.max(0, Math.floorDiv(x, TILE_SIZE));
+        int minTileY = Math.max(0, Math.floorDiv(y, TILE_SIZE));
+        int maxTileX = Math.min(tileCols - 1, Math.floorDiv(x + width - 1, TILE_SIZE));
+        int maxTileY = Math.min(tileRows - 1, Math.floorDiv(y + height - 1, TILE_SIZE));
+
+        for (int ty = minTileY; ty <= maxTileY; ty++) {
+            for (int tx = minTileX; tx <= maxTileX; tx++) {
+                MapElement element = tileElements[ty * tileCols + tx];
+                // 查询区域很小，结果最多几个元素，线性去重即可
+                if (element != null && !out.contains(element)) {
+                    out.add(element);
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * 判断区域是否与指定类型的地形相交
+     */
+    public boolean intersectsTerrain(int x, int y, int width, int height, TerrainType type) {
+        ensureTileLayer();
+
+        int minTileX = Math.max(0, Math.floorDiv(x, TILE_SIZE));
+        int minTileY = Math.max(0, Math.floorDiv(y, TILE_SIZE));
+        int maxTileX = Math.min(tileCols - 1, Math.floorDiv(x + width - 1, TILE_SIZE));
+        int maxTileY = Math.min(tileRows - 1, Math.floorDiv(y + height - 1, TILE_SIZE));
+
+        for (int ty = minTileY; ty <= maxTileY; ty++) {
+            for (int tx = minTileX; tx <= maxTileX; tx++) {
+                if (tiles[ty * tileCols + tx] == type.getCode()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public int getTileCols() {
+        ensureTileLayer();
+        return tileCols;
+    }
+
+    public int getTileRows() {
+        ensureTileLayer();
+        return tileRows;
+    }
 
-        return elements.stream()
-                .filter(element -> element.getX() == cellX && element.getY() == cellY)
-                .anyMatch(element -> "grass".equals(element.getType()));
+    public boolean isGrassAt(int x, int y) {
+        return getTerrainAt(x, y) == TerrainType.GRASS;
     }
-}
\ No newline at end of file
+}
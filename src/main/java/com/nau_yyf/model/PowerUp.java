@@ -1,6 +1,8 @@
 package com.nau_yyf.model;
 
 import com.nau_yyf.model.Tank.PowerUpType;
+import com.nau_yyf.simulation.SimulationClock;
+import com.nau_yyf.util.AABB;
 import javafx.scene.canvas.GraphicsContext;
 
 public class PowerUp extends GameObject {
@@ -10,30 +12,38 @@ public class PowerUp extends GameObject {
     private boolean isBlinking = false;
     private static final long LIFESPAN = 8000; // 8秒生命周期
     private static final long BLINK_START = 5000; // 5秒开始闪烁
+    private SimulationClock clock = SimulationClock.system();
 
     public PowerUp(int x, int y, PowerUpType type) {
         super(x, y, 30, 30); // 增益效果大小为30x30
         this.type = type;
-        this.creationTime = System.currentTimeMillis();
+        this.creationTime = clock.currentTimeMillis();
+    }
+
+    /**
+     * 创建使用指定模拟时钟计时的增益效果
+     */
+    public PowerUp(int x, int y, PowerUpType type, SimulationClock clock) {
+        this(x, y, type);
+        this.clock = clock;
+        this.creationTime = clock.currentTimeMillis();
     }
 
     // 修改碰撞检测方法，接受Tank作为参数
     public boolean collidesWithTank(Tank tank) {
         // 放宽碰撞检测标准，使拾取更容易
-        return getX() - 5 < tank.getX() + tank.getWidth() &&
-                getX() + getWidth() + 5 > tank.getX() &&
-                getY() - 5 < tank.getY() + tank.getHeight() &&
-                getY() + getHeight() + 5 > tank.getY();
+        return AABB.intersectsWithMargin(getX(), getY(), getWidth(), getHeight(),
+                tank.getX(), tank.getY(), tank.getWidth(), tank.getHeight(), 5);
     }
 
     // 检查是否应该移除（超过生命周期或被收集）
     public boolean shouldRemove() {
-        return isCollected || (System.currentTimeMillis() - creationTime) > LIFESPAN;
+        return isCollected || (clock.currentTimeMillis() - creationTime) > LIFESPAN;
     }
 
     // 检查是否应该闪烁（超过3秒但尚未被收集）
     public boolean shouldBlink() {
-        long elapsed = System.currentTimeMillis() - creationTime;
+        long elapsed = clock.currentTimeMillis() - creationTime;
         return !isCollected && elapsed > BLINK_START && elapsed < LIFESPAN;
     }
 
@@ -49,7 +59,7 @@ public class PowerUp extends GameObject {
 
     // 获取剩余时间（毫秒）
     public long getRemainingTime() {
-        return Math.max(0, LIFESPAN - (System.currentTimeMillis() - creationTime));
+        return Math.max(0, LIFESPAN - (clock.currentTimeMillis() - creationTime));
     }
 
     // 获取闪烁状态
@@ -67,6 +77,10 @@ public class PowerUp extends GameObject {
         return !shouldBlink() || isBlinking;
     }
 
+    public long getCreationTime() {
+        return creationTime;
+    }
+
     // 创建时间的setter方法
     public void setCreationTime(long creationTime) {
         this.creationTime = creationTime;
@@ -80,7 +94,7 @@ public class PowerUp extends GameObject {
         // 检查是否应该闪烁
         if (shouldBlink()) {
             // 每200毫秒切换一次显示状态
-            if (System.currentTimeMillis() % 400 < 200) {
+            if (clock.currentTimeMillis() % 400 < 200) {
                 isBlinking = true;
             } else {
                 isBlinking = false;
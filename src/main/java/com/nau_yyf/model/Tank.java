@@ -1,12 +1,20 @@
 package com.nau_yyf.model;
 
-import com.nau_yyf.controller.SingleGameController;
+import com.nau_yyf.simulation.AIIntent;
+import com.nau_yyf.simulation.AISnapshot;
+import com.nau_yyf.simulation.GameWorld;
+import com.nau_yyf.simulation.ReservationTable;
+import com.nau_yyf.simulation.SimulationClock;
+import com.nau_yyf.simulation.SimulationRandom;
+import com.nau_yyf.util.AABB;
 import com.nau_yyf.util.AStarPathfinder;
-import javafx.scene.canvas.GraphicsContext;
+import com.nau_yyf.util.ClearanceMap;
+import com.nau_yyf.util.FlowField;
+import com.nau_yyf.util.TerrainRaycaster;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.Random;
 
 public class Tank {
     // 坦克类型枚举
@@ -120,6 +128,21 @@ public class Tank {
         }
     }
 
+    // 敌方坦克AI行为枚举
+    public enum AIBehavior {
+        CHASE_PLAYER, // 追踪玩家
+        ASSAULT_BASE; // 沿共享距离场进攻玩家基地
+
+        public static AIBehavior fromString(String name) {
+            for (AIBehavior behavior : values()) {
+                if (behavior.name().equalsIgnoreCase(name)) {
+                    return behavior;
+                }
+            }
+            return CHASE_PLAYER; // 旧存档默认追踪玩家
+        }
+    }
+
     // 坦克基本属性
     private TankType type;
     private int x;
@@ -151,9 +174,14 @@ public class Tank {
     private static final Map<TankType, double[]> DEFAULT_STATS = new HashMap<>();
 
     // 添加用于敌方坦克AI的相关属性和方法
-    private List<AStarPathfinder.Node> pathToTarget;
+    private int[] pathToTarget; // 打包的格子坐标，见AStarPathfinder.packCell
     private int pathIndex;
+    private int pathGoalCell = -1; // 当前路径对应的寻路目标（分层寻路返回的部分路径终点不是目标）
     private long lastPathfindingTime;
+    private int flowStepCell = -1; // 沿流场前进的下一个格子（打包坐标）
+    private final int[] flowCandidates = new int[4];
+    private boolean waitingForReservation; // 本帧为避让其他坦克的预约而原地等待
+    private AIBehavior aiBehavior = AIBehavior.CHASE_PLAYER;
     private static final long PATHFINDING_INTERVAL = 2000; // 每2秒重新计算路径
 
     // 新增字段
@@ -177,6 +205,10 @@ public class Tank {
     private boolean respawnBlinkVisible = true; // 控制闪烁显示状态
     private long lastBlinkTime = 0; // 上次闪烁时间
 
+    // 计时和随机数来源，加入游戏世界时替换为对局的模拟时钟和派生的随机数生成器
+    private SimulationClock clock = SimulationClock.system();
+    private SimulationRandom random = new SimulationRandom(new Random().nextLong());
+
     // 在Tank类中添加一个标记，记录上一帧是否在水中
     private boolean inWaterLastFrame = false;
 
@@ -253,7 +285,7 @@ public class Tank {
     }
 
     // move方法
-    public void move(SingleGameController singleGameController) {
+    public void move(GameWorld gameWorld) {
         // 如果坦克已经死亡，不允许移动
         if (isDead()) return;
 
@@ -315,8 +347,8 @@ public class Tank {
         lastMotion[1] = dirY;
 
         // 边界检查
-        int mapWidth = (singleGameController.getMap() != null) ? singleGameController.getMap().getWidth() : 800;
-        int mapHeight = (singleGameController.getMap() != null) ? singleGameController.getMap().getHeight() : 600;
+        int mapWidth = (gameWorld.getMap() != null) ? gameWorld.getMap().getWidth() : 800;
+        int mapHeight = (gameWorld.getMap() != null) ? gameWorld.getMap().getHeight() : 600;
 
         if (nextX < 0) {
             nextX = 0;
@@ -335,16 +367,18 @@ public class Tank {
         }
 
         // 检查碰撞
-        String collisionType = singleGameController.checkCollision((int) nextX, (int) nextY, width, height);
+        String collisionType = gameWorld.checkCollision((int) nextX, (int) nextY, width, height);
 
         if (collisionType == null) {
             // 无碰撞，正常移动
             x = (int) nextX;
             y = (int) nextY;
+            gameWorld.onTankMoved(this);
         } else if (collisionType.equals("water")) {
             // 水池，移动但需要减速和检查状态
             x = (int) nextX;
             y = (int) nextY;
+            gameWorld.onTankMoved(this);
             inWaterLastFrame = true;
 
             // 水池中移动减速
@@ -398,21 +432,43 @@ public class Tank {
 
     // 检查是否可以开火
     public boolean canFire() {
-        long currentTime = System.currentTimeMillis();
+        long currentTime = clock.currentTimeMillis();
         double actualFireDelay = isEffectActive(PowerUpType.ATTACK) ? fireDelay * 0.7 : fireDelay;
         return currentTime - lastFireTime >= actualFireDelay;
     }
 
     // 开火方法，返回创建的子弹
     public Bullet fire() {
+        if (!prepareFire()) {
+            return null;
+        }
+        return new Bullet(getMuzzleX(), getMuzzleY(), direction, bulletType,
+                bulletSpeed, getBulletDamage(), type.isFriendly());
+    }
+
+    /**
+     * 开火并把子弹直接写入子弹缓冲区，不创建子弹对象
+     *
+     * @return 新子弹在缓冲区中的下标，未能开火时返回-1
+     */
+    public int fire(BulletBuffer buffer) {
+        if (!prepareFire()) {
+            return -1;
+        }
+        return buffer.add(getMuzzleX(), getMuzzleY(), direction, bulletType,
+                bulletSpeed, getBulletDamage(), type.isFriendly());
+    }
+
+    // 检查开火条件并记录开火时间，返回是否可以发射子弹
+    private boolean prepareFire() {
         // 如果坦克已经死亡，不允许射击
-        if (isDead()) return null;
+        if (isDead()) return false;
 
-        long currentTime = System.currentTimeMillis();
+        long currentTime = clock.currentTimeMillis();
 
         // 如果坦克类型是敌人且冷却时间不足，则不允许发射
         if (!type.isFriendly() && currentTime - lastFireTime < fireDelay) {
-            return null;
+            return false;
         }
 
         // 设置不同的冷却时间
@@ -433,38 +489,40 @@ public class Tank {
         }
 
         if (canFire()) {
-            lastFireTime = System.currentTimeMillis();
-
-            // 计算子弹生成位置（坦克中心）
-            // 坦克宽高为40x40，子弹宽高为10x10，因此需要从坦克中心减去子弹尺寸的一半
-            int bulletX = x + (width / 2) - 5; // 子弹宽度为10，所以一半是5
-            int bulletY = y + (height / 2) - 5; // 子弹高度为10，所以一半是5
-
-            // 根据方向调整初始位置，让子弹出现在坦克边缘而不是中心
-            // 这样看起来更自然，好像子弹是从炮管射出的
-            switch (direction) {
-                case UP:
-                    bulletY = y - 10; // 从坦克顶部发射
-                    break;
-                case DOWN:
-                    bulletY = y + height; // 从坦克底部发射
-                    break;
-                case LEFT:
-                    bulletX = x - 10; // 从坦克左侧发射
-                    break;
-                case RIGHT:
-                    bulletX = x + width; // 从坦克右侧发射
-                    break;
-            }
+            lastFireTime = clock.currentTimeMillis();
+            return true;
+        }
+        return false;
+    }
 
-            // 子弹攻击力增益 - 增加50%伤害
-            int bulletDamage = isEffectActive(PowerUpType.ATTACK) ?
-                    attackPower * 2 : attackPower;
+    // 计算子弹生成位置（坦克中心）
+    // 坦克宽高为40x40，子弹宽高为10x10，因此需要从坦克中心减去子弹尺寸的一半
+    // 根据方向调整初始位置，让子弹出现在坦克边缘而不是中心，好像子弹是从炮管射出的
+    private int getMuzzleX() {
+        switch (direction) {
+            case LEFT:
+                return x - 10; // 从坦克左侧发射
+            case RIGHT:
+                return x + width; // 从坦克右侧发射
+            default:
+                return x + (width / 2) - 5; // 子弹宽度为10，所以一半是5
+        }
+    }
 
-            return new Bullet(bulletX, bulletY, direction, bulletType,
-                    bulletSpeed, bulletDamage, type.isFriendly());
+    private int getMuzzleY() {
+        switch (direction) {
+            case UP:
+                return y - 10; // 从坦克顶部发射
+            case DOWN:
+                return y + height; // 从坦克底部发射
+            default:
+                return y + (height / 2) - 5; // 子弹高度为10，所以一半是5
         }
-        return null;
+    }
+
+    // 子弹攻击力增益 - 增加50%伤害
+    private int getBulletDamage() {
+        return isEffectActive(PowerUpType.ATTACK) ? attackPower * 2 : attackPower;
     }
 
     // 受到伤害（优化逻辑判断，加入出生保护检查）
@@ -597,10 +655,14 @@ public class Tank {
 
     // 判断是否与其他对象碰撞
     public boolean collidesWith(GameObject other) {
-        return x < other.getX() + other.getWidth() &&
-                x + width > other.getX() &&
-                y < other.getY() + other.getHeight() &&
-                y + height > other.getY();
+        return AABB.intersects(x, y, width, height,
+                other.getX(), other.getY(), other.getWidth(), other.getHeight());
+    }
+
+    // 判断是否与另一辆坦克碰撞
+    public boolean collidesWith(Tank other) {
+        return AABB.intersects(x, y, width, height,
+                other.getX(), other.getY(), other.getWidth(), other.getHeight());
     }
 
     // Getters和Setters
@@ -697,36 +759,38 @@ public class Tank {
         return speed;
     }
 
-    // AI行为方法
-    public Bullet updateAI(boolean[][] grid, Tank playerTank, SingleGameController singleGameController) {
+    /**
+     * AI决策阶段：只读取快照，只修改本坦克的AI和朝向状态，需要改动共享世界的操作记录在意图中。
+     * 不同坦克的决策互不影响，可以并行执行
+     */
+    public void decideAI(AISnapshot snapshot, AIIntent intent) {
+        intent.reset();
+        waitingForReservation = false;
+
         // 如果处于出生保护状态，不执行AI逻辑
         if (isInSpawnProtection()) {
-            return null;
+            return;
         }
+        intent.setActive(true);
 
         // 添加空值检查
-        if (grid == null || playerTank == null || singleGameController == null) {
-            // 如果关键参数为空，执行简单的随机移动
+        boolean[][] grid = snapshot.getGrid();
+        if (grid == null || !snapshot.hasPlayer()) {
+            // 如果关键数据为空，执行简单的随机移动
             setRandomDirection();
-            if (singleGameController != null) {
-                move(singleGameController);
-            }
-            return null;
+            intent.setMove(AIIntent.Move.FORWARD);
+            return;
         }
 
         // 检查是否是首次更新（从存档加载后）
         if (pathToTarget == null && lastPathfindingTime == 0) {
-            // 强制立即进行路径计算
-            lastPathfindingTime = 0;
             // 确保坦克处于移动状态
             isMoving = true;
             setAccelerating(true);
         }
 
-        Bullet firedBullet = null;
-
         if (!isFriendly()) {
-            long currentTime = System.currentTimeMillis();
+            long currentTime = snapshot.getCurrentTime();
 
             // 敌方坦克始终处于移动状态
             isMoving = true;
@@ -734,253 +798,474 @@ public class Tank {
             // 在执行移动前，设置加速状态
             setAccelerating(true);
 
-            // 检查玩家坦克是否在草丛中
-            boolean playerInGrass = isPlayerInGrass(playerTank, singleGameController);
-
             // 计算与玩家坦克的距离
-            double distance = calculateDistance(playerTank);
-
-            // 如果玩家在探测范围内且不在草丛中，使用A*寻路追踪玩家
-            if (distance <= DETECTION_RANGE && !playerInGrass) {
-                boolean needRecalculatePath = false;
-
-                // 检查是否需要重新计算路径
-                if (pathToTarget == null || pathToTarget.isEmpty()) {
-                    needRecalculatePath = true;
-                } else if (currentTime - lastPathfindingTime > PATHFINDING_INTERVAL) {
-                    // 如果已经过了重新计算路径的间隔时间
-                    needRecalculatePath = true;
-                } else if (pathIndex >= pathToTarget.size()) {
-                    // 如果已经到达了路径的终点
-                    needRecalculatePath = true;
-                } else {
-                    // 检查玩家是否移动很远，需要更新路径
-                    AStarPathfinder.Node lastNode = pathToTarget.get(pathToTarget.size() - 1);
-                    int targetGridX = playerTank.getX() / 40;
-                    int targetGridY = playerTank.getY() / 40;
-
-                    if (Math.abs(lastNode.getX() - targetGridX) > 2 ||
-                            Math.abs(lastNode.getY() - targetGridY) > 2) {
-                        needRecalculatePath = true;
-                    }
-                }
+            double distance = calculateDistance(snapshot.getPlayerCenterX(), snapshot.getPlayerCenterY());
 
-                // 重新计算路径
-                if (needRecalculatePath) {
-                    int cellSize = 40; // 网格单元格大小
-
-                    // 将坦克位置转换为网格坐标
-                    int startX = x / cellSize;
-                    int startY = y / cellSize;
-                    int targetX = playerTank.getX() / cellSize;
-                    int targetY = playerTank.getY() / cellSize;
-
-                    // 边界检查
-                    if (grid != null && grid.length > 0 && grid[0].length > 0) {
-                        int gridWidth = grid[0].length;
-                        int gridHeight = grid.length;
-
-                        startX = Math.max(0, Math.min(startX, gridWidth - 1));
-                        startY = Math.max(0, Math.min(startY, gridHeight - 1));
-                        targetX = Math.max(0, Math.min(targetX, gridWidth - 1));
-                        targetY = Math.max(0, Math.min(targetY, gridHeight - 1));
-
-
-                        // 使用A*算法查找路径
-                        List<AStarPathfinder.Node> newPath = AStarPathfinder.findPath(
-                                grid, startX, startY, targetX, targetY);
-
-                        if (newPath != null && !newPath.isEmpty()) {
-                            pathToTarget = newPath;
-                            pathIndex = 0;
-                        } else {
-                            pathToTarget = null;
-                        }
-                        lastPathfindingTime = currentTime;
-                    }
+            // 进攻基地的坦克沿共享距离场前进，不追踪玩家；到达基地旁边后原地开火
+            if (aiBehavior == AIBehavior.ASSAULT_BASE && snapshot.getBaseFlowField() != null) {
+                if (isNextToBase(snapshot)) {
+                    flowStepCell = -1;
+                    decideAttackBase(snapshot, intent);
+                } else {
+                    decideFollowFlowField(snapshot.getBaseFlowField(), true, snapshot, intent);
                 }
-
-                // 如果有路径，严格按照路径移动
-                if (pathToTarget != null && !pathToTarget.isEmpty() && pathIndex < pathToTarget.size()) {
-                    AStarPathfinder.Node nextNode = pathToTarget.get(pathIndex);
-
-                    // 计算网格中节点的中心点像素坐标
-                    int cellSize = 40;
-                    int targetCenterX = nextNode.getX() * cellSize + cellSize / 2;
-                    int targetCenterY = nextNode.getY() * cellSize + cellSize / 2;
-
-                    // 计算坦克中心点
-                    int tankCenterX = x + width / 2;
-                    int tankCenterY = y + height / 2;
-
-                    // 计算坦克中心点到目标中心点的距离
-                    double nodeDistance = Math.sqrt(
-                            Math.pow(targetCenterX - tankCenterX, 2) +
-                                    Math.pow(targetCenterY - tankCenterY, 2));
-
-                    // 判断是否已经达到当前路径点（使用更精确的距离判断）
-                    if (nodeDistance < currentSpeed) {
-                        // 已经足够接近这个路径点，移动到下一个
-                        pathIndex++;
-
-                        // 如果已经是最后一个点，重新计算路径
-                        if (pathIndex >= pathToTarget.size()) {
-                        }
-                    } else {
-                        // 还没到达当前路径点，继续移动
-                        // 计算移动方向
-                        if (Math.abs(targetCenterX - tankCenterX) > Math.abs(targetCenterY - tankCenterY)) {
-                            // 水平移动
-                            if (targetCenterX > tankCenterX) {
-                                setDirection(Direction.RIGHT);
-                            } else {
-                                setDirection(Direction.LEFT);
-                            }
-                        } else {
-                            // 垂直移动
-                            if (targetCenterY > tankCenterY) {
-                                setDirection(Direction.DOWN);
-                            } else {
-                                setDirection(Direction.UP);
-                            }
-                        }
-
-                        // 移动前记录当前位置
-                        int oldX = x;
-                        int oldY = y;
-
-                        // 执行移动
-                        if (singleGameController != null) {
-                            move(singleGameController);
-                        } else {
-                            move();
-                        }
-
-                        // 检查是否有实际移动
-                        if (oldX == x && oldY == y) {
-                            // 尝试更改方向或重新计算路径
-                            lastPathfindingTime = 0; // 强制下次更新重新计算路径
-                        }
-
-                        // 在追踪玩家过程中尝试开火
-                        if (Math.random() < 0.3 && canFire()) {
-                            firedBullet = fire();
-                        }
-                    }
+            } else if (distance <= DETECTION_RANGE && !snapshot.isPlayerInGrass()) {
+                // 如果玩家在探测范围内且不在草丛中，追踪玩家
+                FlowField flowField = snapshot.getFlowField();
+                if (flowField != null) {
+                    // 所有敌方坦克共用朝向玩家的流场，直接读取下一步
+                    decideFollowFlowField(flowField, false, snapshot, intent);
                 } else {
-                    // 没有有效路径，直接向玩家移动
-                    moveDirectlyTowardsPlayer(playerTank, singleGameController);
-
-                    // 也尝试开火
-                    if (Math.random() < 0.2 && canFire()) {
-                        firedBullet = fire();
-                    }
+                    // PATHFINDING模式下，通过寻路调度器单独寻路追踪玩家
+                    decideFollowPath(currentTime, grid, snapshot, intent);
                 }
             } else {
                 // 玩家不在探测范围内或在草丛中，执行随机移动
-                firedBullet = updateRandomMovementWithCollision(currentTime, grid, singleGameController);
+                decideRandomMovement(currentTime, grid, snapshot, intent);
             }
+
+            // 移动后检查速度是否异常
+            intent.setSelfRepair(true);
         }
+    }
+
+    /**
+     * AI应用阶段：按意图移动和开火，必须在单线程中按坦克顺序执行
+     *
+     * @return 本次是否开火
+     */
+    public boolean applyAI(AIIntent intent, GameWorld gameWorld) {
+        if (!intent.isActive()) {
+            return false;
+        }
+
+        // 到达较窄的路径点时先对齐
+        if (intent.getAlignCell() >= 0) {
+            alignToCell(intent.getAlignCell(), gameWorld);
+        }
+
+        // 预约流场的下一步，已被本帧先处理的坦克预约时放弃这一步
+        AIIntent.Move move = intent.getMove();
+        if (intent.getReserveCell() >= 0 && !reserveFlowStep(intent, gameWorld)) {
+            flowStepCell = -1;
+            move = AIIntent.Move.NONE;
+        }
+
+        // 移动前记录当前位置
+        int oldX = x;
+        int oldY = y;
+
+        if (move != AIIntent.Move.NONE) {
+            move(gameWorld);
+            if (move == AIIntent.Move.DETOUR && oldX == x && oldY == y) {
+                detour(oldX, oldY, gameWorld);
+            }
+        }
+
+        // 检查是否有实际移动
+        if (move != AIIntent.Move.NONE && oldX == x && oldY == y) {
+            switch (intent.getBlockedAction()) {
+                case CLEAR_FLOW_STEP:
+                    flowStepCell = -1; // 被阻挡，下次重新读取下一步
+                    break;
+                case REPATH:
+                    lastPathfindingTime = 0; // 强制下次更新重新计算路径
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        boolean fired = intent.isFire() && fire(gameWorld.getBulletBuffer()) >= 0;
 
         // 添加自我修复机制：如果坦克移动不正常，重置AI状态
-        if (!isFriendly() && currentSpeed < 0.1 && isAccelerating) {
+        if (intent.isSelfRepair() && !isFriendly() && currentSpeed < 0.1 && isAccelerating) {
             resetAIState();  // 重置AI状态
             currentSpeed = maxSpeed * 0.4;  // 从70%减小到40%
         }
 
-        return firedBullet;
+        return fired;
     }
 
-    // 优化moveDirectlyTowardsPlayer方法，增加卡住检测
-    private void moveDirectlyTowardsPlayer(Tank playerTank, SingleGameController singleGameController) {
-        // 记录移动前的位置
-        int oldX = x;
-        int oldY = y;
+    /**
+     * 按意图预约格子：预约仍空闲时释放原有预约，重新预约当前格子和目标格子
+     *
+     * @return 目标格子已被其他坦克预约时返回false
+     */
+    private boolean reserveFlowStep(AIIntent intent, GameWorld gameWorld) {
+        ReservationTable reservations = gameWorld.getReservationTable();
+        long now = clock.currentTimeMillis();
+        int cell = intent.getReserveCell();
+        if (!reservations.isFree(cell, now, intent.getReserveUntil(), this)) {
+            return false;
+        }
+        int cellSize = 40;
+        int currentCell = AStarPathfinder.packCell((x + width / 2) / cellSize, (y + height / 2) / cellSize);
+        reservations.release(this);
+        reservations.reserve(currentCell, now, now + ReservationTable.millisPerCell(this), this);
+        reservations.reserve(cell, now, intent.getReserveUntil(), this);
+        return true;
+    }
+
+    /**
+     * 沿共享流场追踪玩家或进攻基地：每次只需读取当前格子的下一步，不做单独寻路；
+     * 启用预约表时在距离相同的几个下一步中选择未被其他坦克预约的格子，都被预约时原地等待
+     */
+    private void decideFollowFlowField(FlowField flowField, boolean towardsBase, AISnapshot snapshot, AIIntent intent) {
+        // 尚无步点或已到达当前步点时，从流场读取下一步
+        if (flowStepCell < 0 || hasReachedCell(flowStepCell)) {
+            if (flowStepCell >= 0) {
+                alignIfTight(flowStepCell, snapshot, intent);
+            }
+            int cellSize = 40;
+            int cellX = (x + width / 2) / cellSize;
+            int cellY = (y + height / 2) / cellSize;
+            ReservationTable reservations = snapshot.getReservationTable();
+            if (reservations == null) {
+                flowStepCell = flowField.nextStep(cellX, cellY);
+            } else {
+                flowStepCell = -1;
+                long now = snapshot.getCurrentTime();
+                long until = now + 2 * ReservationTable.millisPerCell(this);
+                int count = flowField.nextSteps(cellX, cellY, flowCandidates);
+                for (int i = 0; i < count && flowStepCell < 0; i++) {
+                    if (reservations.isFree(flowCandidates[i], now, until, this)) {
+                        flowStepCell = flowCandidates[i];
+                    }
+                }
+                if (count > 0 && flowStepCell < 0) {
+                    // 下一步都被其他坦克预约：原地等待并保留当前格子，下一帧重新选择
+                    waitingForReservation = true;
+                    setAccelerating(false);
+                    intent.reserve(AStarPathfinder.packCell(cellX, cellY), now + ReservationTable.millisPerCell(this));
+                    intent.setFire(shouldFire(snapshot, 0.3));
+                    return;
+                }
+                if (flowStepCell >= 0) {
+                    intent.reserve(flowStepCell, until);
+                }
+            }
+        }
+
+        if (flowStepCell < 0) {
+            if (towardsBase) {
+                decideAttackBase(snapshot, intent);
+                return;
+            }
+            // 已在玩家所在格子或当前格子不可达，直接向玩家移动
+            decideMoveTowardsPlayer(snapshot, intent);
+            intent.setFire(shouldFire(snapshot, 0.2));
+            return;
+        }
+
+        faceCell(flowStepCell);
+        intent.setMove(AIIntent.Move.FORWARD);
+        intent.setBlockedAction(AIIntent.BlockedAction.CLEAR_FLOW_STEP);
+
+        // 在追踪玩家过程中尝试开火
+        intent.setFire(shouldFire(snapshot, 0.3));
+    }
+
+    /**
+     * 使用A*路径追踪玩家（PATHFINDING模式，路径由寻路调度器计算）
+     */
+    private void decideFollowPath(long currentTime, boolean[][] grid, AISnapshot snapshot, AIIntent intent) {
+        boolean needRecalculatePath = false;
+
+        // 检查是否需要重新计算路径
+        if (pathToTarget == null || pathToTarget.length == 0) {
+            // 上次寻路没有结果（目标不可达）时等到下一个间隔再重试，避免每帧重复提交
+            needRecalculatePath = lastPathfindingTime == 0
+                    || currentTime - lastPathfindingTime > PATHFINDING_INTERVAL;
+        } else if (currentTime - lastPathfindingTime > PATHFINDING_INTERVAL) {
+            // 如果已经过了重新计算路径的间隔时间
+            needRecalculatePath = true;
+        } else if (pathIndex >= pathToTarget.length) {
+            // 如果已经到达了路径的终点
+            needRecalculatePath = true;
+        } else {
+            // 检查玩家是否移动很远，需要更新路径
+            int lastCell = pathGoalCell >= 0 ? pathGoalCell : pathToTarget[pathToTarget.length - 1];
+            int targetGridX = snapshot.getPlayerX() / 40;
+            int targetGridY = snapshot.getPlayerY() / 40;
+
+            if (Math.abs(AStarPathfinder.cellX(lastCell) - targetGridX) > 2 ||
+                    Math.abs(AStarPathfinder.cellY(lastCell) - targetGridY) > 2) {
+                needRecalculatePath = true;
+            }
+        }
+
+        // 重新计算路径
+        if (needRecalculatePath) {
+            int cellSize = 40; // 网格单元格大小
+
+            // 将坦克位置转换为网格坐标
+            int startX = x / cellSize;
+            int startY = y / cellSize;
+            int targetX = snapshot.getPlayerX() / cellSize;
+            int targetY = snapshot.getPlayerY() / cellSize;
+
+            // 边界检查
+            if (grid.length > 0 && grid[0].length > 0) {
+                int gridWidth = grid[0].length;
+                int gridHeight = grid.length;
+
+                startX = Math.max(0, Math.min(startX, gridWidth - 1));
+                startY = Math.max(0, Math.min(startY, gridHeight - 1));
+                targetX = Math.max(0, Math.min(targetX, gridWidth - 1));
+                targetY = Math.max(0, Math.min(targetY, gridHeight - 1));
+
+                // 提交寻路请求，由调度器在每帧预算内处理；处理前继续沿旧路径移动
+                boolean hasUsablePath = pathToTarget != null && pathIndex < pathToTarget.length;
+                intent.requestPath(startX, startY, targetX, targetY, !hasUsablePath);
+            }
+        }
+
+        // 如果有路径，严格按照路径移动
+        if (pathToTarget != null && pathIndex < pathToTarget.length) {
+            int nextCell = pathToTarget[pathIndex];
+
+            // 协作寻路安排的等待（连续重复的格子）：停到计划的出发时间，让其他坦克先通过
+            if (pathIndex > 0 && nextCell == pathToTarget[pathIndex - 1]) {
+                if (currentTime < lastPathfindingTime + pathIndex * ReservationTable.millisPerCell(this)) {
+                    waitingForReservation = true;
+                    setAccelerating(false);
+                    intent.setFire(shouldFire(snapshot, 0.3));
+                    return;
+                }
+                pathIndex++;
+                return;
+            }
+
+            // 判断是否已经达到当前路径点
+            if (hasReachedCell(nextCell)) {
+                // 已经足够接近这个路径点，下次移动到下一个
+                pathIndex++;
+                alignIfTight(nextCell, snapshot, intent);
+            } else {
+                // 还没到达当前路径点，继续移动，被阻挡时重新计算路径
+                faceCell(nextCell);
+                intent.setMove(AIIntent.Move.FORWARD);
+                intent.setBlockedAction(AIIntent.BlockedAction.REPATH);
+
+                // 在追踪玩家过程中尝试开火
+                intent.setFire(shouldFire(snapshot, 0.3));
+            }
+        } else {
+            // 没有有效路径，直接向玩家移动
+            decideMoveTowardsPlayer(snapshot, intent);
+
+            // 也尝试开火
+            intent.setFire(shouldFire(snapshot, 0.2));
+        }
+    }
+
+    /**
+     * 设置寻路调度器计算出的路径
+     *
+     * @param path 打包后的格子坐标数组，空数组表示找不到路径
+     */
+    public void setComputedPath(int[] path, long computedTime) {
+        setComputedPath(path, 0, path.length > 0 ? path[path.length - 1] : -1, computedTime);
+    }
+
+    /**
+     * 设置寻路调度器计算出的路径，从指定下标开始沿路径移动（路径数组可能与其他坦克共享，只读使用）
+     *
+     * @param goalCell 寻路目标的打包坐标，路径可能只通往目标方向上的中途格子
+     */
+    public void setComputedPath(int[] path, int startIndex, int goalCell, long computedTime) {
+        if (path.length > startIndex) {
+            pathToTarget = path;
+            pathIndex = startIndex;
+            pathGoalCell = goalCell;
+        } else {
+            pathToTarget = null;
+            pathGoalCell = -1;
+        }
+        lastPathfindingTime = computedTime;
+    }
+
+    /**
+     * 判断坦克中心是否已到达指定格子的中心
+     */
+    private boolean hasReachedCell(int cell) {
+        int cellSize = 40;
+        int targetCenterX = AStarPathfinder.cellX(cell) * cellSize + cellSize / 2;
+        int targetCenterY = AStarPathfinder.cellY(cell) * cellSize + cellSize / 2;
+        double nodeDistance = Math.hypot(targetCenterX - (x + width / 2), targetCenterY - (y + height / 2));
+        // 速度为0时也允许判定到达，避免在格子中心来回抖动
+        return nodeDistance < Math.max(currentSpeed, 1.0);
+    }
 
-        // 计算玩家中心点
-        int playerCenterX = playerTank.getX() + playerTank.getWidth() / 2;
-        int playerCenterY = playerTank.getY() + playerTank.getHeight() / 2;
+    /**
+     * 到达的路径点周围不够宽敞时（旁边有障碍物），在应用阶段把坦克对齐到格子中心，
+     * 避免带着几像素的偏移转弯或通过窄道时卡在墙角
+     */
+    private void alignIfTight(int cell, AISnapshot snapshot, AIIntent intent) {
+        ClearanceMap clearance = snapshot.getClearanceMap();
+        if (clearance != null
+                && !clearance.isOpenAround(AStarPathfinder.cellX(cell), AStarPathfinder.cellY(cell))) {
+            intent.setAlignCell(cell);
+        }
+    }
+
+    /**
+     * 对齐到格子中心（只在偏移不超过当前速度、且对齐后不碰撞地形时进行）
+     */
+    private void alignToCell(int cell, GameWorld gameWorld) {
+        int cellSize = 40;
+        int alignedX = AStarPathfinder.cellX(cell) * cellSize + (cellSize - width) / 2;
+        int alignedY = AStarPathfinder.cellY(cell) * cellSize + (cellSize - height) / 2;
+        if (alignedX == x && alignedY == y) {
+            return;
+        }
+        if (Math.abs(alignedX - x) + Math.abs(alignedY - y) > Math.max(currentSpeed, 1.0) * 2) {
+            return;
+        }
+        if (gameWorld.checkCollision(alignedX, alignedY, width, height) == null) {
+            x = alignedX;
+            y = alignedY;
+            gameWorld.onTankMoved(this);
+        }
+    }
+
+    /**
+     * 朝向指定格子的中心（优先沿距离较大的轴移动）
+     */
+    private void faceCell(int cell) {
+        int cellSize = 40;
+        int targetCenterX = AStarPathfinder.cellX(cell) * cellSize + cellSize / 2;
+        int targetCenterY = AStarPathfinder.cellY(cell) * cellSize + cellSize / 2;
+        int tankCenterX = x + width / 2;
+        int tankCenterY = y + height / 2;
+
+        if (Math.abs(targetCenterX - tankCenterX) > Math.abs(targetCenterY - tankCenterY)) {
+            // 水平移动
+            setDirection(targetCenterX > tankCenterX ? Direction.RIGHT : Direction.LEFT);
+        } else {
+            // 垂直移动
+            setDirection(targetCenterY > tankCenterY ? Direction.DOWN : Direction.UP);
+        }
+    }
+
+    // 朝玩家方向移动，被卡住时在应用阶段尝试其他方向
+    private void decideMoveTowardsPlayer(AISnapshot snapshot, AIIntent intent) {
+        decideMoveTowards(snapshot.getPlayerCenterX(), snapshot.getPlayerCenterY(), intent);
+    }
+
+    /**
+     * 已到达基地旁边，或距离场中当前格子不可达（基地被砖墙围住）：朝基地移动并开火打开通道，
+     * 砖墙被摧毁后距离场增量更新，坦克随即沿新的通道前进
+     */
+    private void decideAttackBase(AISnapshot snapshot, AIIntent intent) {
+        int baseCenterX = snapshot.getBaseCenterX();
+        int baseCenterY = snapshot.getBaseCenterY();
+        if (isNextToBase(snapshot)) {
+            // 紧贴基地：原地朝基地开火
+            faceCell(AStarPathfinder.packCell(baseCenterX / 40, baseCenterY / 40));
+            setAccelerating(false);
+            intent.setFire(shouldBreach(snapshot, 0.5));
+            return;
+        }
+        decideMoveTowards(baseCenterX, baseCenterY, intent);
+        intent.setFire(shouldBreach(snapshot, 0.4));
+    }
+
+    /**
+     * 只有子弹沿当前方向能打到玩家（途中没有阻挡子弹的地形）时才按概率开火，不再朝墙壁盲射
+     */
+    private boolean shouldFire(AISnapshot snapshot, double chance) {
+        if (!canFire()) {
+            return false;
+        }
+        TerrainRaycaster raycaster = snapshot.getRaycaster();
+        if (raycaster != null && snapshot.hasPlayer()
+                && !raycaster.canHit(getMuzzleX(), getMuzzleY(), BulletBuffer.BULLET_SIZE, direction,
+                snapshot.getPlayerX(), snapshot.getPlayerY(), snapshot.getPlayerWidth(), snapshot.getPlayerHeight())) {
+            return false;
+        }
+        return random.nextDouble() < chance;
+    }
+
+    /**
+     * 进攻基地时开火：能打到玩家，或者子弹会打在可摧毁的砖墙上（打开通往基地的通道）
+     */
+    private boolean shouldBreach(AISnapshot snapshot, double chance) {
+        if (!canFire()) {
+            return false;
+        }
+        TerrainRaycaster raycaster = snapshot.getRaycaster();
+        if (raycaster != null && raycaster.laneBlocker(getMuzzleX(), getMuzzleY(), BulletBuffer.BULLET_SIZE, direction)
+                != LevelMap.TerrainType.BRICK) {
+            return shouldFire(snapshot, chance);
+        }
+        return random.nextDouble() < chance;
+    }
+
+    // 坦克中心与基地中心相距不超过一个格子
+    private boolean isNextToBase(AISnapshot snapshot) {
+        return Math.abs(snapshot.getBaseCenterX() - (x + width / 2))
+                + Math.abs(snapshot.getBaseCenterY() - (y + height / 2)) <= 40;
+    }
 
+    // 朝指定点移动，被卡住时在应用阶段尝试其他方向
+    private void decideMoveTowards(int targetX, int targetY, AIIntent intent) {
         // 计算敌方坦克中心点
         int tankCenterX = x + width / 2;
         int tankCenterY = y + height / 2;
 
         // 确定移动方向
-        if (Math.abs(playerCenterX - tankCenterX) > Math.abs(playerCenterY - tankCenterY)) {
+        if (Math.abs(targetX - tankCenterX) > Math.abs(targetY - tankCenterY)) {
             // 水平移动
-            if (playerCenterX > tankCenterX) {
+            if (targetX > tankCenterX) {
                 setDirection(Direction.RIGHT);
             } else {
                 setDirection(Direction.LEFT);
             }
         } else {
             // 垂直移动
-            if (playerCenterY > tankCenterY) {
+            if (targetY > tankCenterY) {
                 setDirection(Direction.DOWN);
             } else {
                 setDirection(Direction.UP);
             }
         }
 
-        // 执行移动
-        if (singleGameController != null) {
-            move(singleGameController);
-        } else {
-            move();
-        }
+        intent.setMove(AIIntent.Move.DETOUR);
+    }
 
-        // 检查是否被卡住
-        if (oldX == x && oldY == y) {
-            // 被卡住了，尝试其他方向
-            Direction[] alternateDirections = {
-                    Direction.UP, Direction.RIGHT, Direction.DOWN, Direction.LEFT
-            };
+    // 被卡住了，依次尝试其他方向
+    private void detour(int oldX, int oldY, GameWorld gameWorld) {
+        Direction[] alternateDirections = {
+                Direction.UP, Direction.RIGHT, Direction.DOWN, Direction.LEFT
+        };
 
-            for (Direction dir : alternateDirections) {
-                if (dir != direction) { // 尝试不同于当前方向的方向
-                    setDirection(dir);
+        for (Direction dir : alternateDirections) {
+            if (dir != direction) { // 尝试不同于当前方向的方向
+                setDirection(dir);
+                move(gameWorld);
 
-                    if (singleGameController != null) {
-                        move(singleGameController);
-                    } else {
-                        move();
-                    }
-
-                    // 如果移动成功，跳出循环
-                    if (x != oldX || y != oldY) {
-                        break;
-                    }
+                // 如果移动成功，跳出循环
+                if (x != oldX || y != oldY) {
+                    break;
                 }
             }
         }
     }
 
-    // 计算与另一个坦克的距离
-    private double calculateDistance(Tank otherTank) {
+    // 计算与指定点（另一个坦克的中心）的距离
+    private double calculateDistance(int centerX2, int centerY2) {
         // 计算两个坦克中心点的距离
         int centerX1 = x + width / 2;
         int centerY1 = y + height / 2;
-        int centerX2 = otherTank.getX() + otherTank.getWidth() / 2;
-        int centerY2 = otherTank.getY() + otherTank.getHeight() / 2;
 
         // 欧几里得距离公式
         return Math.sqrt(Math.pow(centerX2 - centerX1, 2) + Math.pow(centerY2 - centerY1, 2));
     }
 
-    // 添加带碰撞检测的随机移动方法
-    private Bullet updateRandomMovementWithCollision(long currentTime, boolean[][] grid, SingleGameController singleGameController) {
-        // 添加对grid的空值检查
-        if (grid == null) {
-            // 如果grid为空，执行简单的随机移动而不检查网格碰撞
-            setRandomDirection();
-            if (singleGameController != null) {
-                move(singleGameController);
-            } else {
-                move();
-            }
-            return null;
-        }
-
+    // 带碰撞检测的随机移动（只检查可行走网格）
+    private void decideRandomMovement(long currentTime, boolean[][] grid, AISnapshot snapshot, AIIntent intent) {
         // 确保敌方坦克保持加速
         setAccelerating(true);
 
@@ -993,12 +1278,12 @@ public class Tank {
                 // 随机选择一个新方向
                 setRandomDirection();
                 // 设置新的移动持续时间（2-4秒）
-                randomMoveDuration = 2000 + (long) (Math.random() * 2000);
+                randomMoveDuration = 2000 + (long) (random.nextDouble() * 2000);
                 lastDirectionChangeTime = currentTime;
             } else {
                 setAccelerating(false); // 停止状态下不加速
             }
-            return null; // 如果仍在停止状态，直接返回null
+            return; // 本帧不移动
         }
 
         // 正在移动中，确保加速状态为true
@@ -1007,15 +1292,15 @@ public class Tank {
         // 检查是否需要改变方向或停止
         if (currentTime - lastDirectionChangeTime > randomMoveDuration) {
             // 有20%的几率停止移动
-            if (Math.random() < 0.2) {
+            if (random.nextDouble() < 0.2) {
                 isMoving = false;
-                stopDuration = 500 + (long) (Math.random() * 1500); // 停止0.5-2秒
+                stopDuration = 500 + (long) (random.nextDouble() * 1500); // 停止0.5-2秒
                 lastStopTime = currentTime;
-                return null;
+                return;
             } else {
                 // 否则改变方向
                 setRandomDirection();
-                randomMoveDuration = 2000 + (long) (Math.random() * 2000); // 2-4秒
+                randomMoveDuration = 2000 + (long) (random.nextDouble() * 2000); // 2-4秒
                 lastDirectionChangeTime = currentTime;
             }
         }
@@ -1048,7 +1333,7 @@ public class Tank {
             // 如果会超出边界，改变方向
             setRandomDirection();
             lastDirectionChangeTime = currentTime;
-            return null;
+            return;
         }
 
         // 检查是否会碰到障碍物
@@ -1075,24 +1360,20 @@ public class Tank {
             // 如果会碰到障碍物，改变方向
             setRandomDirection();
             lastDirectionChangeTime = currentTime;
-            return null;
+            return;
         }
 
         // 执行移动
-        move(singleGameController);
+        intent.setMove(AIIntent.Move.FORWARD);
 
         // 随机尝试开火（10%概率）
-        if (Math.random() < 0.1 && canFire()) {
-            return fire(); // 返回发射的子弹
-        }
-
-        return null; // 如果没有发射子弹就返回null
+        intent.setFire(shouldFire(snapshot, 0.1));
     }
 
     // 随机设置方向
     private void setRandomDirection() {
         // 随机选择一个方向: 0=上, 1=右, 2=下, 3=左
-        int randomDir = (int) (Math.random() * 4);
+        int randomDir = random.nextInt(4);
         setDirection(Direction.fromValue(randomDir));
     }
 
@@ -1110,7 +1391,7 @@ public class Tank {
     public void setInitialSpawnDelay(boolean delay) {
         this.initialSpawnDelay = delay;
         if (delay) {
-            this.spawnTime = System.currentTimeMillis();
+            this.spawnTime = clock.currentTimeMillis();
         }
     }
 
@@ -1122,7 +1403,7 @@ public class Tank {
             return false;
         }
 
-        long currentTime = System.currentTimeMillis();
+        long currentTime = clock.currentTimeMillis();
         if (currentTime - spawnTime > SPAWN_PROTECTION_TIME) {
             initialSpawnDelay = false; // 出生保护时间已过
             return false;
@@ -1143,7 +1424,7 @@ public class Tank {
     public void setRespawnInvincible(boolean invincible) {
         this.isRespawnInvincible = invincible;
         if (invincible) {
-            respawnInvincibleStartTime = System.currentTimeMillis();
+            respawnInvincibleStartTime = clock.currentTimeMillis();
             respawnBlinkVisible = true;
             lastBlinkTime = respawnInvincibleStartTime;
         }
@@ -1155,7 +1436,7 @@ public class Tank {
     public boolean isRespawnInvincible() {
         if (!isRespawnInvincible) return false;
 
-        long currentTime = System.currentTimeMillis();
+        long currentTime = clock.currentTimeMillis();
         if (currentTime - respawnInvincibleStartTime > RESPAWN_INVINCIBLE_DURATION) {
             isRespawnInvincible = false; // 无敌时间结束
             return false;
@@ -1183,7 +1464,7 @@ public class Tank {
     public long getRespawnInvincibleRemainingTime() {
         if (!isRespawnInvincible) return 0;
         return Math.max(0, RESPAWN_INVINCIBLE_DURATION -
-                (System.currentTimeMillis() - respawnInvincibleStartTime));
+                (clock.currentTimeMillis() - respawnInvincibleStartTime));
     }
 
     // 为标记添加getter方法
@@ -1196,6 +1477,25 @@ public class Tank {
         this.isAccelerating = accelerating;
     }
 
+    /**
+     * 本帧是否为避让其他坦克的预约而原地等待（等待中的坦克不算卡住）
+     */
+    public boolean isWaitingForReservation() {
+        return waitingForReservation;
+    }
+
+    public double getMaxSpeed() {
+        return maxSpeed;
+    }
+
+    public AIBehavior getAIBehavior() {
+        return aiBehavior;
+    }
+
+    public void setAIBehavior(AIBehavior aiBehavior) {
+        this.aiBehavior = aiBehavior != null ? aiBehavior : AIBehavior.CHASE_PLAYER;
+    }
+
     public boolean isAccelerating() {
         return isAccelerating;
     }
@@ -1205,15 +1505,38 @@ public class Tank {
         return currentSpeed;
     }
 
+    /**
+     * 设置坦克使用的模拟时钟
+     */
+    public void setClock(SimulationClock clock) {
+        this.clock = clock != null ? clock : SimulationClock.system();
+    }
+
+    /**
+     * 设置坦克AI使用的随机数生成器（由对局随机数派生，保证结果可复现）
+     */
+    public void setRandom(SimulationRandom random) {
+        this.random = random != null ? random : new SimulationRandom(new Random().nextLong());
+    }
+
+    /**
+     * 坦克AI随机数的内部状态（存档时保存，读档时用于恢复相同的随机序列）
+     */
+    public long getRandomState() {
+        return random.getState();
+    }
+
     // 在Tank类中添加一个重置AI状态的方法
     public void resetAIState() {
         // 重置路径寻找相关数据
         pathToTarget = null;
         pathIndex = 0;
+        pathGoalCell = -1;
+        flowStepCell = -1;
 
         // 重置时间戳，确保立即重新计算路径
         lastPathfindingTime = 0;
-        lastDirectionChangeTime = System.currentTimeMillis();
+        lastDirectionChangeTime = clock.currentTimeMillis();
 
         // 重置移动状态
         isMoving = true;
@@ -1228,116 +1551,8 @@ public class Tank {
         setRandomDirection();
 
         // 重置随机移动的相关参数
-        randomMoveDuration = 2000 + (long) (Math.random() * 2000);
+        randomMoveDuration = 2000 + (long) (random.nextDouble() * 2000);
         stopDuration = 0;
         lastStopTime = 0;
     }
-
-    // 修改判断玩家是否在草丛中的方法
-    private boolean isPlayerInGrass(Tank playerTank, SingleGameController singleGameController) {
-        // 获取玩家坦克位置和尺寸
-        int playerX = playerTank.getX();
-        int playerY = playerTank.getY();
-        int playerWidth = playerTank.getWidth();
-        int playerHeight = playerTank.getHeight();
-
-        // 创建玩家坦克的矩形区域
-        java.awt.Rectangle playerRect = new java.awt.Rectangle(playerX, playerY, playerWidth, playerHeight);
-
-        // 获取地图元素并检查是否与草丛重叠
-        if (singleGameController.getMap() != null) {
-            for (LevelMap.MapElement element : singleGameController.getMap().getElements()) {
-                // 只检查草丛类型的元素
-                if (element.getType().equals("grass")) {
-                    java.awt.Rectangle grassRect = new java.awt.Rectangle(
-                            element.getX(), element.getY(),
-                            element.getWidth(), element.getHeight()
-                    );
-
-                    // 使用java.awt.Rectangle的intersects方法
-                    if (playerRect.intersects(grassRect)) {
-                        return true;
-                    }
-                }
-            }
-        }
-
-        // 没有与任何草丛重叠，返回false
-        return false;
-    }
-
-    /**
-     * 渲染坦克到画布
-     * @param gc 图形上下文
-     */
-    public void render(GraphicsContext gc) {
-        if (!isVisibleDuringRespawnInvincible()) {
-            return;  // 如果在无敌状态闪烁期间不可见，则不渲染
-        }
-        
-        // 设置坦克颜色
-        if (isFriendly()) {
-            gc.setFill(javafx.scene.paint.Color.BLUE);  // 友方坦克为蓝色
-        } else {
-            gc.setFill(javafx.scene.paint.Color.RED);   // 敌方坦克为红色
-        }
-        
-        // 绘制坦克主体
-        gc.fillRect(x, y, width, height);
-        
-        // 绘制坦克炮塔
-        double turretWidth = width * 0.5;
-        double turretHeight = height * 0.2;
-        
-        double turretX = x + (width - turretWidth) / 2;
-        double turretY = y;
-        
-        // 根据方向调整炮塔位置
-        switch (direction) {
-            case UP:
-                turretY = y - turretHeight;
-                break;
-            case DOWN:
-                turretY = y + height;
-                break;
-            case LEFT:
-                turretWidth = width * 0.2;
-                turretHeight = height * 0.5;
-                turretX = x - turretWidth;
-                turretY = y + (height - turretHeight) / 2;
-                break;
-            case RIGHT:
-                turretWidth = width * 0.2;
-                turretHeight = height * 0.5;
-                turretX = x + width;
-                turretY = y + (height - turretHeight) / 2;
-                break;
-        }
-        
-        gc.fillRect(turretX, turretY, turretWidth, turretHeight);
-        
-        // 如果有护盾则绘制
-        if (isShielded()) {
-            gc.setStroke(javafx.scene.paint.Color.CYAN);
-            gc.setLineWidth(2);
-            gc.strokeOval(x - 5, y - 5, width + 10, height + 10);
-        }
-        
-        // 如果有无敌效果则绘制
-        if (isInvincible()) {
-            gc.setStroke(javafx.scene.paint.Color.GOLD);
-            gc.setLineWidth(2);
-            gc.strokeOval(x - 3, y - 3, width + 6, height + 6);
-        }
-        
-        // 绘制血量条
-        double healthPercentage = (double) health / maxHealth;
-        double healthBarWidth = width * healthPercentage;
-        
-        gc.setFill(javafx.scene.paint.Color.RED);
-        gc.fillRect(x, y - 8, width, 5);
-        
-        gc.setFill(javafx.scene.paint.Color.GREEN);
-        gc.fillRect(x, y - 8, healthBarWidth, 5);
-    }
 }
@@ -179,16 +179,11 @@ public class SingleGameLoopServiceImpl implements GameLoopService {
         // 处理玩家输入
         gameView.handlePlayerInput(playerTank);
         
-        // 更新敌方坦克
-        singleController.updateEnemyTanks();
+        // 推进游戏世界：敌方坦克、子弹、碰撞、增益效果
+        // 玩家失去生命通过GameController的事件监听器处理
+        singleController.updateWorld(deltaTime);
         
-        // 更新子弹
-        singleController.updateBullets(deltaTime);
-        
-        // 检查碰撞 - 如果返回true，表示玩家失去生命，通过GameController事件处理
-        singleController.updateBulletsAndCheckCollisions();
-        
-        // 检查玩家血量是否改变，如果改变则更新显示
+        // 检查玩家血量是否改变（子弹或与敌方坦克碰撞），如果改变则更新显示
         if (playerTank != null && playerTank.getHealth() != oldHealth) {
             GameScreen gameScreen = gameView.getGameScreen();
             if (gameScreen instanceof SinglePlayerGameScreen) {
@@ -198,17 +193,6 @@ public class SingleGameLoopServiceImpl implements GameLoopService {
             }
         }
         
-        // 检查敌方坦克与玩家坦克碰撞
-        if (singleController.checkEnemyPlayerCollisions()) {
-            // 更新生命显示
-            GameScreen gameScreen = gameView.getGameScreen();
-            if (gameScreen instanceof SinglePlayerGameScreen) {
-                SinglePlayerGameScreen singleScreen = (SinglePlayerGameScreen) gameScreen;
-                singleScreen.updateHealthDisplay(singleController);
-                singleScreen.updateLivesDisplay(gameView.getPlayerLives());
-            }
-        }
-        
         // 刷新子弹补给
         updateBulletRefill(singleController, gameView.getGameScreen());
         
@@ -219,17 +203,6 @@ public class SingleGameLoopServiceImpl implements GameLoopService {
             singleScreen.updateEnemiesDisplay(singleController);
             singleScreen.updatePowerUpUIDisplay(singleController, effectService);
         }
-        
-        // 更新增益效果
-        singleController.updatePowerUps(deltaTime);
-        
-        // 使用效果服务更新玩家坦克的增益效果
-        if (playerTank != null) {
-            effectService.updatePowerUpEffects(playerTank, deltaTime);
-        }
-        
-        // 使用效果服务更新闪烁效果
-        effectService.updatePowerUpBlinking(singleController.getPowerUps());
     }
 
     /**
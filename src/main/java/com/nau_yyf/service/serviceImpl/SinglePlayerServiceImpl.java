@@ -7,6 +7,7 @@ import com.nau_yyf.model.LevelMap;
 import com.nau_yyf.model.Tank;
 import com.nau_yyf.service.EffectService;
 import com.nau_yyf.service.PlayerService;
+import com.nau_yyf.simulation.PlayerInput;
 import com.nau_yyf.view.GameView;
 import com.nau_yyf.view.GameScreen;
 import com.nau_yyf.view.singleGame.SinglePlayerGameScreen;
@@ -21,6 +22,8 @@ public class SinglePlayerServiceImpl implements PlayerService {
     private EffectService effectService;
     private long lastFireTime = 0;
     private long lastHandleFiringTime = 0;
+    // 复用的玩家输入对象
+    private final PlayerInput playerInput = new PlayerInput();
 
     public SinglePlayerServiceImpl(GameView gameView, EffectService effectService) {
         this.gameView = gameView;
@@ -45,71 +48,45 @@ public class SinglePlayerServiceImpl implements PlayerService {
             return currentBulletCount;
         }
         
-        boolean anyKeyPressed = false;
-        
-        // 处理方向键
-        if (inputState.isUp()) {
-            playerTank.setDirection(Tank.Direction.UP);
-            anyKeyPressed = true;
-        } else if (inputState.isDown()) {
-            playerTank.setDirection(Tank.Direction.DOWN);
-            anyKeyPressed = true;
-        } else if (inputState.isLeft()) {
-            playerTank.setDirection(Tank.Direction.LEFT);
-            anyKeyPressed = true;
-        } else if (inputState.isRight()) {
-            playerTank.setDirection(Tank.Direction.RIGHT);
-            anyKeyPressed = true;
+        // 只有有子弹且超过开火冷却时间时才把开火键传给游戏世界
+        long currentTime = System.currentTimeMillis();
+        boolean canFire = inputState.isFire() && currentBulletCount > 0 && currentTime - lastFireTime > 300; // 300ms冷却时间
+
+        playerInput.setUp(inputState.isUp());
+        playerInput.setDown(inputState.isDown());
+        playerInput.setLeft(inputState.isLeft());
+        playerInput.setRight(inputState.isRight());
+        playerInput.setFire(canFire);
+
+        // 设置方向、执行移动并尝试开火
+        boolean fired = false;
+        try {
+            fired = singleController.applyPlayerInput(playerInput);
+        } catch (Exception e) {
+            
+            e.printStackTrace();
         }
         
-        // 设置是否加速
-        playerTank.setAccelerating(anyKeyPressed);
-        
-        // 执行移动逻辑（无论是否按键都要调用，以处理减速）
-        playerTank.move(singleController);
-        
         // 水池伤害处理
         if (playerTank.isInWaterLastFrame()) {
             gameView.updateHealthDisplay();
         }
         
-        // ===== 开火逻辑的完全重写 =====
+        // 如果成功发射，减少子弹数量
         int bulletCount = currentBulletCount;
-        try {
-            // 如果按下开火键且有子弹
-            if (inputState.isFire() && bulletCount > 0) {
-                // 添加防抖动：限制开火频率
-                long currentTime = System.currentTimeMillis();
-                if (currentTime - lastFireTime > 300) { // 300ms冷却时间
-                    // 尝试发射子弹
-                    boolean fired = false;
-                    try {
-                        fired = singleController.playerFireBullet();
-                    } catch (Exception e) {
-                        
-                        e.printStackTrace();
-                    }
-                    
-                    // 如果成功发射，减少子弹数量
-                    if (fired) {
-                        bulletCount--;
-                        lastFireTime = currentTime;
-                        
-                        // 直接在这里更新UI，避免延迟更新
-                        try {
-                            GameScreen screen = gameView.getGameScreen();
-                            if (screen != null) {
-                                screen.setBulletCount(bulletCount);
-                            }
-                        } catch (Exception e) {
-                            
-                        }
-                    }
+        if (fired) {
+            bulletCount--;
+            lastFireTime = currentTime;
+            
+            // 直接在这里更新UI，避免延迟更新
+            try {
+                GameScreen screen = gameView.getGameScreen();
+                if (screen != null) {
+                    screen.setBulletCount(bulletCount);
                 }
+            } catch (Exception e) {
+                
             }
-        } catch (Exception e) {
-            
-            e.printStackTrace();
         }
         
         return bulletCount;
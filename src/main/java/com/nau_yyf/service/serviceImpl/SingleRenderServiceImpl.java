@@ -2,11 +2,10 @@ package com.nau_yyf.service.serviceImpl;
 
 import com.nau_yyf.controller.GameController;
 import com.nau_yyf.controller.SingleGameController;
-import com.nau_yyf.model.LevelMap;
 import com.nau_yyf.model.Tank;
 import com.nau_yyf.service.RenderService;
+import com.nau_yyf.util.SpriteAtlas;
 import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.image.Image;
 import javafx.scene.paint.Color;
 
 /**
@@ -36,22 +35,13 @@ public class SingleRenderServiceImpl implements RenderService {
         gc.setFill(Color.BLACK);
         gc.fillRect(0, 0, canvasWidth, canvasHeight);
         
-        // 渲染地图元素
-        LevelMap map = singleController.getMap();
-        for (LevelMap.MapElement element : map.getElements()) {
-            // 根据元素类型获取对应图片并渲染
-            Image elementImage = singleController.getElementImage(element.getType());
-            gc.drawImage(elementImage, element.getX(), element.getY(), 
-                        element.getWidth(), element.getHeight());
-        }
-        
-        // 渲染其他游戏对象
+        // 渲染地图（缓存的地形图层）、坦克、草地覆盖层和其他游戏对象
         singleController.renderMap(gc);
         
-        // 渲染玩家坦克
+        // 渲染玩家坦克特效（坦克本身已在renderMap中绘制）
         Tank playerTank = singleController.getPlayerTank();
-        if (playerTank != null && !playerTank.isDead()) {
-            renderPlayerTank(playerTank, singleController, gc);
+        if (playerTank != null && !playerTank.isDead() && playerTank.isVisibleDuringRespawnInvincible()) {
+            renderTankEffects(playerTank, gc);
         }
     }
 
@@ -67,7 +57,6 @@ public class SingleRenderServiceImpl implements RenderService {
             return;
         }
         
-        SingleGameController singleController = (SingleGameController) controller;
         boolean shouldRender = true;
         
         // 检查是否处于复活无敌状态，并且需要闪烁
@@ -76,13 +65,10 @@ public class SingleRenderServiceImpl implements RenderService {
         }
         
         if (shouldRender) {
-            String imageKey = "player_" + playerTank.getType().name().toLowerCase();
-            Image[] tankImgs = singleController.getTankImages().get(imageKey);
+            String spriteKey = SpriteAtlas.tankKey("player_" + playerTank.getType().name().toLowerCase(),
+                    playerTank.getDirection().ordinal());
             
-            if (tankImgs != null && playerTank.getDirection().ordinal() < tankImgs.length) {
-                gc.drawImage(tankImgs[playerTank.getDirection().ordinal()], 
-                           playerTank.getX(), playerTank.getY(), 40, 40);
-                
+            if (SpriteAtlas.getInstance().draw(gc, spriteKey, playerTank.getX(), playerTank.getY(), 40, 40)) {
                 // 渲染坦克特效
                 renderTankEffects(playerTank, gc);
             }
@@ -0,0 +1,166 @@
+package com.nau_yyf.simulation;
+
+/**
+ * 敌方坦克AI意图
+ * 决策阶段（可并行）只读取快照并修改坦克自身的AI状态，把需要改动共享世界的操作
+ * （移动、开火）记录为意图，由应用阶段按坦克顺序串行执行，保证结果确定
+ */
+public final class AIIntent {
+
+    /**
+     * 移动方式
+     */
+    public enum Move {
+        NONE,    // 本帧不移动
+        FORWARD, // 沿当前方向移动
+        DETOUR   // 沿当前方向移动，被阻挡时依次尝试其他方向
+    }
+
+    /**
+     * 移动被阻挡（位置未变化）时的处理
+     */
+    public enum BlockedAction {
+        NONE,
+        CLEAR_FLOW_STEP, // 放弃当前流场步点，下次重新读取
+        REPATH           // 强制下次重新计算路径
+    }
+
+    private boolean active;
+    private Move move = Move.NONE;
+    private BlockedAction blockedAction = BlockedAction.NONE;
+    private boolean fire;
+    private boolean selfRepair;
+    // 移动前要对齐到中心的格子（打包坐标），-1表示不需要对齐
+    private int alignCell = -1;
+    // 要预约的格子（打包坐标）及预约截止时间，-1表示不预约
+    private int reserveCell = -1;
+    private long reserveUntil;
+    // 寻路请求（由调度器在预算内处理，处理前坦克继续沿旧路径移动）
+    private boolean pathRequested;
+    private boolean pathUrgent;
+    private int pathStartX, pathStartY, pathTargetX, pathTargetY;
+
+    /**
+     * 清空意图（本帧无任何操作）
+     */
+    public void reset() {
+        active = false;
+        move = Move.NONE;
+        blockedAction = BlockedAction.NONE;
+        fire = false;
+        selfRepair = false;
+        alignCell = -1;
+        reserveCell = -1;
+        pathRequested = false;
+        pathUrgent = false;
+    }
+
+    /**
+     * 本帧AI是否执行（出生保护期间不执行）
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+
+    public Move getMove() {
+        return move;
+    }
+
+    public void setMove(Move move) {
+        this.move = move;
+    }
+
+    public BlockedAction getBlockedAction() {
+        return blockedAction;
+    }
+
+    public void setBlockedAction(BlockedAction blockedAction) {
+        this.blockedAction = blockedAction;
+    }
+
+    public boolean isFire() {
+        return fire;
+    }
+
+    public void setFire(boolean fire) {
+        this.fire = fire;
+    }
+
+    /**
+     * 移动后是否检查速度异常并重置AI状态
+     */
+    public boolean isSelfRepair() {
+        return selfRepair;
+    }
+
+    public void setSelfRepair(boolean selfRepair) {
+        this.selfRepair = selfRepair;
+    }
+
+    public int getAlignCell() {
+        return alignCell;
+    }
+
+    public void setAlignCell(int alignCell) {
+        this.alignCell = alignCell;
+    }
+
+    /**
+     * 在应用阶段预约格子直到指定时间（流场模式选择下一步或原地等待时）；
+     * 若该格子已被本帧先处理的坦克预约，则取消本帧移动
+     */
+    public void reserve(int cell, long until) {
+        reserveCell = cell;
+        reserveUntil = until;
+    }
+
+    public int getReserveCell() {
+        return reserveCell;
+    }
+
+    public long getReserveUntil() {
+        return reserveUntil;
+    }
+
+    /**
+     * 请求重新寻路（格子坐标）
+     *
+     * @param urgent 坦克当前没有可用路径
+     */
+    public void requestPath(int startX, int startY, int targetX, int targetY, boolean urgent) {
+        pathRequested = true;
+        pathUrgent = urgent;
+        pathStartX = startX;
+        pathStartY = startY;
+        pathTargetX = targetX;
+        pathTargetY = targetY;
+    }
+
+    public boolean isPathRequested() {
+        return pathRequested;
+    }
+
+    public boolean isPathUrgent() {
+        return pathUrgent;
+    }
+
+    public int getPathStartX() {
+        return pathStartX;
+    }
+
+    public int getPathStartY() {
+        return pathStartY;
+    }
+
+    public int getPathTargetX() {
+        return pathTargetX;
+    }
+
+    public int getPathTargetY() {
+        return pathTargetY;
+    }
+}
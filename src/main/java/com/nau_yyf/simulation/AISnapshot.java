@@ -0,0 +1,174 @@
+package com.nau_yyf.simulation;
+
+import com.nau_yyf.model.Tank;
+import com.nau_yyf.util.ClearanceMap;
+import com.nau_yyf.util.FlowField;
+import com.nau_yyf.util.TerrainRaycaster;
+
+/**
+ * AI决策阶段读取的世界快照
+ * 在AI阶段开始前由游戏世界填写，决策期间保持不变，所有坦克（包括并行执行的决策任务）
+ * 读取同一份数据；玩家是否在草丛中这类所有坦克共用的判断也只计算一次。
+ * 玩家位置等数值在填写时复制；可行走网格、流场、通行宽度图、预约表和射线检测器不复制，
+ * 直接引用游戏世界中的对象，只读保证来自帧内的阶段顺序：流场在填写快照前更新，
+ * 预约在决策结束后的应用阶段和寻路阶段写入，砖块在子弹阶段被摧毁。
+ * 决策期间快照处于决策中状态，游戏世界修改这些数据前都会检查，违反顺序时抛出IllegalStateException
+ */
+public final class AISnapshot {
+    private boolean[][] grid;
+    private FlowField flowField;
+    private FlowField baseFlowField;
+    private int baseCenterX;
+    private int baseCenterY;
+    private ClearanceMap clearanceMap;
+    private ReservationTable reservations;
+    private TerrainRaycaster raycaster;
+    private boolean hasPlayer;
+    private int playerX;
+    private int playerY;
+    private int playerWidth;
+    private int playerHeight;
+    private boolean playerInGrass;
+    private long currentTime;
+    // 决策阶段进行中，期间快照引用的共享数据不能被修改
+    private boolean deciding;
+
+    /**
+     * 从游戏世界的当前状态填写快照
+     */
+    public void capture(GameWorld world) {
+        checkWritable("AI快照");
+        Tank player = world.getPlayerTank();
+        grid = world.getGrid();
+        flowField = world.getPlayerFlowField();
+        baseFlowField = world.getBaseFlowField();
+        if (baseFlowField != null) {
+            baseCenterX = GameWorld.baseCenterX(world.getMap().getPlayerBase());
+            baseCenterY = GameWorld.baseCenterY(world.getMap().getPlayerBase());
+        }
+        clearanceMap = world.getClearanceMap();
+        reservations = world.getReservationTable();
+        raycaster = world.getTerrainRaycaster();
+        if (raycaster != null) {
+            raycaster.beginTick(); // 地形可能在上一帧变化，射线缓存从本帧重新开始
+        }
+        currentTime = world.getClock().currentTimeMillis();
+        hasPlayer = player != null;
+        if (hasPlayer) {
+            playerX = player.getX();
+            playerY = player.getY();
+            playerWidth = player.getWidth();
+            playerHeight = player.getHeight();
+
+            // 读取本帧的隐蔽状态（每帧只计算一次）
+            playerInGrass = world.getConcealment().isConcealed(player);
+        } else {
+            playerInGrass = false;
+        }
+    }
+
+    /**
+     * 标记决策阶段开始，结束前快照引用的共享数据不能被修改
+     */
+    void beginDecide() {
+        deciding = true;
+    }
+
+    void endDecide() {
+        deciding = false;
+    }
+
+    /**
+     * 修改快照引用的共享数据前调用，决策阶段进行中时抛出异常
+     *
+     * @param what 被修改的数据，用于错误信息
+     */
+    void checkWritable(String what) {
+        if (deciding) {
+            throw new IllegalStateException("AI决策阶段不能修改" + what);
+        }
+    }
+
+    public boolean[][] getGrid() {
+        return grid;
+    }
+
+    /**
+     * 朝向玩家的共享流场，PATHFINDING模式下为null
+     */
+    public FlowField getFlowField() {
+        return flowField;
+    }
+
+    /**
+     * 朝向玩家基地的共享距离场，地图没有基地时为null
+     */
+    public FlowField getBaseFlowField() {
+        return baseFlowField;
+    }
+
+    public int getBaseCenterX() {
+        return baseCenterX;
+    }
+
+    public int getBaseCenterY() {
+        return baseCenterY;
+    }
+
+    /**
+     * 通行宽度图，尚未加载地图时为null
+     */
+    public ClearanceMap getClearanceMap() {
+        return clearanceMap;
+    }
+
+    /**
+     * 时空预约表（决策阶段只读，由应用阶段和寻路调度器写入）
+     */
+    public ReservationTable getReservationTable() {
+        return reservations;
+    }
+
+    /**
+     * 地形射线检测（视线和射击路线），尚未加载地图时为null
+     */
+    public TerrainRaycaster getRaycaster() {
+        return raycaster;
+    }
+
+    public boolean hasPlayer() {
+        return hasPlayer;
+    }
+
+    public int getPlayerX() {
+        return playerX;
+    }
+
+    public int getPlayerY() {
+        return playerY;
+    }
+
+    public int getPlayerWidth() {
+        return playerWidth;
+    }
+
+    public int getPlayerHeight() {
+        return playerHeight;
+    }
+
+    public int getPlayerCenterX() {
+        return playerX + playerWidth / 2;
+    }
+
+    public int getPlayerCenterY() {
+        return playerY + playerHeight / 2;
+    }
+
+    public boolean isPlayerInGrass() {
+        return playerInGrass;
+    }
+
+    public long getCurrentTime() {
+        return currentTime;
+    }
+}
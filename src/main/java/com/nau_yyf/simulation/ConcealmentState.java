@@ -0,0 +1,87 @@
+package com.nau_yyf.simulation;
+
+import com.nau_yyf.model.LevelMap;
+import com.nau_yyf.model.Tank;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 每帧的隐蔽状态
+ * 玩家（以及多人模式下的其他友方坦克）是否藏在草丛中，每帧按地形格子层只计算一次，
+ * 所有敌方AI读取同一份结果，不再各自查询地形
+ */
+public class ConcealmentState {
+    private final List<Tank> tanks = new ArrayList<>();
+    private boolean[] concealed = new boolean[4];
+    private LevelMap computedMap;
+    private long computedTime = Long.MIN_VALUE;
+    private int updateCount;
+
+    /**
+     * 本帧（模拟时间、地图和玩家坦克都不变）是否已经计算过
+     */
+    public boolean isCurrent(LevelMap map, Tank player, long currentTime) {
+        return computedMap == map && computedTime == currentTime
+                && (player == null || (!tanks.isEmpty() && tanks.get(0) == player));
+    }
+
+    /**
+     * 重新计算玩家和友方坦克的隐蔽状态（与草丛重叠即视为隐蔽）
+     *
+     * @param others 其他坦克，只记录其中的友方坦克
+     */
+    public void update(LevelMap map, Tank player, List<Tank> others, long currentTime) {
+        tanks.clear();
+        computedMap = map;
+        computedTime = currentTime;
+        updateCount++;
+
+        if (player != null) {
+            add(map, player);
+        }
+        for (int i = 0; i < others.size(); i++) {
+            Tank tank = others.get(i);
+            if (tank.isFriendly() && tank != player) {
+                add(map, tank);
+            }
+        }
+    }
+
+    /**
+     * 坦克本帧是否藏在草丛中（未记录的坦克视为不隐蔽）
+     */
+    public boolean isConcealed(Tank tank) {
+        // 记录的坦克只有玩家和少量友方坦克，线性查找即可
+        for (int i = 0; i < tanks.size(); i++) {
+            if (tanks.get(i) == tank) {
+                return concealed[i];
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 累计计算次数（用于确认每帧只计算一次）
+     */
+    public int getUpdateCount() {
+        return updateCount;
+    }
+
+    public void clear() {
+        tanks.clear();
+        computedMap = null;
+        computedTime = Long.MIN_VALUE;
+    }
+
+    private void add(LevelMap map, Tank tank) {
+        int index = tanks.size();
+        if (index == concealed.length) {
+            concealed = Arrays.copyOf(concealed, index * 2);
+        }
+        tanks.add(tank);
+        concealed[index] = map != null && !tank.isDead() && map.intersectsTerrain(tank.getX(), tank.getY(),
+                tank.getWidth(), tank.getHeight(), LevelMap.TerrainType.GRASS);
+    }
+}
@@ -0,0 +1,232 @@
+package com.nau_yyf.simulation;
+
+import com.nau_yyf.model.Tank;
+import com.nau_yyf.util.AStarPathfinder;
+
+import java.util.Arrays;
+
+/**
+ * 协作寻路（窗口化时空A*）
+ * 寻路得到的路径只考虑地形；交还给坦克之前，在路径前WINDOW步的范围内结合预约表做一次时空搜索：
+ * 状态为（格子，时间步），每一步可以移动到相邻格子或原地等待，其他坦克已预约的格子不可进入，
+ * 搜索目标是原路径上第WINDOW步的格子。结果中的等待用连续重复的格子表示，窗口之后沿用原路径，
+ * 规划出的格子随即写入预约表，后处理的坦克会绕开或等待先处理的坦克。
+ * 非线程安全，只在模拟线程中使用
+ */
+public class CooperativePlanner {
+    // 沿原路径协作规划的步数
+    public static final int WINDOW = 8;
+    // 时空搜索的最大时间步（窗口步数加上允许的等待）
+    public static final int MAX_DEPTH = 16;
+
+    private static final int[] DIR_X = {0, 1, 0, -1, 0};
+    private static final int[] DIR_Y = {-1, 0, 1, 0, 0}; // 最后一项为原地等待
+
+    // 以起点为中心、半径为MAX_DEPTH的局部区域，状态下标 = (t * SIDE + 局部y) * SIDE + 局部x
+    private static final int SIDE = 2 * MAX_DEPTH + 1;
+    private static final int STATE_COUNT = SIDE * SIDE * (MAX_DEPTH + 1);
+
+    private final ReservationTable reservations;
+    private final int[] parent = new int[STATE_COUNT];
+    private final int[] stamp = new int[STATE_COUNT];
+    private int currentStamp = 0;
+    // 开放列表：按(f, -t)排序的二叉堆，元素为打包的键值和状态
+    private long[] heap = new long[256];
+    private int heapSize;
+
+    // 统计数据
+    private int lastExpanded;
+    private long replannedCount;
+
+    public CooperativePlanner(ReservationTable reservations) {
+        this.reservations = reservations;
+    }
+
+    public ReservationTable getReservationTable() {
+        return reservations;
+    }
+
+    /**
+     * 结合预约表调整路径的前WINDOW步，并为坦克预约调整后的格子（先释放坦克原有的预约）
+     *
+     * @param path   寻路得到的路径，从path[offset]（坦克所在格子）开始使用
+     * @param offset 起点在路径中的下标
+     * @return 窗口内没有冲突时返回原路径（仍从offset开始使用），否则返回从下标0开始的新路径
+     */
+    public int[] plan(Tank tank, boolean[][] grid, int[] path, int offset, long currentTime) {
+        lastExpanded = 0;
+        reservations.release(tank);
+        if (path.length <= offset) {
+            return path;
+        }
+
+        long stepMillis = ReservationTable.millisPerCell(tank);
+        int goalIndex = Math.min(offset + WINDOW, path.length - 1);
+        if (isWindowFree(tank, path, offset, goalIndex, currentTime, stepMillis)) {
+            reserve(tank, path, offset, goalIndex, currentTime, stepMillis);
+            return path;
+        }
+
+        int[] window = search(tank, grid, path[offset], path[goalIndex], currentTime, stepMillis);
+        if (window == null) {
+            // 窗口内无法避让：保持原路径，只预约仍空闲的时间片
+            reserve(tank, path, offset, goalIndex, currentTime, stepMillis);
+            return path;
+        }
+
+        replannedCount++;
+        int tail = path.length - goalIndex - 1;
+        int[] planned = Arrays.copyOf(window, window.length + tail);
+        System.arraycopy(path, goalIndex + 1, planned, window.length, tail);
+        reserve(tank, planned, 0, window.length - 1, currentTime, stepMillis);
+        return planned;
+    }
+
+    /**
+     * 上一次时空搜索展开的状态数
+     */
+    public int getLastExpandedNodeCount() {
+        return lastExpanded;
+    }
+
+    /**
+     * 因预约冲突而改变路径的次数
+     */
+    public long getReplannedCount() {
+        return replannedCount;
+    }
+
+    // 坦克在第k步到达格子，通过期间（到达第k + 1步的格子之前）都占用该格子
+    private boolean isWindowFree(Tank tank, int[] path, int from, int to, long currentTime, long stepMillis) {
+        for (int i = from; i <= to; i++) {
+            long arrive = currentTime + (i - from) * stepMillis;
+            if (!reservations.isFree(path[i], arrive, arrive + 2 * stepMillis, tank)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void reserve(Tank tank, int[] path, int from, int to, long currentTime, long stepMillis) {
+        for (int i = from; i <= to; i++) {
+            long arrive = currentTime + (i - from) * stepMillis;
+            reservations.reserve(path[i], arrive, arrive + 2 * stepMillis, tank);
+        }
+    }
+
+    // 时空A*：每一步（移动或等待）代价为1，g就是时间步；找不到时返回null
+    private int[] search(Tank tank, boolean[][] grid, int start, int goal, long currentTime, long stepMillis) {
+        int rows = grid.length;
+        int cols = rows > 0 ? grid[0].length : 0;
+        int originX = AStarPathfinder.cellX(start) - MAX_DEPTH;
+        int originY = AStarPathfinder.cellY(start) - MAX_DEPTH;
+        int goalX = AStarPathfinder.cellX(goal);
+        int goalY = AStarPathfinder.cellY(goal);
+
+        if (++currentStamp == 0) {
+            Arrays.fill(stamp, 0);
+            currentStamp = 1;
+        }
+        heapSize = 0;
+
+        int startState = state(MAX_DEPTH, MAX_DEPTH, 0);
+        stamp[startState] = currentStamp;
+        parent[startState] = -1;
+        push(startState, heuristic(originX + MAX_DEPTH, originY + MAX_DEPTH, goalX, goalY));
+
+        while (heapSize > 0) {
+            int current = pop();
+            lastExpanded++;
+            int t = current / (SIDE * SIDE);
+            int localX = current % SIDE;
+            int localY = (current / SIDE) % SIDE;
+            int cellX = originX + localX;
+            int cellY = originY + localY;
+            if (cellX == goalX && cellY == goalY) {
+                return extract(current, originX, originY);
+            }
+            if (t == MAX_DEPTH) {
+                continue;
+            }
+
+            long arrive = currentTime + (t + 1) * stepMillis;
+            for (int d = 0; d < DIR_X.length; d++) {
+                int nx = localX + DIR_X[d];
+                int ny = localY + DIR_Y[d];
+                int cellNX = originX + nx;
+                int cellNY = originY + ny;
+                if (nx < 0 || nx >= SIDE || ny < 0 || ny >= SIDE
+                        || cellNX < 0 || cellNX >= cols || cellNY < 0 || cellNY >= rows
+                        || grid[cellNY][cellNX]) {
+                    continue;
+                }
+                int next = state(nx, ny, t + 1);
+                if (stamp[next] == currentStamp) {
+                    continue;
+                }
+                if (!reservations.isFree(AStarPathfinder.packCell(cellNX, cellNY),
+                        arrive, arrive + 2 * stepMillis, tank)) {
+                    continue;
+                }
+                stamp[next] = currentStamp;
+                parent[next] = current;
+                push(next, t + 1 + heuristic(cellNX, cellNY, goalX, goalY));
+            }
+        }
+        return null;
+    }
+
+    private int[] extract(int goalState, int originX, int originY) {
+        int length = goalState / (SIDE * SIDE) + 1;
+        int[] window = new int[length];
+        for (int s = goalState, i = length - 1; s >= 0; s = parent[s], i--) {
+            window[i] = AStarPathfinder.packCell(originX + s % SIDE, originY + (s / SIDE) % SIDE);
+        }
+        return window;
+    }
+
+    private static int state(int localX, int localY, int t) {
+        return (t * SIDE + localY) * SIDE + localX;
+    }
+
+    private static int heuristic(int x, int y, int goalX, int goalY) {
+        return Math.abs(x - goalX) + Math.abs(y - goalY);
+    }
+
+    // 键值相同时优先展开时间步较大的状态（更接近目标）
+    private void push(int state, int f) {
+        int t = state / (SIDE * SIDE);
+        long entry = ((long) f << 40) | ((long) (MAX_DEPTH - t) << 32) | state;
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heapSize * 2);
+        }
+        int i = heapSize++;
+        while (i > 0) {
+            int parentPos = (i - 1) >>> 1;
+            if (heap[parentPos] <= entry) break;
+            heap[i] = heap[parentPos];
+            i = parentPos;
+        }
+        heap[i] = entry;
+    }
+
+    private int pop() {
+        long top = heap[0];
+        long last = heap[--heapSize];
+        int i = 0;
+        int half = heapSize >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[child] >= last) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        if (heapSize > 0) {
+            heap[i] = last;
+        }
+        return (int) top;
+    }
+}
@@ -0,0 +1,2183 @@
+package com.nau_yyf.simulation;
+
+import com.nau_yyf.model.*;
+import com.nau_yyf.util.AABB;
+import com.nau_yyf.util.ClearanceMap;
+import com.nau_yyf.util.FlowField;
+import com.nau_yyf.util.MapLoader;
+import com.nau_yyf.util.PathAlgorithm;
+import com.nau_yyf.util.SpatialGrid;
+import com.nau_yyf.util.TerrainRaycaster;
+import com.nau_yyf.util.WalkabilityGrid;
+
+import java.util.*;
+
+/**
+ * 单人游戏的世界状态与模拟逻辑
+ * 不依赖JavaFX运行环境（不创建图片、画布，也不访问界面线程），
+ * 可以在没有界面的情况下批量运行对局；界面相关的反馈通过GameWorldListener事件通知
+ */
+public class GameWorld {
+    /**
+     * 敌方坦克追踪玩家的方式
+     * 默认使用共享流场：玩家所在格子变化时只做一次增量广度优先搜索，所有追踪玩家的坦克直接读取下一步，
+     * 坦克数量增加时每帧开销不变，逐辆坦克寻路在这种情况下是重复计算。
+     * 寻路调度器（预算、异步、路径缓存、协作寻路、跳点搜索、分层寻路、D* Lite和地标启发式）只在PATHFINDING下使用，
+     * 需要显式选择（界面模式下为启动参数 -Dai.pathMode=pathfinding），用于比较算法或需要各自路径的玩法
+     */
+    public enum PathMode {
+        FLOW_FIELD, // 共用朝向玩家的流场（默认）
+        PATHFINDING; // 每辆坦克通过寻路调度器单独寻路
+
+        public static PathMode fromString(String name) {
+            for (PathMode mode : values()) {
+                if (mode.name().equalsIgnoreCase(name)) {
+                    return mode;
+                }
+            }
+            return FLOW_FIELD;
+        }
+    }
+
+    private GameWorldListener listener;
+
+    // 各阶段耗时统计
+    private final TickProfiler profiler = new TickProfiler();
+    // 帧处理过程中积累、在事件阶段统一派发的事件
+    private boolean tickInProgress = false;
+    private boolean pendingHealthChanged = false;
+    private boolean pendingPlayerDestroyed = false;
+    private boolean pendingLevelCompleted = false;
+    private final List<int[]> pendingTerrainChanges = new ArrayList<>();
+
+    // 对局随机数种子，所有游戏逻辑中的随机性都来自由它初始化的随机数生成器
+    private long seed;
+    private SimulationRandom random;
+    // 模拟时钟，只随逻辑帧推进
+    private final SimulationClock clock = new SimulationClock();
+    // 敌方AI决策快照和并行决策器（快照在AI阶段开始时填写，决策期间不变）
+    private final AISnapshot aiSnapshot = new AISnapshot();
+    private final ParallelAIDecider aiDecider = new ParallelAIDecider();
+    // 寻路请求调度器，每帧在节点预算内处理排队的寻路请求
+    private final PathRequestScheduler pathScheduler = new PathRequestScheduler();
+    // 敌方坦克的时空预约表，坦克规划路径和选择下一步时避开其他坦克预约的格子
+    private final ReservationTable reservations = new ReservationTable();
+
+    /**
+     * 使用随机种子创建游戏世界
+     */
+    public GameWorld() {
+        this(new Random().nextLong());
+    }
+
+    /**
+     * 使用指定种子创建游戏世界，相同种子和输入序列得到相同的对局
+     */
+    public GameWorld(long seed) {
+        setSeed(seed);
+        pathScheduler.setCooperativePlanner(new CooperativePlanner(reservations));
+    }
+
+    /**
+     * 开始新的对局随机序列并重置模拟时钟
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+        this.random = new SimulationRandom(seed);
+        clock.reset(SimulationClock.EPOCH);
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public Random getRandom() {
+        return random;
+    }
+
+    public SimulationClock getClock() {
+        return clock;
+    }
+
+    /**
+     * 让坦克使用对局的模拟时钟，并从对局随机数派生出坦克自己的随机数生成器，
+     * 这样一辆坦克消耗的随机数不会影响其他坦克的行为序列
+     */
+    private void attachTank(Tank tank) {
+        tank.setClock(clock);
+        tank.setRandom(new SimulationRandom(random.nextLong()));
+    }
+
+    /**
+     * 读档时接入坦克：存档中有坦克的随机数状态时直接恢复（不消耗对局随机数），否则重新派生
+     */
+    private void attachTank(Tank tank, Long randomState) {
+        if (randomState == null) {
+            attachTank(tank);
+            return;
+        }
+        tank.setClock(clock);
+        tank.setRandom(SimulationRandom.fromState(randomState));
+    }
+
+    public void setListener(GameWorldListener listener) {
+        this.listener = listener;
+    }
+
+    private int currentLevel = 1;
+    private LevelMap levelMap;
+    private Tank playerTank;
+    private List<Tank> enemyTanks = new ArrayList<>();
+
+    // 所有存活子弹（数组结构存储，发射和移除都不分配对象）
+    private final BulletBuffer bullets = new BulletBuffer();
+    private boolean[][] grid; // 地图的网格表示（walkabilityGrid的数组视图）
+    private WalkabilityGrid walkabilityGrid; // 随砖块破坏增量更新的可行走网格
+    private ClearanceMap clearanceMap; // 通行宽度图，随可行走网格增量更新
+    private TerrainRaycaster raycaster; // 地形射线检测，地图更换时重新创建
+    // 玩家和友方坦克本帧是否藏在草丛中，每帧首次查询时计算
+    private final ConcealmentState concealment = new ConcealmentState();
+
+    // 空间索引：坦克按40像素单元格分桶，碰撞检测只检查相关单元格（地形直接查LevelMap的格子层）
+    private SpatialGrid<Tank> tankIndex;
+    private Tank indexedPlayerTank; // 当前已写入索引的玩家坦克
+    // 复用的查询结果列表，避免每次碰撞检测分配
+    private final List<LevelMap.MapElement> terrainCandidates = new ArrayList<>();
+    private final List<Tank> tankCandidates = new ArrayList<>();
+    // 复用的待移除坦克列表
+    private final List<Tank> tanksToDestroy = new ArrayList<>();
+
+    // 朝向玩家的共享流场，所有追踪玩家的敌方坦克共用，只在玩家所在格子或地形变化时重新计算
+    private final FlowField playerFlowField = new FlowField();
+    private PathMode pathMode = PathMode.FLOW_FIELD;
+    // 朝向玩家基地的共享距离场，进攻基地的敌方坦克共用；基地不动，只在砖墙被摧毁等地形变化时增量更新
+    private final FlowField baseFlowField = new FlowField(true);
+    // 每生成几辆敌方坦克就有一辆进攻基地，0表示全部追踪玩家
+    private int baseAssaultInterval = 3;
+
+    // 添加成员变量跟踪坦克是否在水池中
+    private boolean playerInWater = false;
+
+    // 添加新的成员变量来跟踪水池状态
+    private boolean inWaterLastFrame = false;
+
+    // 添加水池冷却时间相关变量
+    private long lastWaterDamageTime = 0;
+    private static final long WATER_DAMAGE_COOLDOWN = 2000; // 2秒冷却时间
+
+    // 每帧子弹推进的子步数，每个子步移动一次子弹速度的距离
+    private static final int BULLET_SUBSTEPS = 2;
+
+    // 添加以下成员变量
+    private int totalEnemyTanksToGenerate; // 当前关卡需要生成的坦克总数
+    private int maxConcurrentEnemies; // 场上最多同时存在的敌方坦克数
+    private int enemyTanksGenerated; // 已经生成的坦克数量
+    private int enemyTanksDestroyed; // 已经摧毁的坦克数量
+    private List<Long> tankRespawnTimes = new ArrayList<>(); // 坦克重生时间列表
+    private List<Tank.TankType> enemyTypesToGenerate = new ArrayList<>(); // 待生成的坦克类型
+
+    // 新增成员变量
+    private List<PowerUp> powerUps = new ArrayList<>();
+    private long lastPowerUpSpawnTime = 0;
+    private Bomb activeBomb = null; // 当前激活的炸弹
+
+    // 添加类级别成员变量来控制开火频率
+    private long lastPlayerFireTime = 0;
+
+    public void loadLevel(int level) {
+        this.currentLevel = level;
+        this.levelMap = MapLoader.loadLevel(level);
+
+        // 设置当前关卡敌方坦克参数
+        configureEnemyTanksForLevel(level);
+
+        // 清空敌方坦克、重生计时器和排队的寻路请求
+        enemyTanks.clear();
+        pathScheduler.clear();
+        reservations.clear();
+        concealment.clear();
+        tankRespawnTimes.clear();
+        enemyTanksGenerated = 0;
+        enemyTanksDestroyed = 0;
+
+        // 建立空间索引（出生点校验需要用到）
+        initializeSpatialIndex();
+
+        // 加载初始敌方坦克
+        if (levelMap != null && levelMap.getEnemies() != null) {
+            for (LevelMap.EnemySpawn enemySpawn : levelMap.getEnemies()) {
+                // 确保不超过最大同时存在数量
+                if (enemyTanks.size() >= maxConcurrentEnemies) break;
+
+                LevelMap.MapPosition pos = enemySpawn.getSpawnPoint();
+                if (pos != null) {
+                    // 将字符串转换为TankType枚举
+                    Tank.TankType type = Tank.TankType.valueOf(enemySpawn.getType().toUpperCase());
+
+                    // 验证敌人出生点是否有效
+                    if (!isPositionValid(pos.getX(), pos.getY(), 40, 40)) {
+                        // 寻找有效的替代位置
+                        LevelMap.MapPosition validPos = findValidPosition();
+                        if (validPos != null) {
+                            Tank enemyTank = new Tank(type, validPos.getX(), validPos.getY());
+                            attachTank(enemyTank);
+                            assignEnemyBehavior(enemyTank);
+                            addEnemyTank(enemyTank);
+                            enemyTanksGenerated++;
+                        }
+                    } else {
+                        Tank enemyTank = new Tank(type, pos.getX(), pos.getY());
+                        attachTank(enemyTank);
+                        assignEnemyBehavior(enemyTank);
+                        addEnemyTank(enemyTank);
+                        enemyTanksGenerated++;
+                    }
+                }
+            }
+
+            // 将剩余需要生成的坦克类型添加到队列中
+            for (int i = enemyTanksGenerated; i < totalEnemyTanksToGenerate; i++) {
+                // 随机选择坦克类型，保持基础类型多一些
+                double roll = random.nextDouble();
+                if (roll < 0.7) {
+                    enemyTypesToGenerate.add(Tank.TankType.BASIC);
+                } else if (roll < 0.9) {
+                    enemyTypesToGenerate.add(Tank.TankType.ELITE);
+                } else {
+                    enemyTypesToGenerate.add(Tank.TankType.BOSS);
+                }
+            }
+        }
+
+        // 初始化网格
+        initializeGrid();
+
+        // 创建玩家坦克（如果地图加载成功）
+        if (levelMap != null && levelMap.getPlayerSpawn() != null) {
+            LevelMap.MapPosition playerPos = levelMap.getPlayerSpawn();
+
+            // 验证玩家出生点是否有效
+            if (!isPositionValid(playerPos.getX(), playerPos.getY(), 40, 40)) {
+
+                // 寻找有效的替代位置
+                LevelMap.MapPosition validPos = findValidPosition();
+                if (validPos != null) {
+                    // 更新地图中的玩家出生点
+                    levelMap.setPlayerSpawn(validPos);
+                    playerPos = validPos;
+                }
+            }
+
+            if (playerTank == null) {
+                // 默认使用STANDARD坦克
+                playerTank = new Tank(Tank.TankType.STANDARD, playerPos.getX(), playerPos.getY());
+                attachTank(playerTank);
+            } else {
+                // 只更新位置
+                playerTank.setX(playerPos.getX());
+                playerTank.setY(playerPos.getY());
+            }
+        }
+
+        // 如果初始敌方坦克数量小于最大同时存在数，立即生成更多坦克
+        while (enemyTanks.size() < maxConcurrentEnemies && enemyTanksGenerated < totalEnemyTanksToGenerate) {
+            spawnNewEnemyTank();
+        }
+    }
+
+    private void initializeGrid() {
+        if (levelMap == null) return;
+
+        // 标记不可行走的格子 (障碍物)，元素覆盖到的格子都不可行走
+        walkabilityGrid = WalkabilityGrid.fromLevel(levelMap);
+
+        // 格子变化时只让受影响的缓存失效（首先检查是否处于AI决策阶段）
+        walkabilityGrid.addListener((cellX, cellY, blocked) -> aiSnapshot.checkWritable("可行走网格"));
+        walkabilityGrid.addListener(playerFlowField::onCellChanged);
+        walkabilityGrid.addListener(baseFlowField::onCellChanged);
+        clearanceMap = new ClearanceMap(walkabilityGrid);
+        grid = walkabilityGrid.asArray();
+
+        // 使用随地图保存的地标距离表（与当前网格不一致时由调度器重新计算）
+        pathScheduler.setLandmarks(MapLoader.loadLandmarks(currentLevel), walkabilityGrid);
+    }
+
+    /**
+     * 初始化空间索引，坦克在移动时增量更新
+     */
+    private void initializeSpatialIndex() {
+        if (levelMap == null) {
+            tankIndex = null;
+            return;
+        }
+
+        levelMap.buildTileLayer();
+        tankIndex = new SpatialGrid<>(levelMap.getWidth(), levelMap.getHeight());
+        indexedPlayerTank = null;
+
+        for (Tank enemyTank : enemyTanks) {
+            tankIndex.update(enemyTank, enemyTank.getX(), enemyTank.getY(), enemyTank.getWidth(), enemyTank.getHeight());
+        }
+        syncPlayerTankIndex();
+    }
+
+    /**
+     * 添加敌方坦克并写入空间索引
+     */
+    private void addEnemyTank(Tank enemyTank) {
+        enemyTanks.add(enemyTank);
+        if (tankIndex != null) {
+            tankIndex.update(enemyTank, enemyTank.getX(), enemyTank.getY(), enemyTank.getWidth(), enemyTank.getHeight());
+        }
+    }
+
+    /**
+     * 按生成顺序分配敌方坦克的AI行为：每baseAssaultInterval辆中有一辆进攻基地（地图没有基地时全部追踪玩家）
+     */
+    private void assignEnemyBehavior(Tank enemyTank) {
+        boolean assault = baseAssaultInterval > 0 && levelMap != null && levelMap.getPlayerBase() != null
+                && enemyTanksGenerated % baseAssaultInterval == baseAssaultInterval - 1;
+        enemyTank.setAIBehavior(assault ? Tank.AIBehavior.ASSAULT_BASE : Tank.AIBehavior.CHASE_PLAYER);
+    }
+
+    /**
+     * 移除敌方坦克并同步空间索引
+     */
+    private void removeEnemyTank(Tank enemyTank) {
+        enemyTanks.remove(enemyTank);
+        pathScheduler.cancel(enemyTank);
+        reservations.remove(enemyTank);
+        if (tankIndex != null) {
+            tankIndex.remove(enemyTank);
+        }
+    }
+
+    /**
+     * 坦克移动后更新其在空间索引中的位置
+     */
+    public void onTankMoved(Tank tank) {
+        if (tankIndex == null) return;
+
+        if (tank == playerTank) {
+            syncPlayerTankIndex();
+        } else if (tankIndex.contains(tank)) {
+            tankIndex.update(tank, tank.getX(), tank.getY(), tank.getWidth(), tank.getHeight());
+        }
+    }
+
+    // 玩家坦克在重生、切换类型、读档时会被替换为新对象，这里保证索引中只保留当前对象
+    private void syncPlayerTankIndex() {
+        if (tankIndex == null) return;
+
+        if (indexedPlayerTank != playerTank) {
+            if (indexedPlayerTank != null) {
+                tankIndex.remove(indexedPlayerTank);
+            }
+            indexedPlayerTank = playerTank;
+        }
+        if (playerTank != null) {
+            tankIndex.update(playerTank, playerTank.getX(), playerTank.getY(), playerTank.getWidth(), playerTank.getHeight());
+        }
+    }
+
+    // 同步所有坦克的索引位置（覆盖通过setX/setY直接修改坐标的情况，位置所在单元格未变时开销很小）
+    private void syncTankIndex() {
+        if (tankIndex == null) return;
+
+        for (Tank enemyTank : enemyTanks) {
+            tankIndex.update(enemyTank, enemyTank.getX(), enemyTank.getY(), enemyTank.getWidth(), enemyTank.getHeight());
+        }
+        syncPlayerTankIndex();
+    }
+
+    public void setPlayerTankType(String tankType) {
+        // 将字符串转换为TankType枚举
+        Tank.TankType type = Tank.TankType.valueOf(tankType.toUpperCase());
+
+        // 完全创建一个新坦克，不保留任何旧状态
+        int x = 380, y = 480; // 默认位置
+        if (levelMap != null && levelMap.getPlayerSpawn() != null) {
+            x = levelMap.getPlayerSpawn().getX();
+            y = levelMap.getPlayerSpawn().getY();
+        }
+
+        // 创建全新的坦克对象
+        playerTank = new Tank(type, x, y);
+        attachTank(playerTank);
+
+        // 确保坦克面向上方向（这是默认值，但为了清晰，我们显式设置）
+        playerTank.setDirection(Tank.Direction.UP);
+
+    }
+
+    public LevelMap getLevelMap() {
+        return levelMap;
+    }
+
+    public int getCurrentLevel() {
+        return currentLevel;
+    }
+
+    public Tank getPlayerTank() {
+        return playerTank;
+    }
+
+    /**
+     * 获取剩余敌人数量
+     */
+    public int getRemainingEnemies() {
+        return enemyTanks.size(); // 直接返回当前敌方坦克列表的大小
+    }
+
+    public void addBullet(Bullet bullet) {
+        bullets.add(bullet);
+    }
+
+    public int getBulletCount() {
+        return bullets.size();
+    }
+
+    public boolean[][] getGrid() {
+        return grid;
+    }
+
+    /**
+     * 获取可增量维护的可行走网格，可注册监听器接收格子变化通知
+     */
+    public WalkabilityGrid getWalkabilityGrid() {
+        return walkabilityGrid;
+    }
+
+    /**
+     * 获取通行宽度图（尚未加载地图时为null）
+     */
+    public ClearanceMap getClearanceMap() {
+        return clearanceMap;
+    }
+
+    /**
+     * 获取本帧的隐蔽状态（模拟时间推进后的首次查询时重新计算）
+     */
+    public ConcealmentState getConcealment() {
+        long now = clock.currentTimeMillis();
+        if (!concealment.isCurrent(levelMap, playerTank, now)) {
+            concealment.update(levelMap, playerTank, enemyTanks, now);
+        }
+        return concealment;
+    }
+
+    /**
+     * 获取当前地图的地形射线检测（尚未加载地图时返回null）
+     */
+    public TerrainRaycaster getTerrainRaycaster() {
+        if (levelMap == null) {
+            return null;
+        }
+        if (raycaster == null || raycaster.getMap() != levelMap) {
+            raycaster = new TerrainRaycaster(levelMap);
+        }
+        return raycaster;
+    }
+
+    /**
+     * 获取敌方坦克的时空预约表
+     */
+    public ReservationTable getReservationTable() {
+        return reservations;
+    }
+
+    /**
+     * 获取朝向玩家的共享流场
+     *
+     * @return 流场，未启用或尚未计算时返回null（此时坦克各自寻路）
+     */
+    public FlowField getPlayerFlowField() {
+        if (pathMode != PathMode.FLOW_FIELD || grid == null || playerTank == null) {
+            return null;
+        }
+        return playerFlowField;
+    }
+
+    /**
+     * 获取朝向玩家基地的共享距离场
+     *
+     * @return 距离场，地图没有基地时返回null（进攻基地与追踪玩家的方式无关，两种模式下都使用）
+     */
+    public FlowField getBaseFlowField() {
+        if (grid == null || levelMap == null || levelMap.getPlayerBase() == null) {
+            return null;
+        }
+        return baseFlowField;
+    }
+
+    public int getBaseAssaultInterval() {
+        return baseAssaultInterval;
+    }
+
+    /**
+     * 设置进攻基地的敌方坦克比例（每几辆中有一辆），只影响之后生成的坦克；0表示全部追踪玩家
+     */
+    public void setBaseAssaultInterval(int baseAssaultInterval) {
+        this.baseAssaultInterval = Math.max(0, baseAssaultInterval);
+    }
+
+    public PathMode getPathMode() {
+        return pathMode;
+    }
+
+    /**
+     * 设置敌方坦克追踪玩家的方式：FLOW_FIELD下所有坦克共用流场，不提交寻路请求；
+     * PATHFINDING下每辆坦克通过寻路调度器单独寻路（异步寻路、路径缓存、JPS、HPA*、D* Lite和ALT启发只在此模式下生效）
+     */
+    public void setPathMode(PathMode pathMode) {
+        this.pathMode = pathMode != null ? pathMode : PathMode.FLOW_FIELD;
+        playerFlowField.invalidate();
+    }
+
+    /**
+     * 更新朝向玩家的流场（每帧调用一次，玩家格子未变化时不做任何计算）
+     */
+    private void updatePlayerFlowField() {
+        if (pathMode != PathMode.FLOW_FIELD || grid == null || grid.length == 0 || playerTank == null) {
+            return;
+        }
+
+        int gridWidth = grid[0].length;
+        int gridHeight = grid.length;
+        int targetX = Math.max(0, Math.min((playerTank.getX() + playerTank.getWidth() / 2) / 40, gridWidth - 1));
+        int targetY = Math.max(0, Math.min((playerTank.getY() + playerTank.getHeight() / 2) / 40, gridHeight - 1));
+        aiSnapshot.checkWritable("流场");
+        playerFlowField.update(grid, targetX, targetY);
+    }
+
+    /**
+     * 更新朝向基地的距离场（基地所在格子不变，通常只在地形变化后增量更新）
+     */
+    private void updateBaseFlowField() {
+        if (grid == null || grid.length == 0
+                || levelMap == null || levelMap.getPlayerBase() == null) {
+            return;
+        }
+
+        LevelMap.MapPosition base = levelMap.getPlayerBase();
+        int targetX = Math.max(0, Math.min(baseCenterX(base) / 40, grid[0].length - 1));
+        int targetY = Math.max(0, Math.min(baseCenterY(base) / 40, grid.length - 1));
+        aiSnapshot.checkWritable("流场");
+        baseFlowField.update(grid, targetX, targetY);
+    }
+
+    /**
+     * 基地中心的像素坐标（地图未指定尺寸时按一个格子计算）
+     */
+    public static int baseCenterX(LevelMap.MapPosition base) {
+        return base.getX() + (base.getWidth() > 0 ? base.getWidth() : 40) / 2;
+    }
+
+    public static int baseCenterY(LevelMap.MapPosition base) {
+        return base.getY() + (base.getHeight() > 0 ? base.getHeight() : 40) / 2;
+    }
+
+    /**
+     * AI决策阶段：共享流场每帧最多计算一次，每辆敌方坦克执行一次AI（发射的子弹直接写入子弹缓冲区）
+     */
+    private void runEnemyAI() {
+        updatePlayerFlowField();
+        updateBaseFlowField();
+        if (playerTank == null) return;
+
+        // 决策阶段：所有坦克读取同一份快照，可并行执行
+        aiSnapshot.capture(this);
+        aiSnapshot.beginDecide();
+        try {
+            aiDecider.decide(enemyTanks, aiSnapshot);
+        } finally {
+            aiSnapshot.endDecide();
+        }
+
+        // 应用阶段：按坦克顺序提交寻路请求、移动和开火
+        int count = enemyTanks.size();
+        for (int i = 0; i < count; i++) {
+            Tank enemyTank = enemyTanks.get(i);
+            if (!enemyTank.isDestroyed()) {
+                AIIntent intent = aiDecider.getIntent(i);
+                submitPathRequest(enemyTank, intent);
+                enemyTank.applyAI(intent, this);
+            }
+        }
+    }
+
+    /**
+     * 把坦克AI意图中的寻路请求加入调度队列
+     */
+    private void submitPathRequest(Tank tank, AIIntent intent) {
+        if (intent.isPathRequested()) {
+            pathScheduler.submit(tank, intent.getPathStartX(), intent.getPathStartY(),
+                    intent.getPathTargetX(), intent.getPathTargetY(), intent.isPathUrgent());
+        }
+    }
+
+    /**
+     * 寻路阶段：在本帧预算内处理排队的寻路请求（或交给后台线程），新路径从下一帧开始使用
+     */
+    private void servePathRequests() {
+        aiSnapshot.checkWritable("预约表"); // 交还路径时协作规划器会写入预约
+        pathScheduler.serve(walkabilityGrid, clock.currentTimeMillis());
+    }
+
+    /**
+     * 启用或关闭后台寻路：启用后寻路不占用调用线程，结果在之后的帧生效（不再保证相同种子得到相同对局）
+     */
+    public void setAsyncPathfinding(boolean async) {
+        pathScheduler.setExecutor(async ? PathfindingWorkerPool.shared() : null);
+        pathScheduler.setMaxInFlight(PathfindingWorkerPool.getWorkerCount() * 2);
+    }
+
+    /**
+     * 设置PATHFINDING模式下的寻路算法，为null时使用调度器的默认算法（JPS）
+     */
+    public void setPathAlgorithm(PathAlgorithm algorithm) {
+        pathScheduler.setAlgorithm(algorithm);
+    }
+
+    /**
+     * 获取寻路请求调度器（可调整每帧预算、查看排队数量）
+     */
+    public PathRequestScheduler getPathScheduler() {
+        return pathScheduler;
+    }
+
+    /**
+     * 卡住修复：保持静止的敌方坦克重置AI状态并强制移动一次
+     */
+    private void resolveStuckTanks() {
+        for (int i = 0; i < enemyTanks.size(); i++) {
+            Tank tank = enemyTanks.get(i);
+            if (!tank.isFriendly() && !tank.isDestroyed() && !tank.isWaitingForReservation()
+                    && tank.getCurrentSpeed() < 0.1) {
+                // 重置AI（随机选择新方向）并强制移动
+                tank.resetAIState();
+                tank.setAccelerating(true);
+                tank.move(this);
+            }
+        }
+    }
+
+    /**
+     * 移除已被摧毁的敌方坦克
+     */
+    private void despawnDestroyedTanks() {
+        tanksToDestroy.clear();
+        for (int i = 0; i < enemyTanks.size(); i++) {
+            Tank enemyTank = enemyTanks.get(i);
+            if (enemyTank.isDestroyed()) {
+                tanksToDestroy.add(enemyTank);
+            }
+        }
+        for (int i = 0; i < tanksToDestroy.size(); i++) {
+            removeEnemyTank(tanksToDestroy.get(i));
+        }
+        tanksToDestroy.clear();
+    }
+
+    /**
+     * 处理坦克重生队列和初始坦克生成
+     */
+    private void updateEnemySpawning() {
+        long currentTime = clock.currentTimeMillis();
+
+        // 当前敌方坦克数量
+        int currentEnemyCount = enemyTanks.size();
+        int dueCount = 0;
+        int requeueCount = 0;
+
+        // 检查重生时间队列：到期的条目出队，名额已满的稍后重试
+        Iterator<Long> iterator = tankRespawnTimes.iterator();
+        while (iterator.hasNext()) {
+            if (currentTime >= iterator.next()) {
+                iterator.remove();
+                dueCount++;
+
+                if (currentEnemyCount < maxConcurrentEnemies &&
+                        enemyTanksGenerated < totalEnemyTanksToGenerate) {
+                    // 标记需要生成新坦克，而不是立即生成
+                    currentEnemyCount++;
+                } else {
+                    requeueCount++;
+                }
+            }
+        }
+        for (int i = 0; i < requeueCount; i++) {
+            tankRespawnTimes.add(currentTime + 500);
+        }
+
+        // 生成新坦克（在队列处理完成后）
+        for (int i = 0; i < dueCount - requeueCount; i++) {
+            if (currentEnemyCount <= maxConcurrentEnemies &&
+                    enemyTanksGenerated < totalEnemyTanksToGenerate) {
+                spawnNewEnemyTank();
+            }
+        }
+
+        // 如果没有足够的敌方坦克，安排生成新坦克
+        if (enemyTanks.size() < maxConcurrentEnemies &&
+                enemyTanksGenerated < totalEnemyTanksToGenerate &&
+                tankRespawnTimes.isEmpty()) {
+            tankRespawnTimes.add(currentTime + 1000);
+        }
+
+        // 游戏开始时生成初始坦克
+        if (enemyTanks.isEmpty() && enemyTanksGenerated == 0 && tankRespawnTimes.isEmpty()) {
+            int initialTanks = Math.min(5, totalEnemyTanksToGenerate);
+            for (int i = 0; i < initialTanks; i++) {
+                spawnNewEnemyTank();
+            }
+        }
+    }
+
+    /**
+     * 检查碰撞
+     */
+    public String checkCollision(int x, int y, int width, int height) {
+        if (levelMap == null) return null;
+
+        boolean foundWater = false; // 跟踪是否发现水池
+        String result = null;
+
+        // 检查与地图元素的碰撞（只检查所在单元格内的元素）
+        for (LevelMap.MapElement element : queryTerrain(x, y, width, height)) {
+            LevelMap.TerrainType terrainType = element.getTerrainType();
+
+            // 跳过草地元素，草地可以通行
+            if (!terrainType.isSolid()) continue;
+
+            if (AABB.intersects(x, y, width, height,
+                    element.getX(), element.getY(), element.getWidth(), element.getHeight())) {
+                String type = element.getType();
+                if (terrainType == LevelMap.TerrainType.WATER) {
+                    foundWater = true;
+
+                    // 如果是玩家坦克并且处于无敌状态，则不触发水池伤害
+                    if (playerTank != null &&
+                            x == playerTank.getX() &&
+                            y == playerTank.getY() &&
+                            (playerTank.isRespawnInvincible() ||
+                                    playerTank.isInvincible() ||
+                                    playerTank.isShielded())) {
+
+                        continue;
+                    }
+
+                    // 获取当前时间
+                    long currentTime = clock.currentTimeMillis();
+
+                    // 检查是否已经过了冷却时间
+                    if (currentTime - lastWaterDamageTime > WATER_DAMAGE_COOLDOWN) {
+                        // 冷却时间已过，可以扣血并更新上次扣血时间
+                        result = type;
+                        lastWaterDamageTime = currentTime;
+                    }
+                } else {
+                    return type; // 如果是其他障碍物，直接返回
+                }
+            }
+        }
+
+        inWaterLastFrame = foundWater;
+
+        return result; // 返回碰撞类型
+    }
+
+    /**
+     * 检查位置是否有效
+     */
+    private boolean isPositionValid(int x, int y, int width, int height) {
+        if (levelMap == null) return false;
+
+        // 检查与地图元素的碰撞（只检查所在单元格内的元素）
+        for (LevelMap.MapElement element : queryTerrain(x, y, width, height)) {
+            // 跳过可以通过的元素
+            if (!element.getTerrainType().isSolid()) continue;
+
+            if (AABB.intersects(x, y, width, height,
+                    element.getX(), element.getY(), element.getWidth(), element.getHeight())) {
+                return false; // 位置无效，与障碍物重叠
+            }
+        }
+
+
+        return true; // 位置有效
+    }
+
+    /**
+     * 查询与区域覆盖的地形格子重叠的地图元素（粗筛结果，返回的列表会被下次查询复用）
+     */
+    private List<LevelMap.MapElement> queryTerrain(int x, int y, int width, int height) {
+        return levelMap.queryElements(x, y, width, height, terrainCandidates);
+    }
+
+    /**
+     * 查询与区域所在单元格重叠的坦克（粗筛结果，返回的列表会被下次查询复用）
+     */
+    private List<Tank> queryTanks(int x, int y, int width, int height) {
+        if (tankIndex == null) {
+            tankCandidates.clear();
+            tankCandidates.addAll(enemyTanks);
+            if (playerTank != null) {
+                tankCandidates.add(playerTank);
+            }
+            return tankCandidates;
+        }
+        return tankIndex.query(x, y, width, height, tankCandidates);
+    }
+
+    /**
+     * 寻找有效的出生位置
+     */
+    private LevelMap.MapPosition findValidPosition() {
+        if (levelMap == null) return null;
+
+        int mapWidth = levelMap.getWidth();
+        int mapHeight = levelMap.getHeight();
+        int tankSize = 40;
+
+        // 创建可能的出生点列表
+        List<int[]> possiblePositions = new ArrayList<>();
+
+        // 添加地图上半部分的更多可能位置
+        for (int x = 40; x < mapWidth - tankSize; x += 80) {
+            possiblePositions.add(new int[]{x, 40}); // 顶部
+            possiblePositions.add(new int[]{x, 120}); // 次顶部
+        }
+
+        // 添加地图中部的一些位置
+        for (int x = 80; x < mapWidth - tankSize; x += 160) {
+            possiblePositions.add(new int[]{x, mapHeight / 2 - tankSize});
+        }
+
+        // 添加原来的候选位置
+        possiblePositions.add(new int[]{mapWidth / 2 - tankSize / 2, mapHeight - tankSize - 40}); // 底部中间
+        possiblePositions.add(new int[]{40, 40}); // 左上角
+        possiblePositions.add(new int[]{mapWidth - tankSize - 40, 40}); // 右上角
+        possiblePositions.add(new int[]{40, mapHeight - tankSize - 40}); // 左下角
+        possiblePositions.add(new int[]{mapWidth - tankSize - 40, mapHeight - tankSize - 40}); // 右下角
+
+        // 打乱位置顺序，增加随机性
+        Collections.shuffle(possiblePositions, random);
+
+        // 检查这些随机位置是否可用
+        for (int[] pos : possiblePositions) {
+            if (isPositionValid(pos[0], pos[1], tankSize, tankSize)) {
+                LevelMap.MapPosition newPos = new LevelMap.MapPosition();
+                newPos.setX(pos[0]);
+                newPos.setY(pos[1]);
+                newPos.setWidth(tankSize);
+                newPos.setHeight(tankSize);
+                return newPos;
+            }
+        }
+
+        // 如果所有候选位置都不可用，尝试随机位置（先尝试上半部分地图）
+        for (int attempt = 0; attempt < 30; attempt++) {
+            // 倾向于在地图上半部分生成
+            int y = (int) (random.nextDouble() * (mapHeight / 2));
+            int x = (int) (random.nextDouble() * (mapWidth - tankSize));
+
+            if (isPositionValid(x, y, tankSize, tankSize)) {
+                LevelMap.MapPosition newPos = new LevelMap.MapPosition();
+                newPos.setX(x);
+                newPos.setY(y);
+                newPos.setWidth(tankSize);
+                newPos.setHeight(tankSize);
+                return newPos;
+            }
+        }
+
+        // 如果上半部分找不到，再尝试整个地图范围
+        for (int attempt = 0; attempt < 20; attempt++) {
+            int x = (int) (random.nextDouble() * (mapWidth - tankSize));
+            int y = (int) (random.nextDouble() * (mapHeight - tankSize));
+
+            if (isPositionValid(x, y, tankSize, tankSize)) {
+                LevelMap.MapPosition newPos = new LevelMap.MapPosition();
+                newPos.setX(x);
+                newPos.setY(y);
+                newPos.setWidth(tankSize);
+                newPos.setHeight(tankSize);
+                return newPos;
+            }
+        }
+
+        // 找不到有效位置
+        
+        return null;
+    }
+
+    /**
+     * 检查两个坦克是否碰撞
+     */
+    public boolean checkTankCollision(Tank tank1, Tank tank2) {
+        return tank1.collidesWith(tank2);
+    }
+
+    /**
+     * 检查敌方坦克与玩家坦克的碰撞
+     *
+     * @return 是否发生碰撞
+     */
+    private boolean checkEnemyPlayerCollisions() {
+        if (playerTank == null || playerTank.isDestroyed()) {
+            return false;
+        }
+
+        boolean collisionDetected = false;
+
+        // 复用要删除的坦克列表，避免在迭代中修改集合
+        tanksToDestroy.clear();
+
+        // 检查每个敌方坦克
+        for (Tank enemyTank : enemyTanks) {
+            if (enemyTank.isDestroyed()) {
+                continue;
+            }
+
+            // 检查玩家坦克和敌方坦克之间是否发生碰撞
+            if (checkTankCollision(playerTank, enemyTank)) {
+                collisionDetected = true;
+
+                // 检查玩家是否处于无敌状态
+                if (playerTank.isInvincible() || playerTank.isRespawnInvincible()) {
+
+                }
+                // 检查玩家是否有护盾
+                else if (playerTank.isShielded()) {
+                    // 移除护盾状态
+                    playerTank.removeEffect(Tank.PowerUpType.SHIELD);
+                }
+                // 正常受到伤害
+                else {
+                    // 碰撞发生时，减少玩家坦克的血量
+                    playerTank.takeDamage(1);
+
+                    // 检查玩家是否死亡
+                    if (playerTank.getHealth() <= 0) {
+                        playerTank.setDestroyed(true);
+                        return true; // 玩家坦克被摧毁
+                    }
+
+                    // 更新血量显示
+                    notifyPlayerHealthChanged();
+                }
+
+                // 敌方坦克被摧毁
+                enemyTank.setHealth(0);
+                enemyTank.setDestroyed(true);
+
+                // 记录要删除的坦克
+                tanksToDestroy.add(enemyTank);
+
+                // 增加击毁敌方坦克计数
+                enemyTanksDestroyed++;
+            }
+        }
+
+        // 移除被摧毁的坦克
+        for (Tank tank : tanksToDestroy) {
+            // 如果使用了坦克池，可以考虑将坦克返回到池中而不是直接删除
+            removeEnemyTank(tank);
+
+            // 尝试生成增益效果 - 添加这行代码
+            trySpawnPowerUpOnTankDestroyed(tank.getX(), tank.getY());
+        }
+
+        return collisionDetected;
+    }
+
+    /**
+     * 寻找玩家坦克的有效出生位置
+     */
+    public LevelMap.MapPosition findValidSpawnPosition() {
+        // 定义玩家坦克周围的安全区域（100像素）
+        final int SAFE_DISTANCE = 100;
+        // 网格大小，确保坦克生成位置对齐到网格
+        final int GRID_SIZE = 40;
+
+        // 获取地图尺寸
+        int mapWidth = levelMap.getWidth();
+        int mapHeight = levelMap.getHeight();
+
+        // 最多尝试30次寻找合适的位置
+        for (int attempt = 0; attempt < 30; attempt++) {
+            // 生成网格对齐的坐标（确保是40的整数倍）
+            int gridX = (int) (random.nextDouble() * ((mapWidth - 40) / GRID_SIZE));
+            int gridY = (int) (random.nextDouble() * ((mapHeight - 40) / GRID_SIZE));
+
+            // 将网格坐标转换为像素坐标，确保严格对齐到网格
+            int x = gridX * GRID_SIZE;
+            int y = gridY * GRID_SIZE;
+
+            // 确保不会生成在地图边缘
+            if (x < GRID_SIZE || y < GRID_SIZE || x > mapWidth - 80 || y > mapHeight - 80) {
+                continue;
+            }
+
+            // 检查位置是否有效（不与地图障碍物重叠）
+            if (isPositionValid(x, y, 40, 40)) {
+                // 检查是否在玩家坦克安全区域之外
+                if (playerTank != null) {
+                    int playerX = playerTank.getX();
+                    int playerY = playerTank.getY();
+
+                    // 计算与玩家的距离
+                    double distance = Math.sqrt(
+                            Math.pow(x + 20 - (playerX + 20), 2) +
+                                    Math.pow(y + 20 - (playerY + 20), 2)
+                    );
+
+                    // 如果在安全区域内，继续尝试
+                    if (distance < SAFE_DISTANCE) {
+                        continue;
+                    }
+                }
+
+                // 检查与其他敌方坦克的碰撞
+                boolean collidesWithOtherTank = false;
+                for (Tank enemyTank : enemyTanks) {
+                    if (AABB.intersects(x, y, 40, 40,
+                            enemyTank.getX(), enemyTank.getY(), enemyTank.getWidth(), enemyTank.getHeight())) {
+                        collidesWithOtherTank = true;
+                        break;
+                    }
+                }
+
+                if (!collidesWithOtherTank) {
+                    // 创建并返回有效位置
+                    LevelMap.MapPosition position = new LevelMap.MapPosition();
+                    position.setX(x);
+                    position.setY(y);
+                    position.setWidth(40);
+                    position.setHeight(40);
+                    return position;
+                }
+            }
+        }
+
+
+        return null; // 无法找到有效位置
+    }
+
+    /**
+     * 重生玩家坦克 - 不重置生命值
+     */
+    public void respawnPlayerTank(String tankType, int x, int y) {
+        // 确保位置对齐到网格
+        int alignedX = (x / 40) * 40;
+        int alignedY = (y / 40) * 40;
+
+        // 创建新的玩家坦克
+        Tank.TankType type = Tank.TankType.fromString(tankType);
+        playerTank = new Tank(type, alignedX, alignedY);
+        attachTank(playerTank);
+
+        // 设置初始方向为向上
+        playerTank.setDirection(Tank.Direction.UP);
+
+        // 设置复活无敌状态
+        playerTank.setRespawnInvincible(true);
+        
+        // 不在这里设置playerLives - 这是导致问题的原因
+    }
+
+    /**
+     * 获取被击败的敌人数量
+     */
+    public int getDefeatedEnemiesCount() {
+        return enemyTanksDestroyed;
+    }
+
+    /**
+     * 重置玩家水池状态 - 同时重置冷却时间
+     */
+    public void resetWaterState() {
+        inWaterLastFrame = false;
+        lastWaterDamageTime = 0; // 重置冷却时间
+    }
+
+    /**
+     * 检测子弹与坦克的命中（只判定，不移动子弹；子弹已在推进阶段移动）
+     *
+     * @return 是否有玩家生命减少
+     */
+    private boolean resolveBulletHits() {
+        boolean playerLostLife = false;
+        syncTankIndex();
+
+        // 命中的子弹用最后一颗子弹填补空位，不递增下标
+        for (int i = 0; i < bullets.size(); ) {
+            // 子弹与坦克的命中（子弹所在单元格内的坦克）
+            if (checkBulletTankCollisions(i)) {
+                bullets.removeAt(i);
+                continue;
+            }
+
+            int bulletX = bullets.getX(i);
+            int bulletY = bullets.getY(i);
+            int bulletDamage = bullets.getDamage(i);
+
+            // 子弹碰撞检测区域 (15x15)，子弹中心点调整（10x10 -> 15x15）
+            double bulletHitX = bulletX - 2.5;
+            double bulletHitY = bulletY - 2.5;
+
+            boolean bulletHit = false;
+
+            // 检查子弹与坦克的碰撞
+            if (bullets.isFromPlayer(i)) {
+                // 玩家子弹与敌方坦克碰撞（只检查子弹所在单元格内的坦克）
+                for (Tank enemyTank : queryTanks(bulletX - 3, bulletY - 3, 16, 16)) {
+                    if (enemyTank.isFriendly()) continue;
+
+                    if (AABB.intersects(bulletHitX, bulletHitY, 15, 15,
+                            enemyTank.getX(), enemyTank.getY(), enemyTank.getWidth(), enemyTank.getHeight())) {
+                        // 敌方坦克受到伤害
+                        boolean destroyed = enemyTank.takeDamage(bulletDamage);
+                        bulletHit = true;
+
+                        if (destroyed) {
+                            // 敌方坦克被摧毁
+                            removeEnemyTank(enemyTank);
+                            enemyTanksDestroyed++; // 增加已摧毁计数
+
+                            // 安排新坦克生成（3秒后）
+                            if (enemyTanksGenerated < totalEnemyTanksToGenerate) {
+                                tankRespawnTimes.add(clock.currentTimeMillis() + 3000);
+                            }
+                        }
+                        break;
+                    }
+                }
+            } else {
+                // 敌方子弹与玩家坦克碰撞
+                if (playerTank != null) {
+                    if (AABB.intersects(bulletHitX, bulletHitY, 15, 15,
+                            playerTank.getX(), playerTank.getY(), playerTank.getWidth(), playerTank.getHeight())) {
+                        // 检查玩家是否处于无敌状态
+                        if (playerTank.isInvincible() || playerTank.isRespawnInvincible()) {
+                            bulletHit = true;
+                        }
+                        // 检查玩家是否有护盾
+                        else if (playerTank.isShielded()) {
+                            // 移除护盾状态
+                            playerTank.removeEffect(Tank.PowerUpType.SHIELD);
+                            bulletHit = true;
+                        }
+                        // 正常受到伤害
+                        else {
+                            // 玩家坦克受到伤害
+                            if (playerTank.getHealth() > bulletDamage) {
+                                // 扣血但不致死
+                                playerTank.setHealth(playerTank.getHealth() - bulletDamage);
+                                // 更新血量显示
+                                notifyPlayerHealthChanged();
+                            } else {
+                                // 玩家血量不足，生命值减一
+                                playerTank.setHealth(0);
+                                playerLostLife = true;
+                            }
+                            bulletHit = true;
+                        }
+                    }
+                }
+            }
+
+            // 如果子弹击中了目标
+            if (bulletHit) {
+                // 移除子弹
+                bullets.removeAt(i);
+
+                // 如果是玩家的子弹，增加子弹数量（在View层处理）
+                continue;
+            }
+            i++;
+        }
+
+        return playerLostLife;
+    }
+
+    /**
+     * 检查子弹与地图元素的碰撞
+     * 返回子弹碰撞的元素类型，如果没有碰撞则返回null
+     */
+    public String checkBulletCollisions(int bulletIndex) {
+        // 只检查子弹所在单元格内的地图元素
+        for (LevelMap.MapElement element : queryTerrain(bullets.getX(bulletIndex), bullets.getY(bulletIndex),
+                BulletBuffer.BULLET_SIZE, BulletBuffer.BULLET_SIZE)) {
+
+            // 跳过草地，子弹可以穿过
+            if (!element.getTerrainType().blocksBullets()) {
+                continue;
+            }
+
+            // 检查碰撞
+            if (bullets.collidesWith(bulletIndex, element.getX(), element.getY(), element.getWidth(), element.getHeight())) {
+
+                // 如果是砖块，移除它并同步空间索引和可行走网格
+                if (element.getTerrainType() == LevelMap.TerrainType.BRICK) {
+                    aiSnapshot.checkWritable("地形");
+                    levelMap.removeElement(element);
+                    notifyTerrainChanged(element.getX(), element.getY(),
+                            element.getWidth(), element.getHeight());
+                    if (walkabilityGrid != null) {
+                        walkabilityGrid.removeObstacle(element.getX(), element.getY(),
+                                element.getWidth(), element.getHeight());
+                    }
+                }
+
+                // 返回碰撞的元素类型
+                return element.getType();
+            }
+        }
+
+        return null; // 没有碰撞
+    }
+
+    /**
+     * 推进子弹（子弹位置只在这里更新）：每颗子弹每帧移动BULLET_SUBSTEPS个子步，
+     * 每个子步后检查出界和地形命中，坦克命中在碰撞阶段统一判定
+     */
+    private void updateBullets(double deltaTime) {
+        // 被销毁的子弹用最后一颗子弹填补空位，不递增下标
+        for (int i = 0; i < bullets.size(); ) {
+            if (advanceBullet(i)) {
+                i++;
+            } else {
+                bullets.removeAt(i);
+            }
+        }
+    }
+
+    /**
+     * 按子步移动一颗子弹
+     *
+     * @return 子弹仍然存在时返回true，出界或击中钢铁、砖块时返回false
+     */
+    private boolean advanceBullet(int index) {
+        for (int step = 0; step < BULLET_SUBSTEPS; step++) {
+            bullets.move(index);
+
+            // 检查子弹是否超出地图边界
+            if (bullets.isOutOfBounds(index, levelMap.getWidth(), levelMap.getHeight())) {
+                return false;
+            }
+
+            // 检查子弹与地图元素的碰撞，击中钢铁或砖块时子弹被销毁
+            String collisionType = checkBulletCollisions(index);
+            if (collisionType != null && (collisionType.equals("steel") || collisionType.equals("brick"))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 检查子弹与坦克的碰撞
+     *
+     * @param bulletIndex 需要检查的子弹在缓冲区中的下标
+     * @return 是否发生了碰撞
+     */
+    public boolean checkBulletTankCollisions(int bulletIndex) {
+        // 只检查子弹所在单元格内的坦克(包括玩家坦克)
+        for (Tank tank : queryTanks(bullets.getX(bulletIndex), bullets.getY(bulletIndex),
+                BulletBuffer.BULLET_SIZE, BulletBuffer.BULLET_SIZE)) {
+            // 如果坦克已被摧毁，跳过
+            if (tank.isDestroyed()) {
+                continue;
+            }
+
+            // 检查子弹是否击中坦克
+            if (bullets.collidesWith(bulletIndex, tank.getX(), tank.getY(), tank.getWidth(), tank.getHeight())) {
+
+                // 如果子弹和坦克来自同一阵营，忽略碰撞
+                if (bullets.isFromPlayer(bulletIndex) == tank.isFriendly()) {
+                    continue;
+                }
+
+                // 子弹击中坦克，处理伤害
+                boolean isDestroyed = tank.takeDamage(bullets.getDamage(bulletIndex));
+
+                // 如果击中的是敌方坦克，并且该坦克被摧毁
+                if (!tank.isFriendly() && isDestroyed) {
+                    // 增加已击败敌方坦克计数
+                    enemyTanksDestroyed++;
+                    
+                    // 添加关卡完成检查 - 确保在每次敌人被摧毁时都检查是否完成关卡
+                    if (enemyTanksDestroyed >= totalEnemyTanksToGenerate && enemyTanks.isEmpty()) {
+                        notifyLevelCompleted();
+                    }
+                    
+                    // 修改这部分逻辑：只要当前生成的敌方坦克数小于总目标数量，就安排新坦克生成
+                    if (enemyTanksGenerated < totalEnemyTanksToGenerate) {
+                        tankRespawnTimes.add(clock.currentTimeMillis() + 2000); // 改为2秒后生成
+
+                    }
+
+                    // 尝试生成增益效果
+                    trySpawnPowerUpOnTankDestroyed(tank.getX(), tank.getY());
+                }
+
+                return true; // 子弹命中，返回true以移除子弹
+            }
+        }
+
+        return false; // 子弹未命中任何坦克
+    }
+
+    /**
+     * 获取当前地图
+     *
+     * @return 当前关卡地图
+     */
+    public LevelMap getMap() {
+        return levelMap;
+    }
+
+    /**
+     * 配置每个关卡的敌方坦克参数
+     */
+    private void configureEnemyTanksForLevel(int level) {
+        // 清空现有的敌方坦克配置
+        enemyTypesToGenerate.clear();
+
+        // 根据关卡设置最大同时存在的敌方坦克数量
+        if (level <= 3) {
+            maxConcurrentEnemies = 5; // 前三关最多5个敌方坦克
+        } else {
+            maxConcurrentEnemies = 6; // 第4、5关最多6个敌方坦克
+        }
+
+        // 清空延迟生成队列
+        tankRespawnTimes.clear();
+
+        // 根据关卡设置敌方坦克目标数量和类型分布
+        switch (level) {
+            case 1:
+                // 第一关：15个坦克，全部是基础坦克
+                totalEnemyTanksToGenerate = 15;
+
+                break;
+
+            case 2:
+                // 第二关：20个坦克，90%基础坦克，10%精英坦克
+                totalEnemyTanksToGenerate = 20;
+
+                break;
+
+            case 3:
+                // 第三关：30个坦克，57%基础坦克，40%精英坦克，3%Boss坦克
+                totalEnemyTanksToGenerate = 30;
+
+                break;
+
+            case 4:
+                // 第四关：45个坦克，20%基础坦克，60%精英坦克，20%Boss坦克
+                totalEnemyTanksToGenerate = 45;
+
+                break;
+
+            case 5:
+                // 第五关：60个坦克，15%基础坦克，50%精英坦克，35%Boss坦克
+                totalEnemyTanksToGenerate = 60;
+
+                break;
+
+            default:
+                // 默认配置，避免出错
+                totalEnemyTanksToGenerate = 15;
+
+                break;
+        }
+
+        // 重置敌方坦克统计信息
+        enemyTanksGenerated = 0;
+        enemyTanksDestroyed = 0;
+
+    }
+
+    // 修改生成新敌方坦克
+    private void spawnNewEnemyTank() {
+        // 如果已经生成了足够的坦克，不再生成
+        if (enemyTanksGenerated >= totalEnemyTanksToGenerate) {
+
+            return;
+        }
+
+        // 寻找有效的生成位置
+        LevelMap.MapPosition spawnPos = findValidSpawnPosition();
+        if (spawnPos != null) {
+            // 决定要生成哪种类型的敌方坦克
+            Tank.TankType enemyType;
+            double roll = random.nextDouble();
+
+            // 根据当前关卡决定敌方坦克类型
+            switch (currentLevel) {
+                case 1:
+                    // 第一关：100% 基础坦克
+                    enemyType = Tank.TankType.BASIC;
+                    break;
+
+                case 2:
+                    // 第二关：90% 基础坦克，10% 精英坦克
+                    if (roll < 0.9) {
+                        enemyType = Tank.TankType.BASIC;
+                    } else {
+                        enemyType = Tank.TankType.ELITE;
+                    }
+                    break;
+
+                case 3:
+                    // 第三关：57% 基础坦克，40% 精英坦克，3% Boss坦克
+                    if (roll < 0.57) {
+                        enemyType = Tank.TankType.BASIC;
+                    } else if (roll < 0.97) { // 0.57 + 0.40 = 0.97
+                        enemyType = Tank.TankType.ELITE;
+                    } else {
+                        enemyType = Tank.TankType.BOSS;
+                    }
+                    break;
+
+                case 4:
+                    // 第四关：20% 基础坦克，60% 精英坦克，20% Boss坦克
+                    if (roll < 0.2) {
+                        enemyType = Tank.TankType.BASIC;
+                    } else if (roll < 0.8) { // 0.2 + 0.6 = 0.8
+                        enemyType = Tank.TankType.ELITE;
+                    } else {
+                        enemyType = Tank.TankType.BOSS;
+                    }
+                    break;
+
+                case 5:
+                    // 第五关：15% 基础坦克，50% 精英坦克，35% Boss坦克
+                    if (roll < 0.15) {
+                        enemyType = Tank.TankType.BASIC;
+                    } else if (roll < 0.65) { // 0.15 + 0.5 = 0.65
+                        enemyType = Tank.TankType.ELITE;
+                    } else {
+                        enemyType = Tank.TankType.BOSS;
+                    }
+                    break;
+
+                default:
+                    // 默认是基础坦克
+                    enemyType = Tank.TankType.BASIC;
+                    break;
+            }
+
+            // 创建新坦克并添加到列表中，确保位置是40的整数倍
+            int alignedX = (spawnPos.getX() / 40) * 40;
+            int alignedY = (spawnPos.getY() / 40) * 40;
+
+            Tank enemyTank = new Tank(enemyType, alignedX, alignedY);
+
+            attachTank(enemyTank);
+            assignEnemyBehavior(enemyTank);
+
+            // 随机设置初始方向
+            int randomDir = random.nextInt(4);
+            enemyTank.setDirection(Tank.Direction.fromValue(randomDir));
+
+            // 给坦克设置一个"出生保护"标记，防止立即移动
+            enemyTank.setInitialSpawnDelay(true);
+
+            // 添加到敌方坦克列表
+            addEnemyTank(enemyTank);
+
+            // 增加已生成的坦克计数
+            enemyTanksGenerated++;
+        } else {
+            // 稍后再次尝试生成
+            tankRespawnTimes.add(clock.currentTimeMillis() + 500);
+        }
+    }
+
+    // 获取关卡目标（需要消灭的坦克总数）
+    public int getTotalEnemyTarget() {
+        return totalEnemyTanksToGenerate;
+    }
+
+    // 获取当前剩余需要生成的敌人数量
+    public int getRemainingEnemiesCount() {
+        return totalEnemyTanksToGenerate - enemyTanksGenerated;
+    }
+
+    // 检查是否完成关卡目标
+    public boolean isLevelCompleted() {
+        // 关卡完成条件：已摧毁的坦克数量等于总目标且当前场上没有敌方坦克
+        return enemyTanksDestroyed >= totalEnemyTanksToGenerate && enemyTanks.isEmpty();
+    }
+
+    /**
+     * 处理玩家坦克受到伤害
+     */
+    public void handlePlayerTankDamage(int damage) {
+        if (playerTank == null) return;
+
+        // 调用takeDamage并检查返回值
+        boolean tankDestroyed = playerTank.takeDamage(damage);
+
+        // 如果坦克被摧毁，立即通知GameView
+        if (tankDestroyed || playerTank.isDead()) {
+            // 确保健康值设为0
+            playerTank.setHealth(0);
+
+            // 不要在这里减少生命数，只通知事件处理
+
+            // 通知GameView处理玩家死亡
+            notifyPlayerDestroyed();
+        }
+    }
+
+    // 更新并渲染增益效果
+    private void updatePowerUps(double deltaTime) {
+        // 定期生成增益效果
+        long currentTime = clock.currentTimeMillis();
+        if (currentTime - lastPowerUpSpawnTime > 8000) { // 改为8秒间隔
+            spawnRandomPowerUp();
+            lastPowerUpSpawnTime = currentTime;
+        }
+
+        // 更新增益效果状态
+        Iterator<PowerUp> iterator = powerUps.iterator();
+        while (iterator.hasNext()) {
+            PowerUp powerUp = iterator.next();
+
+            // 检查是否应该移除
+            if (powerUp.shouldRemove()) {
+                iterator.remove();
+                continue;
+            }
+
+            // 增强碰撞检测逻辑，确保正确检测到碰撞
+            if (playerTank != null && !playerTank.isDead()) {
+                boolean collides = checkPlayerPowerUpCollision(playerTank, powerUp);
+                if (collides) {
+                    collectPowerUp(powerUp);
+                    iterator.remove();
+                    continue;
+                }
+            }
+        }
+
+        // 更新炸弹状态
+        if (activeBomb != null) {
+            updateBomb(currentTime);
+        }
+    }
+
+    // 使用更精确的碰撞检测
+    private boolean checkPlayerPowerUpCollision(Tank tank, PowerUp powerUp) {
+        // 扩大一点碰撞范围，确保更容易拾取
+        return AABB.intersectsWithMargin(tank.getX(), tank.getY(), tank.getWidth(), tank.getHeight(),
+                powerUp.getX(), powerUp.getY(), powerUp.getWidth(), powerUp.getHeight(), 5);
+    }
+
+    // 修改现有的collectPowerUp方法，而不是创建新方法
+    private void collectPowerUp(PowerUp powerUp) {
+        powerUp.collect();
+
+        // 应用增益效果
+        Tank.PowerUpType type = powerUp.getType();
+
+        // 确保所有效果都调用applyPowerUp
+        playerTank.applyPowerUp(type);
+
+        // 对于每种特定效果，可以额外处理
+        switch (type) {
+            case HEALTH:
+                notifyPlayerHealthChanged();
+                break;
+            case BOMB:
+
+                break;
+            case ATTACK:
+
+                break;
+            case INVINCIBILITY:
+
+                break;
+            case SHIELD:
+
+                break;
+            case SPEED:
+
+                break;
+        }
+
+    }
+
+    // 优化随机生成逻辑，减少卡顿
+    private void spawnRandomPowerUp() {
+        if (levelMap == null) return;
+
+        if (random.nextDouble() > 0.7) {
+            return;
+        }
+
+        // 使用预计算的随机位置
+        LevelMap.MapPosition pos = findValidPowerUpPosition();
+        if (pos != null) {
+            // 随机选择增益效果类型
+            Tank.PowerUpType[] types = Tank.PowerUpType.values();
+            Tank.PowerUpType randomType = types[(int) (random.nextDouble() * types.length)];
+
+            // 创建增益效果并添加到列表
+            PowerUp powerUp = new PowerUp(pos.getX(), pos.getY(), Tank.PowerUpType.INVINCIBILITY, clock);
+            powerUps.add(powerUp);
+        }
+    }
+
+    // 查找有效的增益效果生成位置
+    private LevelMap.MapPosition findValidPowerUpPosition() {
+        if (levelMap == null) return null;
+
+        int mapWidth = levelMap.getWidth();
+        int mapHeight = levelMap.getHeight();
+        int size = 30; // 增益效果大小
+
+        // 最多尝试20次
+        for (int attempt = 0; attempt < 20; attempt++) {
+            // 生成随机位置，确保对齐到网格（40的倍数）
+            int x = ((int) (random.nextDouble() * (mapWidth - size) / 40)) * 40;
+            int y = ((int) (random.nextDouble() * (mapHeight - size) / 40)) * 40;
+
+            // 检查位置是否有效
+            if (isPositionValid(x, y, size, size)) {
+                // 检查与其他增益效果的距离
+                boolean tooClose = false;
+                for (PowerUp existing : powerUps) {
+                    double distance = Math.sqrt(
+                            Math.pow(x - existing.getX(), 2) +
+                                    Math.pow(y - existing.getY(), 2)
+                    );
+                    if (distance < 80) { // 至少80像素距离
+                        tooClose = true;
+                        break;
+                    }
+                }
+
+                if (!tooClose) {
+                    LevelMap.MapPosition position = new LevelMap.MapPosition();
+                    position.setX(x);
+                    position.setY(y);
+                    position.setWidth(size);
+                    position.setHeight(size);
+                    return position;
+                }
+            }
+        }
+
+        return null; // 找不到有效位置
+    }
+
+    // 当坦克被摧毁时尝试生成增益效果
+    public void trySpawnPowerUpOnTankDestroyed(int x, int y) {
+        if (random.nextDouble() < 0.6) {
+            // 随机选择增益效果类型
+            Tank.PowerUpType[] types = Tank.PowerUpType.values();
+            Tank.PowerUpType randomType = types[(int) (random.nextDouble() * types.length)];
+
+            // 调整位置，确保不会被障碍物遮挡
+            int alignedX = (x / 40) * 40 + 5; // 对齐到网格并轻微偏移
+            int alignedY = (y / 40) * 40 + 5;
+
+            // 创建增益效果并添加到列表
+            PowerUp powerUp = new PowerUp(alignedX, alignedY, randomType, clock);
+            powerUps.add(powerUp);
+        }
+    }
+
+    // 玩家放置炸弹
+    public void placeBomb() {
+        // 检查玩家是否有炸弹道具
+        if (playerTank != null && playerTank.isEffectActive(Tank.PowerUpType.BOMB) && activeBomb == null) {
+            // 放置炸弹在玩家坦克位置
+            int bombX = playerTank.getX();
+            int bombY = playerTank.getY();
+
+            activeBomb = new Bomb(bombX, bombY, clock.currentTimeMillis());
+
+
+            // 移除炸弹效果（已使用）
+            playerTank.removeEffect(Tank.PowerUpType.BOMB);
+        } else if (playerTank != null && !playerTank.isEffectActive(Tank.PowerUpType.BOMB)) {
+
+        } else if (activeBomb != null) {
+
+        }
+    }
+
+    // 更新炸弹状态
+    private void updateBomb(long currentTime) {
+        if (activeBomb != null) {
+            // 检查炸弹是否应该爆炸
+            if (activeBomb.shouldExplode(currentTime)) {
+                detonateBomb();
+            }
+        }
+    }
+
+    // 引爆炸弹
+    private void detonateBomb() {
+        if (activeBomb == null) return;
+
+        // 爆炸范围
+        final int EXPLOSION_RANGE = 80;
+        int bombX = activeBomb.getX();
+        int bombY = activeBomb.getY();
+
+
+
+        // 检查范围内的敌方坦克
+        List<Tank> tanksInRange = new ArrayList<>();
+        for (Tank enemy : enemyTanks) {
+            if (enemy.isDestroyed()) continue;
+
+            // 计算坦克中心点与炸弹中心点的距离
+            int enemyCenterX = enemy.getX() + enemy.getWidth() / 2;
+            int enemyCenterY = enemy.getY() + enemy.getHeight() / 2;
+            int bombCenterX = bombX + 15; // 炸弹大小为30x30，中心点偏移15
+            int bombCenterY = bombY + 15;
+
+            double distance = Math.sqrt(
+                    Math.pow(enemyCenterX - bombCenterX, 2) +
+                            Math.pow(enemyCenterY - bombCenterY, 2)
+            );
+
+            // 如果在爆炸范围内，添加到受影响坦克列表
+            if (distance <= EXPLOSION_RANGE) {
+                tanksInRange.add(enemy);
+            }
+        }
+
+        // 对范围内的坦克造成伤害
+        for (Tank enemy : tanksInRange) {
+            enemy.takeDamage(2); // 造成2点伤害
+
+            // 如果坦克被摧毁
+            if (enemy.getHealth() <= 0) {
+                enemy.setDestroyed(true);
+                enemyTanksDestroyed++;
+
+                // 尝试生成增益效果
+                trySpawnPowerUpOnTankDestroyed(enemy.getX(), enemy.getY());
+            }
+        }
+
+        // 清除炸弹
+        activeBomb = null;
+
+        // 这里可以添加爆炸动画或音效
+    }
+
+    // 获取当前增益效果列表
+    public List<PowerUp> getPowerUps() {
+        return powerUps;
+    }
+
+    public void updatePlayerTank() {
+        // 如果坦克已死亡，但未通知视图
+        if (playerTank != null && playerTank.isDead() && listener != null) {
+            listener.onPlayerDestroyed();
+        }
+    }
+
+    /**
+     * 玩家开火，发射子弹
+     * @return 是否成功发射子弹
+     */
+    public boolean playerFireBullet() {
+        try {
+            // 确保玩家坦克存在且未死亡
+            if (playerTank == null || playerTank.isDead()) {
+                return false;
+            }
+            
+            // 防抖动：限制开火频率
+            long currentTime = clock.currentTimeMillis();
+            if (currentTime - lastPlayerFireTime < 200) { // 200ms冷却时间
+                return false;
+            }
+            
+            // 尝试发射子弹，成功时子弹直接写入子弹缓冲区
+            if (playerTank.fire(bullets) >= 0) {
+                lastPlayerFireTime = currentTime;
+                return true;
+            }
+            
+            return false;
+        } catch (Exception e) {
+            
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * 推进一个逻辑帧：先应用玩家输入，再更新所有系统
+     *
+     * @return 玩家本帧是否成功开火
+     */
+    public boolean step(double deltaTime, PlayerInput input) {
+        if (playerTank != null && playerTank.isDead()) {
+            return false; // 玩家已死亡，等待外部处理复活
+        }
+        boolean fired = applyPlayerInput(input);
+        updateSystems(deltaTime);
+        return fired;
+    }
+
+    /**
+     * 应用玩家输入：设置方向、移动坦克，并在需要时开火
+     *
+     * @return 是否成功开火
+     */
+    public boolean applyPlayerInput(PlayerInput input) {
+        long start = profiler.start();
+        boolean fired = movePlayerTank(input);
+        profiler.record(TickStage.INPUT, start);
+        return fired;
+    }
+
+    private boolean movePlayerTank(PlayerInput input) {
+        if (playerTank == null || playerTank.isDead() || input == null) {
+            return false;
+        }
+
+        boolean anyKeyPressed = true;
+        if (input.isUp()) {
+            playerTank.setDirection(Tank.Direction.UP);
+        } else if (input.isDown()) {
+            playerTank.setDirection(Tank.Direction.DOWN);
+        } else if (input.isLeft()) {
+            playerTank.setDirection(Tank.Direction.LEFT);
+        } else if (input.isRight()) {
+            playerTank.setDirection(Tank.Direction.RIGHT);
+        } else {
+            anyKeyPressed = false;
+        }
+
+        // 设置是否加速，并执行移动（无论是否按键都要调用，以处理减速）
+        playerTank.setAccelerating(anyKeyPressed);
+        playerTank.move(this);
+
+        return input.isFire() && playerFireBullet();
+    }
+
+    /**
+     * 按固定顺序执行玩家输入之外的各阶段：
+     * AI决策 → 寻路 → 移动与卡住修复 → 子弹推进 → 碰撞处理 → 移除与生成 → 效果与事件，
+     * 每个阶段每帧只执行一次，并记录各自的耗时
+     */
+    public void updateSystems(double deltaTime) {
+        tickInProgress = true;
+
+        // 敌方AI决策（寻路、追踪、开火）
+        long start = profiler.start();
+        runEnemyAI();
+        profiler.record(TickStage.AI_DECIDE, start);
+
+        // 在预算内处理寻路请求
+        start = profiler.start();
+        servePathRequests();
+        profiler.record(TickStage.PATHFINDING, start);
+
+        // 修复卡住的敌方坦克
+        start = profiler.start();
+        resolveStuckTanks();
+        profiler.record(TickStage.MOVEMENT, start);
+
+        // 子弹推进（唯一的积分阶段，包含与地形的命中）
+        start = profiler.start();
+        updateBullets(deltaTime);
+        profiler.record(TickStage.PROJECTILES, start);
+
+        // 子弹与坦克的命中判定（不再移动子弹）、敌方坦克与玩家坦克碰撞
+        start = profiler.start();
+        resolveBulletHits();
+        checkEnemyPlayerCollisions();
+        profiler.record(TickStage.COLLISIONS, start);
+
+        // 移除被摧毁的坦克，生成新坦克和增益效果
+        start = profiler.start();
+        despawnDestroyedTanks();
+        updateEnemySpawning();
+        updatePowerUps(deltaTime);
+        profiler.record(TickStage.SPAWN, start);
+
+        // 更新增益效果计时和闪烁状态，派发本帧积累的事件
+        start = profiler.start();
+        if (playerTank != null) {
+            playerTank.updateEffects(deltaTime);
+        }
+        for (PowerUp powerUp : powerUps) {
+            if (powerUp.shouldBlink() && random.nextDouble() < 0.1) { // 每帧10%概率切换闪烁状态
+                powerUp.toggleBlinking();
+            }
+        }
+        tickInProgress = false;
+        dispatchPendingEvents();
+        profiler.record(TickStage.EVENTS, start);
+        profiler.endTick();
+
+        // 本帧结束，推进模拟时钟
+        clock.advance(deltaTime);
+    }
+
+    /**
+     * 获取各阶段耗时统计
+     */
+    public TickProfiler getProfiler() {
+        return profiler;
+    }
+
+    // 帧处理过程中产生的事件先记录下来，在事件阶段统一派发；帧外产生的事件立即派发
+    private void notifyPlayerHealthChanged() {
+        if (tickInProgress) {
+            pendingHealthChanged = true;
+        } else if (listener != null) {
+            listener.onPlayerHealthChanged();
+        }
+    }
+
+    private void notifyPlayerDestroyed() {
+        if (tickInProgress) {
+            pendingPlayerDestroyed = true;
+        } else if (listener != null) {
+            listener.onPlayerDestroyed();
+        }
+    }
+
+    private void notifyLevelCompleted() {
+        if (tickInProgress) {
+            pendingLevelCompleted = true;
+        } else if (listener != null) {
+            listener.onLevelCompleted();
+        }
+    }
+
+    private void notifyTerrainChanged(int x, int y, int width, int height) {
+        if (tickInProgress) {
+            pendingTerrainChanges.add(new int[]{x, y, width, height});
+        } else if (listener != null) {
+            listener.onTerrainChanged(x, y, width, height);
+        }
+    }
+
+    private void dispatchPendingEvents() {
+        if (listener != null) {
+            for (int[] rect : pendingTerrainChanges) {
+                listener.onTerrainChanged(rect[0], rect[1], rect[2], rect[3]);
+            }
+            if (pendingHealthChanged) {
+                listener.onPlayerHealthChanged();
+            }
+            if (pendingPlayerDestroyed) {
+                listener.onPlayerDestroyed();
+            }
+            if (pendingLevelCompleted) {
+                listener.onLevelCompleted();
+            }
+        }
+        pendingTerrainChanges.clear();
+        pendingHealthChanged = false;
+        pendingPlayerDestroyed = false;
+        pendingLevelCompleted = false;
+    }
+
+    /**
+     * 将世界状态写入存档数据（界面相关的字段由调用方填写）
+     */
+    public void writeTo(GameSaveData saveData) {
+        saveData.setCurrentLevel(currentLevel);
+        saveData.setPlayerTankType(playerTank.getTypeString());
+
+        // 保存玩家坦克状态
+        saveData.setPlayerTank(new GameSaveData.TankData(playerTank));
+
+        // 保存敌方坦克信息
+        for (Tank enemyTank : enemyTanks) {
+            saveData.getEnemyTanks().add(new GameSaveData.TankData(enemyTank));
+        }
+
+        // 保存子弹信息
+        for (int i = 0; i < bullets.size(); i++) {
+            saveData.getBullets().add(new GameSaveData.BulletData(bullets, i));
+        }
+
+        // 保存增益效果信息（创建时间使用模拟时间）
+        for (PowerUp powerUp : powerUps) {
+            GameSaveData.PowerUpData powerUpData = new GameSaveData.PowerUpData(powerUp);
+            powerUpData.setCreationTime(powerUp.getCreationTime());
+            saveData.getPowerUps().add(powerUpData);
+        }
+
+        // 保存模拟时间、随机数种子和随机数的当前状态
+        saveData.setSimulationTime(clock.currentTimeMillis());
+        saveData.setRandomSeed(seed);
+        saveData.setRandomState(random.getState());
+
+        // 保存战斗统计
+        saveData.setEnemyTanksDestroyed(enemyTanksDestroyed);
+        saveData.setTotalEnemyTanksToGenerate(totalEnemyTanksToGenerate);
+        saveData.setEnemyTanksGenerated(enemyTanksGenerated);
+    }
+
+    /**
+     * 从存档数据恢复世界状态
+     */
+    public void restoreFrom(GameSaveData saveData) {
+        // 清理当前游戏状态
+        enemyTanks.clear();
+        pathScheduler.clear();
+        reservations.clear();
+        concealment.clear();
+        bullets.clear();
+        powerUps.clear();
+
+        // 恢复模拟时钟和随机数序列；旧存档没有模拟时间，保留当前时钟并换算增益效果的创建时间
+        boolean hasSimulationTime = saveData.getSimulationTime() > 0;
+        if (hasSimulationTime) {
+            if (saveData.getRandomState() != null) {
+                // 从存档时的状态继续原来的随机序列
+                seed = saveData.getRandomSeed();
+                random = SimulationRandom.fromState(saveData.getRandomState());
+            } else {
+                // 没有随机数状态的旧存档无法接上原序列，由种子和模拟时间派生新的序列
+                setSeed(saveData.getRandomSeed() ^ saveData.getSimulationTime());
+            }
+            clock.reset(saveData.getSimulationTime());
+        }
+
+        // 加载地图（确保当前关卡地图已经加载）
+        currentLevel = saveData.getCurrentLevel();
+        this.levelMap = MapLoader.loadLevel(currentLevel);
+        initializeSpatialIndex();
+
+        // 重新配置敌方坦克参数
+        configureEnemyTanksForLevel(currentLevel);
+
+        // 加载玩家坦克
+        GameSaveData.TankData playerTankData = saveData.getPlayerTank();
+        Tank.TankType playerType = Tank.TankType.fromString(playerTankData.getType());
+        playerTank = new Tank(playerType, playerTankData.getX(), playerTankData.getY());
+        attachTank(playerTank, playerTankData.getRandomState());
+        playerTank.setDirection(Tank.Direction.fromValue(playerTankData.getDirection()));
+        playerTank.setHealth(playerTankData.getHealth());
+
+        // 加载玩家坦克的激活效果
+        for (Map.Entry<String, Double> effect : playerTankData.getActiveEffects().entrySet()) {
+            for (Tank.PowerUpType powerUpType : Tank.PowerUpType.values()) {
+                if (powerUpType.getName().equals(effect.getKey())) {
+                    // 以剩余时间设置效果
+                    playerTank.applyPowerUp(powerUpType, effect.getValue());
+                }
+            }
+        }
+
+        // 加载敌方坦克
+        for (GameSaveData.TankData tankData : saveData.getEnemyTanks()) {
+            Tank.TankType enemyType = Tank.TankType.fromString(tankData.getType());
+            Tank enemyTank = new Tank(enemyType, tankData.getX(), tankData.getY());
+            attachTank(enemyTank, tankData.getRandomState());
+            enemyTank.setDirection(Tank.Direction.fromValue(tankData.getDirection()));
+            enemyTank.setHealth(tankData.getHealth());
+            enemyTank.setAIBehavior(Tank.AIBehavior.fromString(tankData.getBehavior()));
+            addEnemyTank(enemyTank);
+        }
+
+        // 加载子弹
+        for (GameSaveData.BulletData bulletData : saveData.getBullets()) {
+            bullets.add(
+                    bulletData.getX(),
+                    bulletData.getY(),
+                    Tank.Direction.fromValue(bulletData.getDirection()),
+                    bulletData.getBulletType(),
+                    bulletData.getSpeed(),
+                    bulletData.getDamage(),
+                    bulletData.isFromPlayer()
+            );
+        }
+
+        // 加载增益效果
+        for (GameSaveData.PowerUpData powerUpData : saveData.getPowerUps()) {
+            for (Tank.PowerUpType type : Tank.PowerUpType.values()) {
+                if (type.getName().equals(powerUpData.getType())) {
+                    PowerUp powerUp = new PowerUp(
+                            powerUpData.getX(),
+                            powerUpData.getY(),
+                            type,
+                            clock
+                    );
+                    // 设置创建时间以保持剩余生命周期一致
+                    long creationTime = powerUpData.getCreationTime();
+                    if (!hasSimulationTime) {
+                        creationTime = clock.currentTimeMillis() - Math.max(0, System.currentTimeMillis() - creationTime);
+                    }
+                    powerUp.setCreationTime(creationTime);
+                    powerUps.add(powerUp);
+                    break;
+                }
+            }
+        }
+
+        // 加载战斗统计
+        enemyTanksDestroyed = saveData.getEnemyTanksDestroyed();
+        totalEnemyTanksToGenerate = saveData.getTotalEnemyTanksToGenerate();
+        enemyTanksGenerated = saveData.getEnemyTanksGenerated();
+
+        // 重新初始化网格数据 - 确保网格数据正确
+        initializeGrid();
+
+        // 重置所有敌方坦克的AI状态
+        for (Tank enemyTank : enemyTanks) {
+            if (!enemyTank.isFriendly()) {
+                // 重置AI状态
+                enemyTank.resetAIState();
+
+                // 确保坦克不在障碍物中
+                String collision = checkCollision(enemyTank.getX(), enemyTank.getY(),
+                        enemyTank.getWidth(), enemyTank.getHeight());
+                if (collision != null && !collision.equals("water")) {
+                    // 如果坦克在障碍物中，移动到有效位置
+                    LevelMap.MapPosition validPos = findValidSpawnPosition();
+                    if (validPos != null) {
+                        enemyTank.setX(validPos.getX());
+                        enemyTank.setY(validPos.getY());
+                    }
+                }
+            }
+        }
+
+        // 强制更新一次敌方坦克，使其立即开始移动
+        for (Tank enemyTank : enemyTanks) {
+            if (!enemyTank.isFriendly() && !enemyTank.isDestroyed()) {
+                // 确保状态正确
+                enemyTank.setAccelerating(true);
+                enemyTank.move(this); // 强制移动一次
+            }
+        }
+    }
+
+    public List<Tank> getEnemyTanks() {
+        return enemyTanks;
+    }
+
+    /**
+     * 获取子弹缓冲区（渲染和存档按下标读取）
+     */
+    public BulletBuffer getBulletBuffer() {
+        return bullets;
+    }
+
+    public Bomb getActiveBomb() {
+        return activeBomb;
+    }
+}
@@ -0,0 +1,32 @@
+package com.nau_yyf.simulation;
+
+/**
+ * 游戏世界事件监听器
+ * 模拟过程中需要界面响应的事件通过此接口通知，无界面运行时可以不设置
+ */
+public interface GameWorldListener {
+
+    /**
+     * 玩家坦克生命值变化（受伤或拾取生命增益）
+     */
+    default void onPlayerHealthChanged() {
+    }
+
+    /**
+     * 玩家坦克被摧毁
+     */
+    default void onPlayerDestroyed() {
+    }
+
+    /**
+     * 当前关卡完成
+     */
+    default void onLevelCompleted() {
+    }
+
+    /**
+     * 地形区域发生变化（例如砖块被击毁），渲染层可据此局部重绘
+     */
+    default void onTerrainChanged(int x, int y, int width, int height) {
+    }
+}
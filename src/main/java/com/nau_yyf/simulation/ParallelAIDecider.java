@@ -0,0 +1,91 @@
+package com.nau_yyf.simulation;
+
+import com.nau_yyf.model.Tank;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 敌方AI并行决策
+ * 决策阶段所有坦克只读取同一份世界快照，只写自己的状态和意图，可以在ForkJoin公共池中并行执行；
+ * 意图数组在各帧之间复用，应用阶段由游戏世界按坦克顺序串行执行
+ */
+public class ParallelAIDecider {
+    // 坦克数量达到该值时才并行决策，数量较少时任务调度的开销大于收益
+    private static final int PARALLEL_THRESHOLD = 8;
+    // 每个子任务至少处理的坦克数量
+    private static final int MIN_CHUNK = 4;
+
+    private AIIntent[] intents = new AIIntent[0];
+
+    /**
+     * 为列表中的每辆坦克计算本帧的AI意图
+     */
+    public void decide(List<Tank> tanks, AISnapshot snapshot) {
+        int count = tanks.size();
+        ensureCapacity(count);
+
+        if (count < PARALLEL_THRESHOLD || ForkJoinPool.getCommonPoolParallelism() <= 1) {
+            decideRange(tanks, snapshot, 0, count);
+        } else {
+            ForkJoinPool.commonPool().invoke(new DecideTask(tanks, snapshot, 0, count));
+        }
+    }
+
+    /**
+     * 获取指定坦克本帧的意图（下标与决策时的坦克列表一致）
+     */
+    public AIIntent getIntent(int index) {
+        return intents[index];
+    }
+
+    private void decideRange(List<Tank> tanks, AISnapshot snapshot, int from, int to) {
+        for (int i = from; i < to; i++) {
+            Tank tank = tanks.get(i);
+            if (tank.isDestroyed()) {
+                intents[i].reset();
+            } else {
+                tank.decideAI(snapshot, intents[i]);
+            }
+        }
+    }
+
+    private void ensureCapacity(int count) {
+        if (intents.length >= count) {
+            return;
+        }
+        AIIntent[] grown = new AIIntent[Math.max(count, intents.length * 2)];
+        System.arraycopy(intents, 0, grown, 0, intents.length);
+        for (int i = intents.length; i < grown.length; i++) {
+            grown[i] = new AIIntent();
+        }
+        intents = grown;
+    }
+
+    // 按下标区间二分的决策任务
+    private class DecideTask extends RecursiveAction {
+        private final List<Tank> tanks;
+        private final AISnapshot snapshot;
+        private final int from;
+        private final int to;
+
+        DecideTask(List<Tank> tanks, AISnapshot snapshot, int from, int to) {
+            this.tanks = tanks;
+            this.snapshot = snapshot;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= MIN_CHUNK) {
+                decideRange(tanks, snapshot, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new DecideTask(tanks, snapshot, from, mid),
+                    new DecideTask(tanks, snapshot, mid, to));
+        }
+    }
+}
@@ -0,0 +1,530 @@
+package com.nau_yyf.simulation;
+
+import com.nau_yyf.model.Tank;
+import com.nau_yyf.util.AStarPathfinder;
+import com.nau_yyf.util.DStarLitePlanner;
+import com.nau_yyf.util.HierarchicalPathfinder;
+import com.nau_yyf.util.LandmarkHeuristic;
+import com.nau_yyf.util.PathAlgorithm;
+import com.nau_yyf.util.PathCache;
+import com.nau_yyf.util.WalkabilityGrid;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * 寻路请求调度器（按帧分配寻路预算）
+ * 只在GameWorld.PathMode.PATHFINDING下使用；默认的FLOW_FIELD模式下追踪玩家的坦克共用流场，不提交请求（原因见PathMode）。
+ * 坦克需要重新寻路时只提交请求，调度器每帧按优先级处理请求，展开的节点数达到预算后
+ * 剩余请求留到后续帧；等待期间坦克继续沿旧路径移动，多辆坦克同时需要重新寻路时帧耗时保持平稳。
+ * 设置线程池后改为异步模式：请求基于网格的只读副本在后台线程搜索，结果在之后的帧交还坦克，
+ * 若期间网格版本已变化则丢弃结果，由坦克重新提交请求。
+ * 搜索前先查询路径缓存，从同一出生点出发的坦克通常可以直接复用已有路径。
+ * 默认使用跳点搜索；大地图使用分层寻路，异步模式下后台线程查询区块图当前网格版本的只读副本。
+ * 显式选择增量寻路时每辆坦克保留自己的D* Lite搜索树，搜索树随网格原地修复，只能在模拟线程中访问，
+ * 因此这种情况总是同步处理。
+ * 设置协作规划器后，路径交还坦克前先按预约表调整前几步，避开先处理的坦克（缓存中保存的仍是原路径）。
+ * A*、跳点搜索和分层寻路的抽象图搜索都使用当前网格的地标距离表作为启发式：距离表在加载关卡时准备好
+ * （没有随地图保存的距离表时，异步模式在后台计算，完成前使用曼哈顿距离），砖块被打掉后只增量修正
+ */
+public class PathRequestScheduler {
+    // 默认每帧允许展开的A*节点数
+    public static final int DEFAULT_NODE_BUDGET = 1000;
+    // 默认寻路算法：地图是统一代价的四方向网格，使用跳点搜索（可在同步和异步模式下使用）
+    public static final PathAlgorithm DEFAULT_ALGORITHM = PathAlgorithm.JPS;
+
+    /**
+     * 一辆坦克的寻路请求，排队期间再次提交时只更新起点和目标
+     */
+    private static final class Request {
+        final Tank tank;
+        final boolean urgent; // 没有可用路径的坦克优先处理
+        final long sequence;  // 提交顺序，同优先级先到先处理
+        int startX, startY, targetX, targetY;
+
+        Request(Tank tank, boolean urgent, long sequence) {
+            this.tank = tank;
+            this.urgent = urgent;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * 已交给后台线程、尚未交还结果的请求
+     */
+    private static final class InFlight {
+        final Tank tank;
+        final WalkabilityGrid grid;
+        final int gridVersion;
+        final CompletableFuture<int[]> result;
+        final int startX, startY, targetX, targetY;
+
+        InFlight(Tank tank, WalkabilityGrid grid, int gridVersion, CompletableFuture<int[]> result,
+                 Request request) {
+            this.tank = tank;
+            this.startX = request.startX;
+            this.startY = request.startY;
+            this.targetX = request.targetX;
+            this.targetY = request.targetY;
+            this.grid = grid;
+            this.gridVersion = gridVersion;
+            this.result = result;
+        }
+    }
+
+    private static final Comparator<Request> ORDER = (a, b) -> {
+        if (a.urgent != b.urgent) {
+            return a.urgent ? -1 : 1;
+        }
+        return Long.compare(a.sequence, b.sequence);
+    };
+
+    private final PriorityQueue<Request> queue = new PriorityQueue<>(ORDER);
+    private final Map<Tank, Request> pending = new IdentityHashMap<>();
+    private final List<InFlight> inFlight = new ArrayList<>();
+    private final Map<Tank, InFlight> inFlightByTank = new IdentityHashMap<>();
+    private final PathCache cache = new PathCache();
+    private int nodeBudget = DEFAULT_NODE_BUDGET;
+    // 寻路算法，其他算法需要通过setAlgorithm显式选择
+    private PathAlgorithm algorithm = DEFAULT_ALGORITHM;
+    // 当前网格的分层寻路区块图，首次在大地图上寻路时创建
+    private HierarchicalPathfinder hierarchy;
+    // 每辆坦克的增量寻路器（选择D* Lite时使用）
+    private final Map<Tank, DStarLitePlanner> planners = new IdentityHashMap<>();
+    private long nextSequence = 0;
+    // 协作规划器，为null时直接交还寻路结果
+    private CooperativePlanner cooperative;
+    // 地标距离表及其对应的网格；网格上被打通的格子先记录下来，下次使用距离表前增量修正
+    private LandmarkHeuristic landmarks;
+    private WalkabilityGrid landmarkGrid;
+    private CompletableFuture<LandmarkHeuristic> landmarkBuild;
+    private final BitSet openedCells = new BitSet();
+    private final WalkabilityGrid.ChangeListener landmarkListener = (cellX, cellY, blocked) -> {
+        if (!blocked) {
+            openedCells.set(cellY * landmarkGrid.getCols() + cellX);
+        }
+    };
+    private boolean landmarksEnabled = true;
+
+    // 异步模式使用的线程池，为null时在调用线程中同步搜索
+    private Executor executor;
+    // 异步模式下同时在后台搜索的最大请求数
+    private int maxInFlight = 4;
+
+    // 统计数据
+    private int lastServed;
+    private int lastExpanded;
+    private int lastDiscarded;
+    private long totalServed;
+
+    /**
+     * 提交寻路请求，坦克已有排队中的请求时只更新起点和目标
+     *
+     * @param urgent 坦克当前没有可用路径
+     */
+    public void submit(Tank tank, int startX, int startY, int targetX, int targetY, boolean urgent) {
+        if (inFlightByTank.containsKey(tank)) {
+            return; // 正在后台搜索，等待结果
+        }
+        Request request = pending.get(tank);
+        if (request == null) {
+            request = new Request(tank, urgent, nextSequence++);
+            pending.put(tank, request);
+            queue.add(request);
+        }
+        request.startX = startX;
+        request.startY = startY;
+        request.targetX = targetX;
+        request.targetY = targetY;
+    }
+
+    /**
+     * 处理本帧的寻路请求
+     * 同步模式下按优先级搜索，直到展开的节点数达到预算（每帧至少处理一个请求，避免饿死）；
+     * 异步模式下先交还已完成的结果，再把排队的请求交给后台线程，不在调用线程中搜索
+     *
+     * @return 本帧交还给坦克的路径数
+     */
+    public int serve(WalkabilityGrid grid, long currentTime) {
+        lastServed = 0;
+        lastExpanded = 0;
+        lastDiscarded = 0;
+        if (grid == null) {
+            return 0;
+        }
+
+        if (executor != null) {
+            deliverCompleted(grid, currentTime);
+            // 显式选择的D* Lite搜索树只能在模拟线程中访问（大地图仍使用分层寻路）
+            if (algorithm == PathAlgorithm.DSTAR_LITE && !usesHierarchy(grid)) {
+                serveSync(grid, currentTime);
+            } else {
+                dispatchAsync(grid, currentTime);
+            }
+        } else {
+            serveSync(grid, currentTime);
+        }
+        totalServed += lastServed;
+        return lastServed;
+    }
+
+    private void serveSync(WalkabilityGrid grid, long currentTime) {
+        boolean[][] cells = grid.asArray();
+        int version = grid.getVersion();
+        HierarchicalPathfinder hpa = usesHierarchy(grid) ? hierarchyFor(grid) : null;
+        LandmarkHeuristic heuristic = landmarksFor(grid);
+        while (!queue.isEmpty() && (lastServed == 0 || lastExpanded < nodeBudget)) {
+            Request request = poll();
+            if (request.tank.isDestroyed() || serveFromCache(request, cells, version, currentTime)) {
+                continue;
+            }
+
+            int[] path;
+            if (hpa != null) {
+                path = hpa.findPathPacked(request.startX, request.startY, request.targetX, request.targetY, heuristic);
+                lastExpanded += hpa.getLastExpandedNodeCount();
+            } else if (algorithm == PathAlgorithm.DSTAR_LITE) {
+                DStarLitePlanner planner = plannerFor(request.tank, grid);
+                path = planner.findPathPacked(request.startX, request.startY, request.targetX, request.targetY);
+                lastExpanded += planner.getLastExpandedNodeCount();
+            } else {
+                path = algorithm.findPathPacked(cells,
+                        request.startX, request.startY, request.targetX, request.targetY, heuristic);
+                lastExpanded += algorithm.getLastExpandedNodeCount();
+            }
+            lastServed++;
+            cache.put(request.startX, request.startY, request.targetX, request.targetY, path, version);
+            deliver(request.tank, cells, path, 0, goalCell(request.targetX, request.targetY), currentTime);
+        }
+    }
+
+    // 缓存命中时直接交还路径（不计入节点预算）
+    private boolean serveFromCache(Request request, boolean[][] cells, int version, long currentTime) {
+        PathCache.Result cached = cache.get(request.startX, request.startY,
+                request.targetX, request.targetY, version);
+        if (cached == null) {
+            return false;
+        }
+        lastServed++;
+        deliver(request.tank, cells, cached.getPath(), cached.getOffset(),
+                goalCell(request.targetX, request.targetY), currentTime);
+        return true;
+    }
+
+    // 按提交顺序交还已完成的结果，网格已更换或版本已变化的结果直接丢弃
+    private void deliverCompleted(WalkabilityGrid grid, long currentTime) {
+        int kept = 0;
+        for (int i = 0; i < inFlight.size(); i++) {
+            InFlight entry = inFlight.get(i);
+            if (!entry.result.isDone()) {
+                inFlight.set(kept++, entry);
+                continue;
+            }
+            inFlightByTank.remove(entry.tank);
+
+            int[] path = entry.result.isCompletedExceptionally() ? null : entry.result.join();
+            if (path == null || entry.grid != grid || entry.gridVersion != grid.getVersion()
+                    || entry.tank.isDestroyed()) {
+                lastDiscarded++;
+            } else {
+                lastServed++;
+                cache.put(entry.startX, entry.startY, entry.targetX, entry.targetY, path, entry.gridVersion);
+                deliver(entry.tank, grid.asArray(), path, 0, goalCell(entry.targetX, entry.targetY), currentTime);
+            }
+        }
+        inFlight.subList(kept, inFlight.size()).clear();
+    }
+
+    // 把排队的请求交给后台线程，搜索使用当前版本网格（大地图为区块图）的只读副本
+    private void dispatchAsync(WalkabilityGrid grid, long currentTime) {
+        if (queue.isEmpty() || inFlight.size() >= maxInFlight) {
+            return;
+        }
+        boolean[][] cells = grid.snapshot();
+        int version = grid.getVersion();
+        HierarchicalPathfinder hpa = usesHierarchy(grid) ? hierarchyFor(grid).snapshot() : null;
+        LandmarkHeuristic heuristic = landmarksFor(grid); // 修正时创建新实例，可与后台线程共享
+
+        while (!queue.isEmpty() && inFlight.size() < maxInFlight) {
+            Request request = poll();
+            if (request.tank.isDestroyed() || serveFromCache(request, cells, version, currentTime)) {
+                continue;
+            }
+
+            int startX = request.startX;
+            int startY = request.startY;
+            int targetX = request.targetX;
+            int targetY = request.targetY;
+            PathAlgorithm searchAlgorithm = algorithm;
+            CompletableFuture<int[]> result = CompletableFuture.supplyAsync(
+                    () -> hpa != null ? hpa.findPathPacked(startX, startY, targetX, targetY, heuristic)
+                            : searchAlgorithm.findPathPacked(cells, startX, startY, targetX, targetY, heuristic),
+                    executor);
+
+            InFlight entry = new InFlight(request.tank, grid, version, result, request);
+            inFlight.add(entry);
+            inFlightByTank.put(request.tank, entry);
+        }
+    }
+
+    // 把路径交还坦克，启用协作寻路时先按预约表调整路径前几步并预约
+    private void deliver(Tank tank, boolean[][] cells, int[] path, int offset, int goalCell, long currentTime) {
+        if (cooperative != null && path.length > offset) {
+            int[] planned = cooperative.plan(tank, cells, path, offset, currentTime);
+            if (planned != path) {
+                path = planned;
+                offset = 0;
+            }
+        }
+        tank.setComputedPath(path, offset, goalCell, currentTime);
+    }
+
+    /**
+     * 是否使用分层寻路：显式选择，或地图格子数达到大地图阈值
+     */
+    private boolean usesHierarchy(WalkabilityGrid grid) {
+        return algorithm == PathAlgorithm.HPA
+                || grid.getCols() * grid.getRows() >= HierarchicalPathfinder.LARGE_MAP_CELLS;
+    }
+
+    // 获取当前网格的地标距离表：后台计算尚未完成时返回null（使用曼哈顿距离），
+    // 有格子被打通时增量修正（格子被阻挡时估计值仍是下界，无需修正）
+    private LandmarkHeuristic landmarksFor(WalkabilityGrid grid) {
+        if (!landmarksEnabled) {
+            return null;
+        }
+        if (landmarkGrid != grid) {
+            trackLandmarks(grid, null);
+        }
+        if (landmarkBuild != null) {
+            if (!landmarkBuild.isDone()) {
+                return null;
+            }
+            landmarks = landmarkBuild.isCompletedExceptionally() ? null : landmarkBuild.join();
+            landmarkBuild = null;
+        }
+        if (landmarks != null && !openedCells.isEmpty()) {
+            landmarks = landmarks.repair(grid.asArray(), openedCells.stream().toArray());
+            openedCells.clear();
+        }
+        return landmarks;
+    }
+
+    // 开始跟踪网格的变化；没有可用的距离表时重新计算（异步模式下交给后台线程，基于当前网格的只读副本）
+    private void trackLandmarks(WalkabilityGrid grid, LandmarkHeuristic precomputed) {
+        if (landmarkGrid != null) {
+            landmarkGrid.removeListener(landmarkListener);
+        }
+        landmarkGrid = grid;
+        openedCells.clear();
+        grid.addListener(landmarkListener);
+        landmarks = precomputed;
+        landmarkBuild = null;
+        if (precomputed == null) {
+            boolean[][] cells = grid.snapshot();
+            if (executor != null) {
+                landmarkBuild = CompletableFuture.supplyAsync(
+                        () -> LandmarkHeuristic.build(cells, LandmarkHeuristic.DEFAULT_LANDMARK_COUNT), executor);
+            } else {
+                landmarks = LandmarkHeuristic.build(cells, LandmarkHeuristic.DEFAULT_LANDMARK_COUNT);
+            }
+        }
+    }
+
+    /**
+     * 为新网格准备地标距离表（加载关卡时调用）：使用预先计算的距离表（例如随地图文件保存的），
+     * 为null或与网格当前内容不一致时重新计算
+     */
+    public void setLandmarks(LandmarkHeuristic landmarks, WalkabilityGrid grid) {
+        if (grid == null) {
+            return;
+        }
+        boolean usable = landmarks != null && landmarks.matches(grid.asArray());
+        if (usable || landmarksEnabled) {
+            trackLandmarks(grid, usable ? landmarks : null);
+        }
+    }
+
+    public boolean isLandmarksEnabled() {
+        return landmarksEnabled;
+    }
+
+    /**
+     * 启用或关闭地标启发式（关闭时使用曼哈顿距离，便于比较展开的节点数）
+     */
+    public void setLandmarksEnabled(boolean landmarksEnabled) {
+        this.landmarksEnabled = landmarksEnabled;
+    }
+
+    // 获取当前网格的区块图，网格更换时重新创建
+    private HierarchicalPathfinder hierarchyFor(WalkabilityGrid grid) {
+        if (hierarchy == null || hierarchy.getWalkabilityGrid() != grid) {
+            if (hierarchy != null) {
+                hierarchy.detach();
+            }
+            hierarchy = new HierarchicalPathfinder(grid);
+        }
+        return hierarchy;
+    }
+
+    // 获取坦克的增量寻路器，网格更换时重新创建
+    private DStarLitePlanner plannerFor(Tank tank, WalkabilityGrid grid) {
+        DStarLitePlanner planner = planners.get(tank);
+        if (planner == null || planner.getWalkabilityGrid() != grid) {
+            if (planner != null) {
+                planner.detach();
+            }
+            planner = new DStarLitePlanner(grid);
+            planners.put(tank, planner);
+        }
+        return planner;
+    }
+
+    private void releasePlanners() {
+        for (DStarLitePlanner planner : planners.values()) {
+            planner.detach();
+        }
+        planners.clear();
+    }
+
+    private static int goalCell(int targetX, int targetY) {
+        return AStarPathfinder.packCell(targetX, targetY);
+    }
+
+    private Request poll() {
+        Request request = queue.poll();
+        pending.remove(request.tank);
+        return request;
+    }
+
+    /**
+     * 取消坦克的请求（坦克被移除时调用）
+     */
+    public void cancel(Tank tank) {
+        Request request = pending.remove(tank);
+        if (request != null) {
+            queue.remove(request);
+        }
+        InFlight entry = inFlightByTank.remove(tank);
+        if (entry != null) {
+            inFlight.remove(entry); // 结果不再需要，后台搜索完成后直接丢弃
+        }
+        DStarLitePlanner planner = planners.remove(tank);
+        if (planner != null) {
+            planner.detach();
+        }
+    }
+
+    public void clear() {
+        releasePlanners();
+        if (landmarkGrid != null) {
+            landmarkGrid.removeListener(landmarkListener);
+        }
+        landmarks = null;
+        landmarkGrid = null;
+        landmarkBuild = null;
+        openedCells.clear();
+        cache.clear();
+        queue.clear();
+        pending.clear();
+        inFlight.clear();
+        inFlightByTank.clear();
+    }
+
+    /**
+     * 设置后台寻路线程池，为null时恢复同步模式（同步模式下相同种子的对局结果确定）
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    public PathAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * 切换寻路算法（各算法的完整路径长度相同，缓存无需失效）；
+     * 大地图无论选择哪种算法都使用分层寻路（异步模式下同样交给后台线程）。D* Lite需要显式选择：
+     * 每辆坦克的搜索树随网格原地修复，不能交给后台线程，异步模式下这类请求仍在模拟线程中按节点预算同步处理
+     *
+     * @param algorithm 为null时恢复默认算法
+     */
+    public void setAlgorithm(PathAlgorithm algorithm) {
+        this.algorithm = algorithm != null ? algorithm : DEFAULT_ALGORITHM;
+        if (algorithm != PathAlgorithm.DSTAR_LITE) {
+            releasePlanners();
+        }
+    }
+
+    /**
+     * 设置协作规划器，为null时不考虑其他坦克的预约
+     */
+    public void setCooperativePlanner(CooperativePlanner cooperative) {
+        this.cooperative = cooperative;
+    }
+
+    public CooperativePlanner getCooperativePlanner() {
+        return cooperative;
+    }
+
+    public boolean isAsync() {
+        return executor != null;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = Math.max(1, maxInFlight);
+    }
+
+    /**
+     * 获取路径缓存（可查看命中率和淘汰次数）
+     */
+    public PathCache getPathCache() {
+        return cache;
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    public int getNodeBudget() {
+        return nodeBudget;
+    }
+
+    public void setNodeBudget(int nodeBudget) {
+        this.nodeBudget = Math.max(1, nodeBudget);
+    }
+
+    public int getLastServed() {
+        return lastServed;
+    }
+
+    public int getLastExpanded() {
+        return lastExpanded;
+    }
+
+    /**
+     * 上一帧因网格版本变化等原因丢弃的后台结果数
+     */
+    public int getLastDiscarded() {
+        return lastDiscarded;
+    }
+
+    public long getTotalServed() {
+        return totalServed;
+    }
+}
@@ -0,0 +1,50 @@
+package com.nau_yyf.simulation;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 后台寻路线程池（全局共享）
+ * 使用少量固定的守护线程，A*搜索上下文按线程复用；线程数不超过CPU核数减一，为界面线程留出余量
+ */
+public final class PathfindingWorkerPool {
+    private static volatile ExecutorService executor;
+
+    private PathfindingWorkerPool() {
+    }
+
+    /**
+     * 获取共享线程池，首次调用时创建
+     */
+    public static ExecutorService shared() {
+        ExecutorService pool = executor;
+        if (pool == null) {
+            synchronized (PathfindingWorkerPool.class) {
+                pool = executor;
+                if (pool == null) {
+                    pool = Executors.newFixedThreadPool(getWorkerCount(), daemonThreadFactory());
+                    executor = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * 线程池中的线程数
+     */
+    public static int getWorkerCount() {
+        return Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    private static ThreadFactory daemonThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "pathfinding-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true); // 不阻止程序退出
+            return thread;
+        };
+    }
+}
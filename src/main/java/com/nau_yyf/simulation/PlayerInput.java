@@ -0,0 +1,75 @@
+package com.nau_yyf.simulation;
+
+/**
+ * 一个逻辑帧的玩家输入
+ * 与键盘等输入设备无关，便于回放或由脚本驱动模拟
+ */
+public class PlayerInput {
+    private boolean up;
+    private boolean down;
+    private boolean left;
+    private boolean right;
+    private boolean fire;
+
+    public PlayerInput() {
+    }
+
+    public PlayerInput(boolean up, boolean down, boolean left, boolean right, boolean fire) {
+        this.up = up;
+        this.down = down;
+        this.left = left;
+        this.right = right;
+        this.fire = fire;
+    }
+
+    /**
+     * 清空所有输入，便于复用同一个对象
+     */
+    public void clear() {
+        up = false;
+        down = false;
+        left = false;
+        right = false;
+        fire = false;
+    }
+
+    public boolean isUp() {
+        return up;
+    }
+
+    public void setUp(boolean up) {
+        this.up = up;
+    }
+
+    public boolean isDown() {
+        return down;
+    }
+
+    public void setDown(boolean down) {
+        this.down = down;
+    }
+
+    public boolean isLeft() {
+        return left;
+    }
+
+    public void setLeft(boolean left) {
+        this.left = left;
+    }
+
+    public boolean isRight() {
+        return right;
+    }
+
+    public void setRight(boolean right) {
+        this.right = right;
+    }
+
+    public boolean isFire() {
+        return fire;
+    }
+
+    public void setFire(boolean fire) {
+        this.fire = fire;
+    }
+}
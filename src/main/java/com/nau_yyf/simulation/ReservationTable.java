@@ -0,0 +1,115 @@
+package com.nau_yyf.simulation;
+
+import com.nau_yyf.model.Tank;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * 时空预约表
+ * 把模拟时间划分为固定长度的时间片，记录每个格子在每个时间片由哪辆坦克占用；
+ * 敌方坦克规划路径或选择下一步时避开其他坦克已预约的格子，而不是撞上之后再做卡住修复。
+ * 只在模拟线程中写入；AI决策阶段（可并行）只读取
+ */
+public class ReservationTable {
+    // 时间片长度（毫秒）
+    public static final int SLOT_MILLIS = 100;
+    // 估算移动速度时使用的逻辑帧间隔（毫秒），与游戏循环的固定步长一致
+    public static final double NOMINAL_TICK_MILLIS = 1000.0 / 60.0;
+
+    private final Map<Long, Tank> reservations = new HashMap<>();
+    // 每辆坦克当前持有的预约，重新预约时整体释放
+    private final Map<Tank, long[]> owned = new IdentityHashMap<>();
+    private final Map<Tank, Integer> ownedCount = new IdentityHashMap<>();
+
+    /**
+     * 估算坦克以最大速度穿过一个格子所需的时间（毫秒）
+     */
+    public static long millisPerCell(Tank tank) {
+        double speed = Math.max(0.5, tank.getMaxSpeed());
+        return (long) Math.ceil(Math.ceil(40 / speed) * NOMINAL_TICK_MILLIS);
+    }
+
+    /**
+     * 格子在[fromMillis, toMillis)期间是否没有被其他坦克预约
+     */
+    public boolean isFree(int cell, long fromMillis, long toMillis, Tank tank) {
+        for (long slot = slotOf(fromMillis), last = slotOf(toMillis - 1); slot <= last; slot++) {
+            Tank holder = reservations.get(key(cell, slot));
+            if (holder != null && holder != tank) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 预约格子在[fromMillis, toMillis)期间的使用权（已被其他坦克预约的时间片保持不变）
+     */
+    public void reserve(int cell, long fromMillis, long toMillis, Tank tank) {
+        for (long slot = slotOf(fromMillis), last = slotOf(toMillis - 1); slot <= last; slot++) {
+            long key = key(cell, slot);
+            if (reservations.putIfAbsent(key, tank) == null) {
+                remember(tank, key);
+            }
+        }
+    }
+
+    /**
+     * 释放坦克持有的所有预约
+     */
+    public void release(Tank tank) {
+        long[] keys = owned.get(tank);
+        if (keys == null) {
+            return;
+        }
+        int count = ownedCount.get(tank);
+        for (int i = 0; i < count; i++) {
+            reservations.remove(keys[i], tank);
+        }
+        ownedCount.put(tank, 0);
+    }
+
+    /**
+     * 坦克被移除时释放预约并丢弃记录
+     */
+    public void remove(Tank tank) {
+        release(tank);
+        owned.remove(tank);
+        ownedCount.remove(tank);
+    }
+
+    public void clear() {
+        reservations.clear();
+        owned.clear();
+        ownedCount.clear();
+    }
+
+    public int size() {
+        return reservations.size();
+    }
+
+    private void remember(Tank tank, long key) {
+        long[] keys = owned.get(tank);
+        int count = ownedCount.getOrDefault(tank, 0);
+        if (keys == null || count == keys.length) {
+            long[] grown = new long[keys == null ? 16 : keys.length * 2];
+            if (keys != null) {
+                System.arraycopy(keys, 0, grown, 0, count);
+            }
+            keys = grown;
+            owned.put(tank, keys);
+        }
+        keys[count] = key;
+        ownedCount.put(tank, count + 1);
+    }
+
+    private static long slotOf(long timeMillis) {
+        return Math.floorDiv(timeMillis, SLOT_MILLIS);
+    }
+
+    private static long key(int cell, long slot) {
+        return (slot << 32) | (cell & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,67 @@
+package com.nau_yyf.simulation;
+
+/**
+ * 模拟时钟
+ * 游戏逻辑中的计时（开火冷却、重生、增益效果生命周期等）都读取此时钟，
+ * 时钟只随逻辑帧推进，相同的种子和输入序列总能得到相同的结果
+ */
+public class SimulationClock {
+    // 模拟时间的起点（毫秒）。使用较大的起点，使初始值为0的时间戳被视为"很久以前"，
+    // 与使用系统时间时的行为一致（例如坦克开局即可开火）
+    public static final long EPOCH = 3_600_000L;
+
+    // 读取系统时间的时钟，供未接入模拟时钟的对象使用（例如双人模式）
+    private static final SimulationClock SYSTEM = new SimulationClock(true);
+
+    private final boolean systemTime;
+    private double elapsedMillis;
+
+    public SimulationClock() {
+        this(false);
+    }
+
+    private SimulationClock(boolean systemTime) {
+        this.systemTime = systemTime;
+        this.elapsedMillis = EPOCH;
+    }
+
+    /**
+     * 获取读取系统时间的时钟
+     */
+    public static SimulationClock system() {
+        return SYSTEM;
+    }
+
+    /**
+     * 当前模拟时间（毫秒）
+     */
+    public long currentTimeMillis() {
+        return systemTime ? System.currentTimeMillis() : (long) elapsedMillis;
+    }
+
+    /**
+     * 推进一个逻辑帧
+     *
+     * @param deltaTime 帧间隔（秒）
+     */
+    public void advance(double deltaTime) {
+        if (systemTime) {
+            throw new IllegalStateException("系统时钟不能手动推进");
+        }
+        elapsedMillis += deltaTime * 1000.0;
+    }
+
+    /**
+     * 将时钟设置到指定时间（用于新对局或读档）
+     */
+    public void reset(long timeMillis) {
+        if (systemTime) {
+            throw new IllegalStateException("系统时钟不能重置");
+        }
+        elapsedMillis = timeMillis;
+    }
+
+    public boolean isSystemTime() {
+        return systemTime;
+    }
+}
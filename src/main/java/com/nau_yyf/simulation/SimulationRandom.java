@@ -0,0 +1,53 @@
+package com.nau_yyf.simulation;
+
+import java.util.Random;
+
+/**
+ * 可保存状态的随机数生成器
+ * 与java.util.Random使用相同的线性同余算法，相同种子得到完全相同的序列；
+ * 额外记录48位内部状态，存档时保存、读档时恢复，恢复后的序列与存档时继续生成的序列一致。
+ * 不支持nextGaussian的缓存值（游戏逻辑中不使用高斯分布）
+ */
+public class SimulationRandom extends Random {
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+
+    private long state;
+
+    public SimulationRandom(long seed) {
+        super(seed);
+    }
+
+    /**
+     * 从保存的内部状态创建
+     */
+    public static SimulationRandom fromState(long state) {
+        SimulationRandom random = new SimulationRandom(0);
+        random.setState(state);
+        return random;
+    }
+
+    @Override
+    public synchronized void setSeed(long seed) {
+        super.setSeed(seed);
+        state = (seed ^ MULTIPLIER) & MASK;
+    }
+
+    @Override
+    protected int next(int bits) {
+        state = (state * MULTIPLIER + ADDEND) & MASK;
+        return (int) (state >>> (48 - bits));
+    }
+
+    /**
+     * 当前的48位内部状态
+     */
+    public long getState() {
+        return state;
+    }
+
+    public void setState(long state) {
+        this.state = state & MASK;
+    }
+}
@@ -0,0 +1,78 @@
+package com.nau_yyf.simulation;
+
+/**
+ * 逻辑帧各阶段耗时统计
+ * 记录每个阶段最近一帧的耗时和指数滑动平均值（纳秒），只用于性能分析，不影响模拟结果
+ */
+public class TickProfiler {
+    // 滑动平均的平滑系数，约等于最近50帧的平均
+    private static final double SMOOTHING = 0.02;
+
+    private final long[] lastNanos = new long[TickStage.values().length];
+    private final double[] averageNanos = new double[TickStage.values().length];
+    private long tickCount = 0;
+
+    /**
+     * 获取阶段开始时间
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * 记录一个阶段的耗时
+     *
+     * @param startNanos start()返回的开始时间
+     */
+    public void record(TickStage stage, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        int index = stage.ordinal();
+        lastNanos[index] = elapsed;
+        averageNanos[index] = tickCount == 0 ? elapsed : averageNanos[index] + (elapsed - averageNanos[index]) * SMOOTHING;
+    }
+
+    /**
+     * 一帧处理完毕
+     */
+    public void endTick() {
+        tickCount++;
+    }
+
+    public long getLastNanos(TickStage stage) {
+        return lastNanos[stage.ordinal()];
+    }
+
+    public double getAverageNanos(TickStage stage) {
+        return averageNanos[stage.ordinal()];
+    }
+
+    /**
+     * 最近一帧所有阶段的总耗时（纳秒）
+     */
+    public long getLastTickNanos() {
+        long total = 0;
+        for (long nanos : lastNanos) {
+            total += nanos;
+        }
+        return total;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * 生成各阶段平均耗时的文字摘要（毫秒）
+     */
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        for (TickStage stage : TickStage.values()) {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(stage.getDisplayName()).append(' ')
+                    .append(String.format("%.3fms", averageNanos[stage.ordinal()] / 1_000_000.0));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,25 @@
+package com.nau_yyf.simulation;
+
+/**
+ * 逻辑帧的处理阶段，按声明顺序每帧各执行一次
+ */
+public enum TickStage {
+    INPUT("玩家输入"),
+    AI_DECIDE("敌方AI决策"),
+    PATHFINDING("寻路请求"),
+    MOVEMENT("移动与卡住修复"),
+    PROJECTILES("子弹推进"),
+    COLLISIONS("碰撞处理"),
+    SPAWN("生成与移除"),
+    EVENTS("效果与事件");
+
+    private final String displayName;
+
+    TickStage(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -0,0 +1,50 @@
+package com.nau_yyf.util;
+
+/**
+ * 轴对齐包围盒（AABB）碰撞工具类
+ * 全部使用基本类型参数，游戏循环中的碰撞检测不产生任何对象分配
+ * 边缘恰好接触不算相交，与GameObject.collidesWith的语义一致
+ */
+public final class AABB {
+
+    private AABB() {
+    }
+
+    /**
+     * 判断两个矩形是否相交
+     */
+    public static boolean intersects(int ax, int ay, int aw, int ah,
+                                     int bx, int by, int bw, int bh) {
+        return ax < bx + bw &&
+                ax + aw > bx &&
+                ay < by + bh &&
+                ay + ah > by;
+    }
+
+    /**
+     * 判断两个矩形是否相交（浮点坐标版本）
+     */
+    public static boolean intersects(double ax, double ay, double aw, double ah,
+                                     double bx, double by, double bw, double bh) {
+        return ax < bx + bw &&
+                ax + aw > bx &&
+                ay < by + bh &&
+                ay + ah > by;
+    }
+
+    /**
+     * 判断矩形A向四周扩展margin像素后是否与矩形B相交（用于放宽拾取判定）
+     */
+    public static boolean intersectsWithMargin(int ax, int ay, int aw, int ah,
+                                               int bx, int by, int bw, int bh, int margin) {
+        return intersects(ax - margin, ay - margin, aw + margin * 2, ah + margin * 2,
+                bx, by, bw, bh);
+    }
+
+    /**
+     * 判断点是否在矩形内
+     */
+    public static boolean contains(int x, int y, int w, int h, int px, int py) {
+        return px >= x && px < x + w && py >= y && py < y + h;
+    }
+}
@@ -1,21 +1,23 @@
 package com.nau_yyf.util;
 
-import java.util.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
+/**
+ * A*寻路（四方向网格）
+ * 使用按格子下标索引的基本类型数组和支持decrease-key的二叉堆，
+ * 搜索过程中不分配节点对象；每个线程复用一份搜索上下文
+ */
 public class AStarPathfinder {
-    // 节点类，表示网格中的一个位置
-    public static class Node implements Comparable<Node> {
-        private int x, y;
-        private int g; // 起点到当前节点的实际距离
-        private int h; // 当前节点到目标的估计距离
-        private Node parent; // 父节点，用于回溯路径
+    // 节点类，表示网格中的一个位置（仅用于兼容返回List的接口）
+    public static class Node {
+        private final int x, y;
 
         public Node(int x, int y) {
             this.x = x;
             this.y = y;
-            this.g = 0;
-            this.h = 0;
-            this.parent = null;
         }
 
         // 添加getter方法
@@ -27,15 +29,6 @@ public class AStarPathfinder {
             return y;
         }
 
-        public int getF() {
-            return g + h;
-        }
-
-        @Override
-        public int compareTo(Node other) {
-            return Integer.compare(this.getF(), other.getF());
-        }
-
         @Override
         public boolean equals(Object obj) {
             if (this == obj) return true;
@@ -46,15 +39,164 @@ public class AStarPathfinder {
 
         @Override
         public int hashCode() {
-            return Objects.hash(x, y);
+            return 31 * x + y;
         }
     }
 
     // 四个方向：上、右、下、左
-    private static final int[][] DIRECTIONS = {{0, -1}, {1, 0}, {0, 1}, {-1, 0}};
+    private static final int[] DIR_X = {0, 1, 0, -1};
+    private static final int[] DIR_Y = {-1, 0, 1, 0};
 
-    // 查找从起点到目标的路径
-    public static List<Node> findPath(boolean[][] grid, int startX, int startY, int targetX, int targetY) {
+    // 空路径
+    public static final int[] EMPTY_PATH = new int[0];
+
+    // 格子已关闭的标记（heapIndex取值）
+    private static final int CLOSED = -1;
+    // 格子不在开放列表中的标记
+    private static final int NOT_IN_HEAP = -2;
+
+    /**
+     * 搜索上下文，保存一次搜索用到的所有数组，在同一线程的多次搜索之间复用
+     * 通过访问标记（stamp）区分本次搜索是否访问过某个格子，避免每次清空数组
+     */
+    static final class SearchContext {
+        int[] g = new int[0];        // 起点到格子的实际代价
+        int[] f = new int[0];        // g + h
+        int[] parent = new int[0];   // 父格子下标
+        int[] heapIndex = new int[0]; // 格子在堆中的位置，或CLOSED/NOT_IN_HEAP
+        int[] stamp = new int[0];    // 访问标记
+        int[] heap = new int[0];     // 开放列表（存格子下标）
+        int heapSize;
+        int currentStamp;
+        int lastExpanded;            // 上次搜索展开的节点数
+
+        void prepare(int cellCount) {
+            if (g.length < cellCount) {
+                g = new int[cellCount];
+                f = new int[cellCount];
+                parent = new int[cellCount];
+                heapIndex = new int[cellCount];
+                stamp = new int[cellCount];
+                heap = new int[cellCount];
+                currentStamp = 0;
+            }
+            heapSize = 0;
+            lastExpanded = 0;
+            if (++currentStamp == Integer.MAX_VALUE) {
+                // 标记溢出时重置
+                Arrays.fill(stamp, 0);
+                currentStamp = 1;
+            }
+        }
+
+        boolean visited(int cell) {
+            return stamp[cell] == currentStamp;
+        }
+
+        void visit(int cell, int gValue, int fValue, int parentCell) {
+            stamp[cell] = currentStamp;
+            g[cell] = gValue;
+            f[cell] = fValue;
+            parent[cell] = parentCell;
+            heapIndex[cell] = NOT_IN_HEAP;
+        }
+
+        // f值小的优先，f相同时g值大的（离目标更近）优先
+        private boolean less(int a, int b) {
+            return f[a] < f[b] || (f[a] == f[b] && g[a] > g[b]);
+        }
+
+        void push(int cell) {
+            int i = heapSize++;
+            heap[i] = cell;
+            heapIndex[cell] = i;
+            siftUp(i);
+        }
+
+        int pop() {
+            int top = heap[0];
+            int last = heap[--heapSize];
+            if (heapSize > 0) {
+                heap[0] = last;
+                heapIndex[last] = 0;
+                siftDown(0);
+            }
+            heapIndex[top] = CLOSED;
+            return top;
+        }
+
+        // 格子的f值变小后调整其在堆中的位置
+        void decreaseKey(int cell) {
+            siftUp(heapIndex[cell]);
+        }
+
+        private void siftUp(int i) {
+            int cell = heap[i];
+            while (i > 0) {
+                int parentPos = (i - 1) >>> 1;
+                int parentCell = heap[parentPos];
+                if (!less(cell, parentCell)) break;
+                heap[i] = parentCell;
+                heapIndex[parentCell] = i;
+                i = parentPos;
+            }
+            heap[i] = cell;
+            heapIndex[cell] = i;
+        }
+
+        private void siftDown(int i) {
+            int cell = heap[i];
+            int half = heapSize >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                int right = child + 1;
+                if (right < heapSize && less(heap[right], heap[child])) {
+                    child = right;
+                }
+                if (!less(heap[child], cell)) break;
+                heap[i] = heap[child];
+                heapIndex[heap[i]] = i;
+                i = child;
+            }
+            heap[i] = cell;
+            heapIndex[cell] = i;
+        }
+    }
+
+    private static final ThreadLocal<SearchContext> CONTEXT = ThreadLocal.withInitial(SearchContext::new);
+
+    /**
+     * 将格子坐标打包为一个int（高16位x，低16位y）
+     */
+    public static int packCell(int x, int y) {
+        return (x << 16) | (y & 0xFFFF);
+    }
+
+    public static int cellX(int packed) {
+        return packed >>> 16;
+    }
+
+    public static int cellY(int packed) {
+        return packed & 0xFFFF;
+    }
+
+    /**
+     * 查找从起点到目标的路径
+     *
+     * @return 打包后的格子坐标数组（含起点和终点），找不到路径时返回空数组
+     */
+    public static int[] findPathPacked(boolean[][] grid, int startX, int startY, int targetX, int targetY) {
+        return findPathPacked(grid, startX, startY, targetX, targetY, null);
+    }
+
+    /**
+     * 使用地标启发式查找从起点到目标的路径（地标距离表与网格尺寸不一致时使用曼哈顿距离）
+     *
+     * @param landmarks 当前网格的地标距离表，为null时使用曼哈顿距离
+     * @return 打包后的格子坐标数组（含起点和终点），找不到路径时返回空数组
+     */
+    public static int[] findPathPacked(boolean[][] grid, int startX, int startY, int targetX, int targetY,
+                                       LandmarkHeuristic landmarks) {
         int rows = grid.length;
         int cols = grid[0].length;
 
@@ -62,76 +204,90 @@ public class AStarPathfinder {
         if (startX < 0 || startX >= cols || startY < 0 || startY >= rows ||
                 targetX < 0 || targetX >= cols || targetY < 0 || targetY >= rows ||
                 grid[startY][startX] || grid[targetY][targetX]) {
-            return Collections.emptyList(); // 起点或终点不可行走
+            return EMPTY_PATH; // 起点或终点不可行走
         }
 
-        PriorityQueue<Node> openList = new PriorityQueue<>();
-        Set<Node> closedSet = new HashSet<>();
+        SearchContext ctx = CONTEXT.get();
+        ctx.prepare(rows * cols);
+
+        int start = startY * cols + startX;
+        int target = targetY * cols + targetX;
+        if (landmarks != null && (landmarks.getCols() != cols || landmarks.getRows() != rows)) {
+            landmarks = null;
+        }
 
         // 初始化起点
-        Node startNode = new Node(startX, startY);
-        startNode.h = calculateHeuristic(startX, startY, targetX, targetY);
-        openList.add(startNode);
+        ctx.visit(start, 0, landmarks != null ? landmarks.estimate(start, target)
+                : calculateHeuristic(startX, startY, targetX, targetY), -1);
+        ctx.push(start);
 
-        while (!openList.isEmpty()) {
-            // 获取F值最小的节点
-            Node current = openList.poll();
+        while (ctx.heapSize > 0) {
+            // 获取F值最小的节点，并加入关闭列表
+            int current = ctx.pop();
+            ctx.lastExpanded++;
 
             // 如果到达目标，构建路径并返回
-            if (current.x == targetX && current.y == targetY) {
-                return buildPath(current);
+            if (current == target) {
+                return buildPath(ctx, current, cols);
             }
 
-            // 将当前节点加入关闭列表
-            closedSet.add(current);
+            int cx = current % cols;
+            int cy = current / cols;
+            int newG = ctx.g[current] + 1; // 每步代价为1
 
             // 处理相邻节点
-            for (int[] dir : DIRECTIONS) {
-                int newX = current.x + dir[0];
-                int newY = current.y + dir[1];
+            for (int d = 0; d < 4; d++) {
+                int newX = cx + DIR_X[d];
+                int newY = cy + DIR_Y[d];
 
                 // 检查新位置是否有效且可行走
-                if (newX < 0 || newX >= cols || newY < 0 || newY >= rows ||
-                        grid[newY][newX]) {
-                    continue; // 位置无效或不可行走
-                }
-
-                Node neighbor = new Node(newX, newY);
-
-                // 如果已经在关闭列表中，跳过
-                if (closedSet.contains(neighbor)) {
+                if (newX < 0 || newX >= cols || newY < 0 || newY >= rows || grid[newY][newX]) {
                     continue;
                 }
 
-                // 计算从起点到邻居的新G值
-                int newG = current.g + 1; // 假设每步代价为1
-
-                // 检查是否已经在开放列表中
-                boolean inOpenList = false;
-                for (Node node : openList) {
-                    if (node.equals(neighbor)) {
-                        inOpenList = true;
-                        // 如果新路径更好，更新路径
-                        if (newG < node.g) {
-                            node.g = newG;
-                            node.parent = current;
-                        }
-                        break;
-                    }
-                }
-
-                // 如果不在开放列表中，添加到开放列表
-                if (!inOpenList) {
-                    neighbor.g = newG;
-                    neighbor.h = calculateHeuristic(newX, newY, targetX, targetY);
-                    neighbor.parent = current;
-                    openList.add(neighbor);
+                int neighbor = newY * cols + newX;
+                if (!ctx.visited(neighbor)) {
+                    // 首次访问，加入开放列表
+                    int h = landmarks != null ? landmarks.estimate(neighbor, target)
+                            : calculateHeuristic(newX, newY, targetX, targetY);
+                    ctx.visit(neighbor, newG, newG + h, current);
+                    ctx.push(neighbor);
+                } else if (ctx.heapIndex[neighbor] >= 0 && newG < ctx.g[neighbor]) {
+                    // 已在开放列表中且找到更短路径，更新代价
+                    ctx.f[neighbor] -= ctx.g[neighbor] - newG;
+                    ctx.g[neighbor] = newG;
+                    ctx.parent[neighbor] = current;
+                    ctx.decreaseKey(neighbor);
                 }
+                // 已关闭的格子：启发式一致，无需重新打开
             }
         }
 
-        // 如果开放列表为空但没有找到路径，返回空列表
-        return Collections.emptyList();
+        // 如果开放列表为空但没有找到路径，返回空路径
+        return EMPTY_PATH;
+    }
+
+    /**
+     * 查找从起点到目标的路径（兼容接口）
+     */
+    public static List<Node> findPath(boolean[][] grid, int startX, int startY, int targetX, int targetY) {
+        int[] packed = findPathPacked(grid, startX, startY, targetX, targetY);
+        if (packed.length == 0) {
+            return Collections.emptyList();
+        }
+
+        List<Node> path = new ArrayList<>(packed.length);
+        for (int cell : packed) {
+            path.add(new Node(cellX(cell), cellY(cell)));
+        }
+        return path;
+    }
+
+    /**
+     * 获取当前线程上一次搜索展开的节点数
+     */
+    public static int getLastExpandedNodeCount() {
+        return CONTEXT.get().lastExpanded;
     }
 
     // 计算启发式值 (曼哈顿距离)
@@ -139,18 +295,16 @@ public class AStarPathfinder {
         return Math.abs(x1 - x2) + Math.abs(y1 - y2);
     }
 
-    // 从目标节点回溯构建路径
-    private static List<Node> buildPath(Node targetNode) {
-        List<Node> path = new ArrayList<>();
-        Node current = targetNode;
+    // 从目标格子沿父指针回溯构建路径
+    private static int[] buildPath(SearchContext ctx, int targetCell, int cols) {
+        int length = ctx.g[targetCell] + 1;
+        int[] path = new int[length];
 
-        while (current != null) {
-            path.add(current);
-            current = current.parent;
+        int current = targetCell;
+        for (int i = length - 1; i >= 0; i--) {
+            path[i] = packCell(current % cols, current / cols);
+            current = ctx.parent[current];
         }
-
-        // 反转路径，从起点到终点
-        Collections.reverse(path);
         return path;
     }
-} 
\ No newline at end of file
+}
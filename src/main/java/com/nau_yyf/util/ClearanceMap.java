@@ -0,0 +1,86 @@
+package com.nau_yyf.util;
+
+/**
+ * 通行宽度图（true clearance）
+ * 每个格子记录以它为左上角、完全可行走的最大正方形边长（格子数，上限MAX_CLEARANCE），
+ * 据此判断一个占据多个格子的物体能否停在某处，或某个格子周围是否足够宽敞。
+ * 格子的可行走状态变化时只重算受影响的左上方窗口
+ */
+public class ClearanceMap implements WalkabilityGrid.ChangeListener {
+    // 记录的最大通行宽度，超过该值的区域视为同样宽敞
+    public static final int MAX_CLEARANCE = 4;
+
+    private final WalkabilityGrid walkability;
+    private final boolean[][] grid;
+    private final int cols;
+    private final int rows;
+    private final byte[] clearance;
+
+    public ClearanceMap(WalkabilityGrid walkability) {
+        this.walkability = walkability;
+        this.grid = walkability.asArray();
+        this.cols = walkability.getCols();
+        this.rows = walkability.getRows();
+        this.clearance = new byte[cols * rows];
+        recompute(0, 0, cols - 1, rows - 1);
+        walkability.addListener(this);
+    }
+
+    /**
+     * 不再使用时从网格上注销
+     */
+    public void detach() {
+        walkability.removeListener(this);
+    }
+
+    /**
+     * 格子变化只影响以左上方格子为起点、能覆盖到它的正方形
+     */
+    @Override
+    public void onCellChanged(int cellX, int cellY, boolean blocked) {
+        recompute(cellX - MAX_CLEARANCE + 1, cellY - MAX_CLEARANCE + 1, cellX, cellY);
+    }
+
+    // 从右下到左上重算窗口内的格子（依赖的右侧和下方格子已是最新值）
+    private void recompute(int minX, int minY, int maxX, int maxY) {
+        minX = Math.max(0, minX);
+        minY = Math.max(0, minY);
+        for (int y = Math.min(rows - 1, maxY); y >= minY; y--) {
+            for (int x = Math.min(cols - 1, maxX); x >= minX; x--) {
+                int value = 0;
+                if (!grid[y][x]) {
+                    value = 1 + Math.min(get(x + 1, y), Math.min(get(x, y + 1), get(x + 1, y + 1)));
+                }
+                clearance[y * cols + x] = (byte) Math.min(value, MAX_CLEARANCE);
+            }
+        }
+    }
+
+    /**
+     * 获取格子的通行宽度，地图外和不可行走的格子为0
+     */
+    public int get(int cellX, int cellY) {
+        if (cellX < 0 || cellX >= cols || cellY < 0 || cellY >= rows) {
+            return 0;
+        }
+        return clearance[cellY * cols + cellX];
+    }
+
+    /**
+     * 边长为size个格子的物体能否以该格子为左上角停放
+     */
+    public boolean canFit(int cellX, int cellY, int size) {
+        return get(cellX, cellY) >= size;
+    }
+
+    /**
+     * 格子周围一圈（3x3）是否都可行走：只占一个格子的物体在这里稍有偏移也不会碰到障碍物
+     */
+    public boolean isOpenAround(int cellX, int cellY) {
+        return get(cellX - 1, cellY - 1) >= 3;
+    }
+
+    public WalkabilityGrid getWalkabilityGrid() {
+        return walkability;
+    }
+}
@@ -0,0 +1,359 @@
+package com.nau_yyf.util;
+
+import java.util.Arrays;
+
+/**
+ * D* Lite增量寻路（四方向网格，每步代价为1）
+ * 从目标向起点反向搜索并保留搜索树：起点（追踪的坦克）移动、格子的可行走状态变化、
+ * 目标移动几个格子时只修复受影响的部分，而不是从头重新搜索；目标移动较远时重新初始化。
+ * 每个实例服务一辆坦克，非线程安全，只在模拟线程中使用
+ */
+public class DStarLitePlanner implements WalkabilityGrid.ChangeListener {
+    // 目标移动不超过该距离（曼哈顿距离，格子数）时修复搜索树，否则重新搜索
+    public static final int RETARGET_LIMIT = 3;
+
+    private static final int INF = Integer.MAX_VALUE / 2;
+    private static final long INF_KEY = Long.MAX_VALUE;
+    private static final int[] DIR_X = {0, 1, 0, -1};
+    private static final int[] DIR_Y = {-1, 0, 1, 0};
+
+    private final WalkabilityGrid walkability;
+    private final boolean[][] grid;
+    private final int cols;
+    private final int rows;
+
+    private final int[] g;
+    private final int[] rhs;
+    // 开放列表：按键值排序的二叉堆，支持任意位置更新和删除
+    private final long[] key;
+    private final int[] heap;
+    private final int[] heapIndex;
+    private int heapSize;
+
+    private boolean initialized = false;
+    private int goal = -1;
+    private int lastStart = -1;
+    private int km = 0;
+
+    // 自上次查询以来可行走状态变化的格子
+    private int[] changedCells = new int[16];
+    private int changedCount = 0;
+
+    private int lastExpanded;
+    private int reinitializations;
+
+    public DStarLitePlanner(WalkabilityGrid walkability) {
+        this.walkability = walkability;
+        this.grid = walkability.asArray();
+        this.cols = walkability.getCols();
+        this.rows = walkability.getRows();
+
+        int cellCount = cols * rows;
+        g = new int[cellCount];
+        rhs = new int[cellCount];
+        key = new long[cellCount];
+        heap = new int[cellCount];
+        heapIndex = new int[cellCount];
+
+        walkability.addListener(this);
+    }
+
+    /**
+     * 不再使用时从网格上注销
+     */
+    public void detach() {
+        walkability.removeListener(this);
+    }
+
+    public WalkabilityGrid getWalkabilityGrid() {
+        return walkability;
+    }
+
+    /**
+     * 记录变化的格子，下次查询时统一修复
+     */
+    @Override
+    public void onCellChanged(int cellX, int cellY, boolean blocked) {
+        if (!initialized) {
+            return;
+        }
+        if (changedCount == changedCells.length) {
+            changedCells = Arrays.copyOf(changedCells, changedCount * 2);
+        }
+        changedCells[changedCount++] = cellY * cols + cellX;
+    }
+
+    /**
+     * 查找从起点到目标的路径，尽量复用上次查询的搜索树
+     *
+     * @return 打包后的格子坐标数组（含起点和终点），找不到路径时返回空数组
+     */
+    public int[] findPathPacked(int startX, int startY, int targetX, int targetY) {
+        lastExpanded = 0;
+        if (!isOpen(startX, startY) || !isOpen(targetX, targetY)) {
+            return AStarPathfinder.EMPTY_PATH;
+        }
+
+        int start = startY * cols + startX;
+        int newGoal = targetY * cols + targetX;
+
+        if (!initialized || manhattan(goal, newGoal) > RETARGET_LIMIT) {
+            lastStart = start;
+            initialize(newGoal);
+        } else {
+            // 起点移动：键值整体偏移km，已在开放列表中的格子无需重新排序
+            km += manhattan(lastStart, start);
+            lastStart = start;
+            applyCellChanges();
+            if (newGoal != goal) {
+                retarget(newGoal);
+            }
+        }
+
+        computeShortestPath(start);
+        return extractPath(start);
+    }
+
+    /**
+     * 上一次查询展开的节点数
+     */
+    public int getLastExpandedNodeCount() {
+        return lastExpanded;
+    }
+
+    /**
+     * 因目标移动过远而重新搜索的次数
+     */
+    public int getReinitializationCount() {
+        return reinitializations;
+    }
+
+    private void initialize(int newGoal) {
+        Arrays.fill(g, INF);
+        Arrays.fill(rhs, INF);
+        Arrays.fill(heapIndex, -1);
+        heapSize = 0;
+        km = 0;
+        changedCount = 0;
+        goal = newGoal;
+        rhs[goal] = 0;
+        insert(goal, calculateKey(goal, lastStart));
+        if (initialized) {
+            reinitializations++;
+        }
+        initialized = true;
+    }
+
+    // 目标移动了几个格子：旧目标按邻居重新计算，新目标的rhs固定为0
+    private void retarget(int newGoal) {
+        int oldGoal = goal;
+        goal = newGoal;
+        rhs[goal] = 0;
+        updateKey(goal);
+        updateVertex(oldGoal);
+    }
+
+    // 变化的格子及其邻居重新计算rhs（边的代价随格子可行走状态变化）
+    private void applyCellChanges() {
+        for (int i = 0; i < changedCount; i++) {
+            int cell = changedCells[i];
+            updateVertex(cell);
+            int cx = cell % cols;
+            int cy = cell / cols;
+            for (int d = 0; d < 4; d++) {
+                int nx = cx + DIR_X[d];
+                int ny = cy + DIR_Y[d];
+                if (nx >= 0 && nx < cols && ny >= 0 && ny < rows) {
+                    updateVertex(ny * cols + nx);
+                }
+            }
+        }
+        changedCount = 0;
+    }
+
+    private void computeShortestPath(int start) {
+        while (heapSize > 0) {
+            long topKey = key[heap[0]];
+            long startKey = calculateKey(start, start);
+            if (topKey >= startKey && rhs[start] == g[start]) {
+                break;
+            }
+
+            int u = heap[0];
+            long newKey = calculateKey(u, start);
+            lastExpanded++;
+            if (topKey < newKey) {
+                // 键值过期（起点移动后），按新键值重新排序
+                key[u] = newKey;
+                siftDown(0);
+            } else if (g[u] > rhs[u]) {
+                // 局部过一致：确定最短距离
+                g[u] = rhs[u];
+                remove(u);
+                updateNeighbors(u);
+            } else {
+                // 局部欠一致：距离变大，重新计算自身和邻居
+                g[u] = INF;
+                updateVertex(u);
+                updateNeighbors(u);
+            }
+        }
+    }
+
+    private void updateNeighbors(int cell) {
+        int cx = cell % cols;
+        int cy = cell / cols;
+        for (int d = 0; d < 4; d++) {
+            int nx = cx + DIR_X[d];
+            int ny = cy + DIR_Y[d];
+            if (nx >= 0 && nx < cols && ny >= 0 && ny < rows) {
+                updateVertex(ny * cols + nx);
+            }
+        }
+    }
+
+    // 按邻居重新计算rhs，并根据是否一致调整在开放列表中的位置
+    private void updateVertex(int cell) {
+        int cx = cell % cols;
+        int cy = cell / cols;
+        if (cell != goal) {
+            int best = INF;
+            if (!grid[cy][cx]) {
+                for (int d = 0; d < 4; d++) {
+                    int nx = cx + DIR_X[d];
+                    int ny = cy + DIR_Y[d];
+                    if (isOpen(nx, ny)) {
+                        best = Math.min(best, g[ny * cols + nx] + 1);
+                    }
+                }
+            }
+            rhs[cell] = Math.min(best, INF);
+        }
+
+        if (g[cell] != rhs[cell]) {
+            updateKey(cell);
+        } else if (heapIndex[cell] >= 0) {
+            remove(cell);
+        }
+    }
+
+    private void updateKey(int cell) {
+        long newKey = calculateKey(cell, lastStart);
+        if (heapIndex[cell] >= 0) {
+            long oldKey = key[cell];
+            key[cell] = newKey;
+            if (newKey < oldKey) {
+                siftUp(heapIndex[cell]);
+            } else {
+                siftDown(heapIndex[cell]);
+            }
+        } else {
+            insert(cell, newKey);
+        }
+    }
+
+    // 键值：[min(g, rhs) + h + km, min(g, rhs)]，打包为一个long按字典序比较
+    private long calculateKey(int cell, int start) {
+        int value = Math.min(g[cell], rhs[cell]);
+        if (value >= INF) {
+            return INF_KEY;
+        }
+        long primary = (long) value + manhattan(start, cell) + km;
+        return (primary << 32) | value;
+    }
+
+    // 从起点沿g值下降最快的方向走到目标
+    private int[] extractPath(int start) {
+        if (g[start] >= INF) {
+            return AStarPathfinder.EMPTY_PATH;
+        }
+
+        int length = g[start] + 1;
+        int[] path = new int[length];
+        int current = start;
+        for (int i = 0; i < length; i++) {
+            path[i] = AStarPathfinder.packCell(current % cols, current / cols);
+            if (current == goal) {
+                return i == length - 1 ? path : Arrays.copyOf(path, i + 1);
+            }
+
+            int cx = current % cols;
+            int cy = current / cols;
+            int next = -1;
+            int bestG = INF;
+            for (int d = 0; d < 4; d++) {
+                int nx = cx + DIR_X[d];
+                int ny = cy + DIR_Y[d];
+                if (isOpen(nx, ny) && g[ny * cols + nx] < bestG) {
+                    bestG = g[ny * cols + nx];
+                    next = ny * cols + nx;
+                }
+            }
+            if (next < 0) {
+                return AStarPathfinder.EMPTY_PATH;
+            }
+            current = next;
+        }
+        return path;
+    }
+
+    private boolean isOpen(int x, int y) {
+        return x >= 0 && x < cols && y >= 0 && y < rows && !grid[y][x];
+    }
+
+    private int manhattan(int a, int b) {
+        return Math.abs(a % cols - b % cols) + Math.abs(a / cols - b / cols);
+    }
+
+    private void insert(int cell, long cellKey) {
+        key[cell] = cellKey;
+        int i = heapSize++;
+        heap[i] = cell;
+        heapIndex[cell] = i;
+        siftUp(i);
+    }
+
+    private void remove(int cell) {
+        int i = heapIndex[cell];
+        int last = heap[--heapSize];
+        heapIndex[cell] = -1;
+        if (i < heapSize) {
+            heap[i] = last;
+            heapIndex[last] = i;
+            siftUp(i);
+            siftDown(heapIndex[last]);
+        }
+    }
+
+    private void siftUp(int i) {
+        int cell = heap[i];
+        while (i > 0) {
+            int parentPos = (i - 1) >>> 1;
+            int parentCell = heap[parentPos];
+            if (key[cell] >= key[parentCell]) break;
+            heap[i] = parentCell;
+            heapIndex[parentCell] = i;
+            i = parentPos;
+        }
+        heap[i] = cell;
+        heapIndex[cell] = i;
+    }
+
+    private void siftDown(int i) {
+        int cell = heap[i];
+        int half = heapSize >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < heapSize && key[heap[right]] < key[heap[child]]) {
+                child = right;
+            }
+            if (key[heap[child]] >= key[cell]) break;
+            heap[i] = heap[child];
+            heapIndex[heap[i]] = i;
+            i = child;
+        }
+        heap[i] = cell;
+        heapIndex[cell] = i;
+    }
+}
@@ -0,0 +1,299 @@
+package com.nau_yyf.util;
+
+import java.util.Arrays;
+
+/**
+ * 流场（Dijkstra地图）
+ * 从目标格子出发做一次广度优先搜索，得到每个格子到目标的步数，
+ * 任意数量的坦克都可以在O(1)时间内读取自己的下一步，无需各自寻路。
+ * 格子被打通（例如砖墙被摧毁）时只从该格子向外松弛距离，不重新搜索整张地图
+ */
+public class FlowField {
+    // 不可达格子的距离值
+    public static final int UNREACHABLE = -1;
+
+    // 邻居检查顺序：上、右、下、左（保证结果确定）
+    private static final int[] DIR_X = {0, 1, 0, -1};
+    private static final int[] DIR_Y = {-1, 0, 1, 0};
+
+    private int cols;
+    private int rows;
+    private int[] distance = new int[0];
+    private int[] queue = new int[0];
+    private boolean[] queued = new boolean[0];
+
+    private boolean[][] sourceGrid; // 上次计算使用的网格
+    private int targetX = -1;
+    private int targetY = -1;
+    private boolean dirty = true;
+    private int rebuildCount = 0;
+    private int incrementalUpdateCount = 0;
+    // 目标格子本身不可行走时仍作为起点（例如被砖墙围住的基地）
+    private final boolean passableTarget;
+
+    // 自上次更新以来被打通、可能缩短距离的格子
+    private int[] openedCells = new int[16];
+    private int openedCount = 0;
+
+    public FlowField() {
+        this(false);
+    }
+
+    /**
+     * @param passableTarget 目标格子不可行走时是否仍从目标出发计算距离
+     */
+    public FlowField(boolean passableTarget) {
+        this.passableTarget = passableTarget;
+    }
+
+    /**
+     * 按需更新流场：目标格子变化、网格被替换或被标记失效时才重新计算
+     *
+     * @return 本次是否重新计算了流场
+     */
+    public boolean update(boolean[][] grid, int newTargetX, int newTargetY) {
+        if (grid == null || grid.length == 0 || grid[0].length == 0) {
+            sourceGrid = null;
+            return false;
+        }
+
+        if (!dirty && grid == sourceGrid && newTargetX == targetX && newTargetY == targetY) {
+            if (openedCount == 0) {
+                return false;
+            }
+            relaxOpenedCells();
+            return true;
+        }
+
+        sourceGrid = grid;
+        targetX = newTargetX;
+        targetY = newTargetY;
+        rebuild();
+        dirty = false;
+        return true;
+    }
+
+    /**
+     * 标记流场失效（例如地形发生变化），下次update时重新计算
+     */
+    public void invalidate() {
+        dirty = true;
+    }
+
+    /**
+     * 网格中某个格子状态变化时调用，只有变化可能影响现有距离时才处理：
+     * 格子被阻挡且原本可达时标记失效（下次重新计算），
+     * 格子被打通且与可达区域相邻时记录下来，下次更新时增量松弛
+     */
+    public void onCellChanged(int x, int y, boolean blocked) {
+        if (dirty || sourceGrid == null || !isInside(x, y)) {
+            return;
+        }
+
+        if (blocked) {
+            if (distance[y * cols + x] != UNREACHABLE) {
+                dirty = true;
+            }
+            return;
+        }
+
+        if (x == targetX && y == targetY) {
+            dirty = true;
+            return;
+        }
+        for (int d = 0; d < 4; d++) {
+            if (isReachable(x + DIR_X[d], y + DIR_Y[d])) {
+                if (openedCount == openedCells.length) {
+                    openedCells = Arrays.copyOf(openedCells, openedCount * 2);
+                }
+                openedCells[openedCount++] = y * cols + x;
+                return;
+            }
+        }
+    }
+
+    // 距离只会变小：从打通的格子出发，把变小的距离向外传播（标号修正，每个格子同时最多在队列中出现一次）
+    private void relaxOpenedCells() {
+        int cellCount = rows * cols;
+        int head = 0;
+        int size = 0;
+        for (int i = 0; i < openedCount; i++) {
+            int cell = openedCells[i];
+            int cx = cell % cols;
+            int cy = cell / cols;
+            if (sourceGrid[cy][cx]) {
+                continue; // 打通后又被阻挡
+            }
+            int best = UNREACHABLE;
+            for (int d = 0; d < 4; d++) {
+                int neighborDistance = getDistance(cx + DIR_X[d], cy + DIR_Y[d]);
+                if (neighborDistance != UNREACHABLE && (best == UNREACHABLE || neighborDistance + 1 < best)) {
+                    best = neighborDistance + 1;
+                }
+            }
+            if (best != UNREACHABLE && (distance[cell] == UNREACHABLE || best < distance[cell])) {
+                distance[cell] = best;
+                if (!queued[cell]) {
+                    queued[cell] = true;
+                    queue[(head + size++) % cellCount] = cell;
+                }
+            }
+        }
+        openedCount = 0;
+
+        while (size > 0) {
+            int current = queue[head];
+            head = (head + 1) % cellCount;
+            size--;
+            queued[current] = false;
+
+            int cx = current % cols;
+            int cy = current / cols;
+            int nextDistance = distance[current] + 1;
+            for (int d = 0; d < 4; d++) {
+                int nx = cx + DIR_X[d];
+                int ny = cy + DIR_Y[d];
+                if (!isInside(nx, ny) || sourceGrid[ny][nx]) {
+                    continue;
+                }
+                int neighbor = ny * cols + nx;
+                if (distance[neighbor] == UNREACHABLE || distance[neighbor] > nextDistance) {
+                    distance[neighbor] = nextDistance;
+                    if (!queued[neighbor]) {
+                        queued[neighbor] = true;
+                        queue[(head + size++) % cellCount] = neighbor;
+                    }
+                }
+            }
+        }
+        incrementalUpdateCount++;
+    }
+
+    private void rebuild() {
+        rows = sourceGrid.length;
+        cols = sourceGrid[0].length;
+        int cellCount = rows * cols;
+        if (distance.length < cellCount) {
+            distance = new int[cellCount];
+            queue = new int[cellCount];
+            queued = new boolean[cellCount];
+        }
+        Arrays.fill(distance, 0, cellCount, UNREACHABLE);
+        openedCount = 0;
+        rebuildCount++;
+
+        if (!isInside(targetX, targetY) || (sourceGrid[targetY][targetX] && !passableTarget)) {
+            return; // 目标不在可行走区域内，所有格子都不可达
+        }
+
+        int head = 0;
+        int tail = 0;
+        int target = targetY * cols + targetX;
+        distance[target] = 0;
+        queue[tail++] = target;
+
+        while (head < tail) {
+            int current = queue[head++];
+            int cx = current % cols;
+            int cy = current / cols;
+            int nextDistance = distance[current] + 1;
+
+            for (int d = 0; d < 4; d++) {
+                int nx = cx + DIR_X[d];
+                int ny = cy + DIR_Y[d];
+                if (!isInside(nx, ny) || sourceGrid[ny][nx]) {
+                    continue;
+                }
+                int neighbor = ny * cols + nx;
+                if (distance[neighbor] == UNREACHABLE) {
+                    distance[neighbor] = nextDistance;
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+    }
+
+    /**
+     * 获取格子到目标的步数，不可达时返回UNREACHABLE
+     */
+    public int getDistance(int x, int y) {
+        if (sourceGrid == null || !isInside(x, y)) {
+            return UNREACHABLE;
+        }
+        return distance[y * cols + x];
+    }
+
+    public boolean isReachable(int x, int y) {
+        return getDistance(x, y) != UNREACHABLE;
+    }
+
+    /**
+     * 获取从指定格子朝目标前进的下一个格子
+     *
+     * @return 打包的格子坐标（见AStarPathfinder.packCell），已在目标格子或不可达时返回-1
+     */
+    public int nextStep(int x, int y) {
+        int current = getDistance(x, y);
+        if (current == UNREACHABLE || current == 0) {
+            return -1;
+        }
+
+        for (int d = 0; d < 4; d++) {
+            int nx = x + DIR_X[d];
+            int ny = y + DIR_Y[d];
+            if (isInside(nx, ny) && distance[ny * cols + nx] == current - 1) {
+                return AStarPathfinder.packCell(nx, ny);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 获取从指定格子朝目标前进的所有下一步（距离减1的相邻格子），顺序与nextStep一致
+     *
+     * @param out 至少4个元素，写入打包的格子坐标
+     * @return 写入的格子数
+     */
+    public int nextSteps(int x, int y, int[] out) {
+        int current = getDistance(x, y);
+        if (current == UNREACHABLE || current == 0) {
+            return 0;
+        }
+
+        int count = 0;
+        for (int d = 0; d < 4; d++) {
+            int nx = x + DIR_X[d];
+            int ny = y + DIR_Y[d];
+            if (isInside(nx, ny) && distance[ny * cols + nx] == current - 1) {
+                out[count++] = AStarPathfinder.packCell(nx, ny);
+            }
+        }
+        return count;
+    }
+
+    public int getTargetX() {
+        return targetX;
+    }
+
+    public int getTargetY() {
+        return targetY;
+    }
+
+    /**
+     * 获取流场重新计算的累计次数（用于性能统计）
+     */
+    public int getRebuildCount() {
+        return rebuildCount;
+    }
+
+    /**
+     * 增量松弛（格子被打通）的次数
+     */
+    public int getIncrementalUpdateCount() {
+        return incrementalUpdateCount;
+    }
+
+    private boolean isInside(int x, int y) {
+        return x >= 0 && x < cols && y >= 0 && y < rows;
+    }
+}
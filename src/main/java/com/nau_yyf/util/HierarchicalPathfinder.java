@@ -0,0 +1,617 @@
+package com.nau_yyf.util;
+
+import java.util.Arrays;
+
+/**
+ * 分层寻路（HPA*，四方向网格）
+ * 把可行走网格划分为固定大小的区块，相邻区块边界上连续的可通行段设置入口节点，
+ * 区块内入口之间的距离预先用广度优先搜索算好并缓存；查询时只在入口组成的抽象图上搜索，
+ * 再把路径细化到下一个区块为止（坦克走完后重新请求）。格子变化时只把相关区块标记为待修复，
+ * 下次查询前重建这些区块。
+ * 随网格修复的实例只在模拟线程中使用；snapshot()返回某个网格版本的只读副本（区块重建时整体替换，
+ * 副本与原实例共享未变化的区块），搜索使用的临时数组按线程分配，副本可以被多个后台线程同时查询
+ */
+public class HierarchicalPathfinder implements WalkabilityGrid.ChangeListener {
+    // 默认区块边长（格子数）
+    public static final int DEFAULT_CLUSTER_SIZE = 10;
+    // 格子数达到该值的地图适合使用分层寻路（约64x64），小地图直接搜索更快
+    public static final int LARGE_MAP_CELLS = 64 * 64;
+    // 边界上的连续可通行段达到该长度时在两端各设一个入口，否则只在中点设一个
+    private static final int WIDE_ENTRANCE = 6;
+
+    private static final int[] DIR_X = {0, 1, 0, -1};
+    private static final int[] DIR_Y = {-1, 0, 1, 0};
+
+    /**
+     * 一个区块的入口节点和区块内距离表，创建后不再修改（重建区块时创建新对象）
+     */
+    private static final class Cluster {
+        static final Cluster EMPTY = new Cluster(new int[0], new int[0]);
+
+        final int[] nodes; // 入口格子下标（y * cols + x）
+        final int[] distance; // nodes.length * nodes.length，-1表示区块内不可达
+
+        Cluster(int[] nodes, int[] distance) {
+            this.nodes = nodes;
+            this.distance = distance;
+        }
+    }
+
+    /**
+     * 一次查询使用的临时数组，每个线程一份
+     */
+    private static final class Scratch {
+        // 区块内广度优先搜索使用的数组（按访问标记复用）
+        int[] bfsDistance = new int[0];
+        int[] bfsParent = new int[0];
+        int[] bfsStamp = new int[0];
+        int[] bfsQueue = new int[0];
+        int currentBfsStamp = 0;
+        // 查询起点和终点到各自区块入口的距离（按入口下标）
+        int[] startDistance = new int[0];
+        int[] goalDistance = new int[0];
+        // 抽象图搜索上下文，多出的一个下标表示虚拟终点
+        final AStarPathfinder.SearchContext search = new AStarPathfinder.SearchContext();
+        int lastExpanded;
+
+        Scratch prepare(int cellCount) {
+            if (bfsDistance.length < cellCount) {
+                bfsDistance = new int[cellCount];
+                bfsParent = new int[cellCount];
+                bfsStamp = new int[cellCount];
+                bfsQueue = new int[cellCount];
+                currentBfsStamp = 0;
+            }
+            return this;
+        }
+    }
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private final WalkabilityGrid walkability;
+    private final boolean[][] grid;
+    private final int cols;
+    private final int rows;
+    private final int clusterSize;
+    private final int clusterCols;
+    private final int clusterRows;
+    private final Cluster[] clusters;
+    private final boolean[] dirty;
+    private boolean anyDirty = true;
+    // 只读副本不监听网格变化，也不修复区块
+    private final boolean readOnly;
+
+    // 格子 → 所在区块入口列表中的下标，-1表示不是入口
+    private final int[] nodeSlot;
+
+    private int rebuiltClusters;
+    // 最近一次生成的只读副本及其网格版本
+    private HierarchicalPathfinder snapshot;
+    private int snapshotVersion = -1;
+
+    public HierarchicalPathfinder(WalkabilityGrid walkability) {
+        this(walkability, DEFAULT_CLUSTER_SIZE);
+    }
+
+    public HierarchicalPathfinder(WalkabilityGrid walkability, int clusterSize) {
+        this.walkability = walkability;
+        this.grid = walkability.asArray();
+        this.cols = walkability.getCols();
+        this.rows = walkability.getRows();
+        this.clusterSize = Math.max(2, clusterSize);
+        this.clusterCols = (cols + this.clusterSize - 1) / this.clusterSize;
+        this.clusterRows = (rows + this.clusterSize - 1) / this.clusterSize;
+
+        clusters = new Cluster[clusterCols * clusterRows];
+        Arrays.fill(clusters, Cluster.EMPTY);
+        dirty = new boolean[clusters.length];
+        Arrays.fill(dirty, true);
+        readOnly = false;
+
+        nodeSlot = new int[cols * rows];
+        Arrays.fill(nodeSlot, -1);
+
+        walkability.addListener(this);
+    }
+
+    // 创建只读副本：共享不再修改的区块对象，复制入口下标表，网格使用当前版本的只读副本
+    private HierarchicalPathfinder(HierarchicalPathfinder source) {
+        this.walkability = source.walkability;
+        this.grid = source.walkability.snapshot();
+        this.cols = source.cols;
+        this.rows = source.rows;
+        this.clusterSize = source.clusterSize;
+        this.clusterCols = source.clusterCols;
+        this.clusterRows = source.clusterRows;
+        this.clusters = source.clusters.clone();
+        this.dirty = new boolean[clusters.length];
+        this.anyDirty = false;
+        this.readOnly = true;
+        this.nodeSlot = source.nodeSlot.clone();
+    }
+
+    /**
+     * 获取当前网格版本的只读副本，供后台线程查询（同一版本只创建一次）
+     * 创建前在调用线程中修复待修复的区块，只重建受砖块破坏影响的区块
+     */
+    public HierarchicalPathfinder snapshot() {
+        if (readOnly) {
+            return this;
+        }
+        if (snapshot == null || snapshotVersion != walkability.getVersion()) {
+            repairDirtyClusters(SCRATCH.get().prepare(cols * rows));
+            snapshot = new HierarchicalPathfinder(this);
+            snapshotVersion = walkability.getVersion();
+        }
+        return snapshot;
+    }
+
+    /**
+     * 不再使用时从网格上注销
+     */
+    public void detach() {
+        if (!readOnly) {
+            walkability.removeListener(this);
+        }
+    }
+
+    /**
+     * 格子变化时标记所在区块；位于区块边缘时，边界另一侧的区块入口也会变化
+     */
+    @Override
+    public void onCellChanged(int cellX, int cellY, boolean blocked) {
+        int clusterX = cellX / clusterSize;
+        int clusterY = cellY / clusterSize;
+        markDirty(clusterX, clusterY);
+
+        int localX = cellX % clusterSize;
+        int localY = cellY % clusterSize;
+        if (localX == 0) markDirty(clusterX - 1, clusterY);
+        if (localX == clusterSize - 1) markDirty(clusterX + 1, clusterY);
+        if (localY == 0) markDirty(clusterX, clusterY - 1);
+        if (localY == clusterSize - 1) markDirty(clusterX, clusterY + 1);
+    }
+
+    private void markDirty(int clusterX, int clusterY) {
+        if (clusterX >= 0 && clusterX < clusterCols && clusterY >= 0 && clusterY < clusterRows) {
+            dirty[clusterY * clusterCols + clusterX] = true;
+            anyDirty = true;
+        }
+    }
+
+    /**
+     * 查找从起点朝目标前进的路径，只细化到下一个区块（同一区块内可直达时返回完整路径）
+     *
+     * @return 打包后的格子坐标数组（从起点开始），找不到路径时返回空数组
+     */
+    public int[] findPathPacked(int startX, int startY, int targetX, int targetY) {
+        return findPathPacked(startX, startY, targetX, targetY, null);
+    }
+
+    /**
+     * 抽象图搜索使用地标启发式（区块内距离不小于网格上的步数，地标估计值在抽象图上仍满足一致性）
+     *
+     * @param landmarks 当前网格的地标距离表，为null或尺寸不一致时使用曼哈顿距离
+     */
+    public int[] findPathPacked(int startX, int startY, int targetX, int targetY, LandmarkHeuristic landmarks) {
+        Scratch scratch = SCRATCH.get().prepare(cols * rows);
+        scratch.lastExpanded = 0;
+        if (startX < 0 || startX >= cols || startY < 0 || startY >= rows ||
+                targetX < 0 || targetX >= cols || targetY < 0 || targetY >= rows ||
+                grid[startY][startX] || grid[targetY][targetX]) {
+            return AStarPathfinder.EMPTY_PATH;
+        }
+        repairDirtyClusters(scratch);
+        scratch.lastExpanded = 0; // 区块修复的开销单独统计，见getRebuiltClusterCount
+
+        int start = startY * cols + startX;
+        int goal = targetY * cols + targetX;
+        int startCluster = clusterOf(start);
+        int goalCluster = clusterOf(goal);
+
+        // 同一区块内可直达时直接返回区块内路径
+        if (startCluster == goalCluster) {
+            bfsInCluster(scratch, start, startCluster, goal);
+            if (scratch.bfsStamp[goal] == scratch.currentBfsStamp) {
+                return buildBfsPath(scratch, start, goal);
+            }
+        }
+
+        // 起点和终点到各自区块入口的距离
+        Cluster from = clusters[startCluster];
+        scratch.startDistance = distancesToNodes(scratch, start, startCluster, scratch.startDistance);
+        scratch.goalDistance = distancesToNodes(scratch, goal, goalCluster, scratch.goalDistance);
+
+        if (landmarks != null && (landmarks.getCols() != cols || landmarks.getRows() != rows)) {
+            landmarks = null;
+        }
+        int lastNode = searchAbstract(scratch, from, goalCluster, goal, landmarks);
+        if (lastNode < 0) {
+            return AStarPathfinder.EMPTY_PATH;
+        }
+        return refine(scratch, start, goal, lastNode, startCluster);
+    }
+
+    /**
+     * 当前线程上一次查询展开的节点数（抽象图节点和区块内搜索的格子）
+     */
+    public int getLastExpandedNodeCount() {
+        return SCRATCH.get().lastExpanded;
+    }
+
+    /**
+     * 累计重建的区块数（用于观察增量修复的开销）
+     */
+    public int getRebuiltClusterCount() {
+        return rebuiltClusters;
+    }
+
+    public int getClusterSize() {
+        return clusterSize;
+    }
+
+    public WalkabilityGrid getWalkabilityGrid() {
+        return walkability;
+    }
+
+    // 重建所有待修复的区块
+    private void repairDirtyClusters(Scratch scratch) {
+        if (!anyDirty) {
+            return;
+        }
+        for (int i = 0; i < clusters.length; i++) {
+            if (dirty[i]) {
+                rebuildCluster(scratch, i);
+            }
+        }
+        anyDirty = false;
+    }
+
+    // 重新计算区块的入口节点和区块内距离表（替换为新的区块对象，已有的只读副本不受影响）
+    private void rebuildCluster(Scratch scratch, int index) {
+        for (int node : clusters[index].nodes) {
+            nodeSlot[node] = -1;
+        }
+
+        int clusterX = index % clusterCols;
+        int clusterY = index / clusterCols;
+        int minX = clusterX * clusterSize;
+        int minY = clusterY * clusterSize;
+        int maxX = Math.min(cols, minX + clusterSize) - 1;
+        int maxY = Math.min(rows, minY + clusterSize) - 1;
+
+        IntList nodes = new IntList();
+        // 四条边界：上、右、下、左（地图边缘没有相邻区块）
+        if (minY > 0) collectEntrances(nodes, minX, minY, 1, 0, maxX - minX + 1, 0, -1);
+        if (maxX < cols - 1) collectEntrances(nodes, maxX, minY, 0, 1, maxY - minY + 1, 1, 0);
+        if (maxY < rows - 1) collectEntrances(nodes, minX, maxY, 1, 0, maxX - minX + 1, 0, 1);
+        if (minX > 0) collectEntrances(nodes, minX, minY, 0, 1, maxY - minY + 1, -1, 0);
+
+        int count = nodes.size;
+        int[] entrances = nodes.toArray();
+        for (int i = 0; i < count; i++) {
+            nodeSlot[entrances[i]] = i;
+        }
+
+        int[] distance = new int[count * count];
+        for (int i = 0; i < count; i++) {
+            bfsInCluster(scratch, entrances[i], index);
+            for (int j = 0; j < count; j++) {
+                int other = entrances[j];
+                distance[i * count + j] = scratch.bfsStamp[other] == scratch.currentBfsStamp
+                        ? scratch.bfsDistance[other] : -1;
+            }
+        }
+        clusters[index] = new Cluster(entrances, distance);
+        dirty[index] = false;
+        rebuiltClusters++;
+    }
+
+    /**
+     * 扫描一条边界，找出两侧都可通行的连续段，在本区块一侧设置入口
+     *
+     * @param stepX,stepY 沿边界前进的方向
+     * @param outX,outY   指向相邻区块的方向
+     */
+    private void collectEntrances(IntList nodes, int x, int y, int stepX, int stepY, int length,
+                                  int outX, int outY) {
+        int segmentStart = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean open = i < length && isOpen(x + stepX * i, y + stepY * i)
+                    && isOpen(x + stepX * i + outX, y + stepY * i + outY);
+            if (open && segmentStart < 0) {
+                segmentStart = i;
+            } else if (!open && segmentStart >= 0) {
+                int segmentEnd = i - 1;
+                if (segmentEnd - segmentStart + 1 >= WIDE_ENTRANCE) {
+                    addNode(nodes, x + stepX * segmentStart, y + stepY * segmentStart);
+                    addNode(nodes, x + stepX * segmentEnd, y + stepY * segmentEnd);
+                } else {
+                    int middle = (segmentStart + segmentEnd) / 2;
+                    addNode(nodes, x + stepX * middle, y + stepY * middle);
+                }
+                segmentStart = -1;
+            }
+        }
+    }
+
+    private void addNode(IntList nodes, int x, int y) {
+        int cell = y * cols + x;
+        if (!nodes.contains(cell)) { // 区块角上的格子可能同时是两条边界的入口
+            nodes.add(cell);
+        }
+    }
+
+    private boolean isOpen(int x, int y) {
+        return x >= 0 && x < cols && y >= 0 && y < rows && !grid[y][x];
+    }
+
+    private int clusterOf(int cell) {
+        return (cell / cols / clusterSize) * clusterCols + (cell % cols) / clusterSize;
+    }
+
+    // 在区块范围内做广度优先搜索，结果保存在bfsDistance/bfsParent中（以bfsStamp判断是否访问过）
+    private void bfsInCluster(Scratch scratch, int source, int clusterIndex) {
+        bfsInCluster(scratch, source, clusterIndex, -1);
+    }
+
+    // stopCell不为-1时，访问到该格子后立即停止
+    private void bfsInCluster(Scratch scratch, int source, int clusterIndex, int stopCell) {
+        int[] bfsDistance = scratch.bfsDistance;
+        int[] bfsParent = scratch.bfsParent;
+        int[] bfsStamp = scratch.bfsStamp;
+        int[] bfsQueue = scratch.bfsQueue;
+        int clusterX = clusterIndex % clusterCols;
+        int clusterY = clusterIndex / clusterCols;
+        int minX = clusterX * clusterSize;
+        int minY = clusterY * clusterSize;
+        int maxX = Math.min(cols, minX + clusterSize) - 1;
+        int maxY = Math.min(rows, minY + clusterSize) - 1;
+
+        if (++scratch.currentBfsStamp == Integer.MAX_VALUE) {
+            Arrays.fill(bfsStamp, 0);
+            scratch.currentBfsStamp = 1;
+        }
+        int currentBfsStamp = scratch.currentBfsStamp;
+
+        int head = 0;
+        int tail = 0;
+        bfsQueue[tail++] = source;
+        bfsStamp[source] = currentBfsStamp;
+        bfsDistance[source] = 0;
+        bfsParent[source] = -1;
+
+        while (head < tail) {
+            int cell = bfsQueue[head++];
+            scratch.lastExpanded++;
+            if (cell == stopCell) {
+                return;
+            }
+            int cx = cell % cols;
+            int cy = cell / cols;
+            for (int d = 0; d < 4; d++) {
+                int nx = cx + DIR_X[d];
+                int ny = cy + DIR_Y[d];
+                if (nx < minX || nx > maxX || ny < minY || ny > maxY || grid[ny][nx]) {
+                    continue;
+                }
+                int next = ny * cols + nx;
+                if (bfsStamp[next] != currentBfsStamp) {
+                    bfsStamp[next] = currentBfsStamp;
+                    bfsDistance[next] = bfsDistance[cell] + 1;
+                    bfsParent[next] = cell;
+                    bfsQueue[tail++] = next;
+                }
+            }
+        }
+    }
+
+    // 计算指定格子到所在区块各入口的距离
+    private int[] distancesToNodes(Scratch scratch, int cell, int clusterIndex, int[] buffer) {
+        Cluster cluster = clusters[clusterIndex];
+        int count = cluster.nodes.length;
+        int[] result = buffer.length >= count ? buffer : new int[count];
+        bfsInCluster(scratch, cell, clusterIndex);
+        for (int i = 0; i < count; i++) {
+            int node = cluster.nodes[i];
+            result[i] = scratch.bfsStamp[node] == scratch.currentBfsStamp ? scratch.bfsDistance[node] : -1;
+        }
+        return result;
+    }
+
+    // 在入口组成的抽象图上搜索，返回到达终点前的最后一个入口，找不到时返回-1
+    private int searchAbstract(Scratch scratch, Cluster from, int goalCluster, int goal, LandmarkHeuristic landmarks) {
+        AStarPathfinder.SearchContext search = scratch.search;
+        int[] startDistance = scratch.startDistance;
+        int[] goalDistance = scratch.goalDistance;
+        int virtualGoal = cols * rows;
+        search.prepare(virtualGoal + 1);
+
+        for (int i = 0; i < from.nodes.length; i++) {
+            if (startDistance[i] >= 0) {
+                int node = from.nodes[i];
+                search.visit(node, startDistance[i], startDistance[i] + heuristic(node, goal, landmarks), -1);
+                search.push(node);
+            }
+        }
+
+        while (search.heapSize > 0) {
+            int current = search.pop();
+            scratch.lastExpanded++;
+            if (current == virtualGoal) {
+                return search.parent[virtualGoal];
+            }
+
+            int currentCluster = clusterOf(current);
+            Cluster cluster = clusters[currentCluster];
+            int slot = nodeSlot[current];
+            int gCurrent = search.g[current];
+
+            // 到达终点区块的入口：连接虚拟终点
+            if (currentCluster == goalCluster && goalDistance[slot] >= 0) {
+                relax(search, virtualGoal, gCurrent + goalDistance[slot], 0, current);
+            }
+
+            // 区块内的边
+            int count = cluster.nodes.length;
+            for (int j = 0; j < count; j++) {
+                int cost = cluster.distance[slot * count + j];
+                if (j != slot && cost > 0) {
+                    int other = cluster.nodes[j];
+                    relax(search, other, gCurrent + cost, heuristic(other, goal, landmarks), current);
+                }
+            }
+
+            // 跨越区块边界的边
+            int cx = current % cols;
+            int cy = current / cols;
+            for (int d = 0; d < 4; d++) {
+                int nx = cx + DIR_X[d];
+                int ny = cy + DIR_Y[d];
+                if (!isOpen(nx, ny)) {
+                    continue;
+                }
+                int neighbor = ny * cols + nx;
+                if (nodeSlot[neighbor] >= 0 && clusterOf(neighbor) != currentCluster) {
+                    relax(search, neighbor, gCurrent + 1, heuristic(neighbor, goal, landmarks), current);
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static void relax(AStarPathfinder.SearchContext search, int node, int g, int h, int parent) {
+        if (!search.visited(node)) {
+            search.visit(node, g, g + h, parent);
+            search.push(node);
+        } else if (search.heapIndex[node] >= 0 && g < search.g[node]) {
+            search.f[node] -= search.g[node] - g;
+            search.g[node] = g;
+            search.parent[node] = parent;
+            search.decreaseKey(node);
+        }
+    }
+
+    private int heuristic(int cell, int goal, LandmarkHeuristic landmarks) {
+        if (landmarks != null) {
+            return landmarks.estimate(cell, goal);
+        }
+        return Math.abs(cell % cols - goal % cols) + Math.abs(cell / cols - goal / cols);
+    }
+
+    /**
+     * 把抽象路径细化为逐格路径，只细化到起点区块之后的下一个区块；
+     * 抽象路径不再离开这两个区块时细化到终点
+     */
+    private int[] refine(Scratch scratch, int start, int goal, int lastNode, int startCluster) {
+        // 回溯抽象路径（入口序列，从起点区块的第一个入口开始）
+        IntList abstractPath = new IntList();
+        for (int node = lastNode; node >= 0; node = scratch.search.parent[node]) {
+            abstractPath.add(node);
+        }
+        abstractPath.reverse();
+
+        IntList cells = new IntList();
+        cells.add(start);
+        int current = start;
+        int nextCluster = -1;
+        boolean reachedEnd = true;
+
+        for (int i = 0; i < abstractPath.size; i++) {
+            int node = abstractPath.get(i);
+            int nodeCluster = clusterOf(node);
+            if (nodeCluster != startCluster) {
+                if (nextCluster < 0) {
+                    nextCluster = nodeCluster;
+                } else if (nodeCluster != nextCluster) {
+                    reachedEnd = false; // 即将进入第三个区块，剩余部分留到下次请求
+                    break;
+                }
+            }
+            appendSegment(scratch, cells, current, node);
+            current = node;
+        }
+
+        if (reachedEnd) {
+            appendSegment(scratch, cells, current, goal);
+        }
+
+        int[] path = new int[cells.size];
+        for (int i = 0; i < cells.size; i++) {
+            int cell = cells.get(i);
+            path[i] = AStarPathfinder.packCell(cell % cols, cell / cols);
+        }
+        return path;
+    }
+
+    // 追加从from到to的逐格路径（不含from）：相邻格子直接追加，同一区块内用广度优先搜索细化
+    private void appendSegment(Scratch scratch, IntList cells, int from, int to) {
+        if (from == to) {
+            return;
+        }
+        int fromCluster = clusterOf(from);
+        if (fromCluster != clusterOf(to)) {
+            cells.add(to); // 跨越边界的一步
+            return;
+        }
+        bfsInCluster(scratch, from, fromCluster, to);
+        int mark = cells.size;
+        for (int cell = to; cell != from; cell = scratch.bfsParent[cell]) {
+            cells.add(cell);
+        }
+        cells.reverseFrom(mark);
+    }
+
+    private int[] buildBfsPath(Scratch scratch, int start, int goal) {
+        int length = scratch.bfsDistance[goal] + 1;
+        int[] path = new int[length];
+        int cell = goal;
+        for (int i = length - 1; i >= 0; i--) {
+            path[i] = AStarPathfinder.packCell(cell % cols, cell / cols);
+            cell = scratch.bfsParent[cell];
+        }
+        return path;
+    }
+
+    /**
+     * 简单的int动态数组，避免装箱
+     */
+    private static final class IntList {
+        int[] data = new int[16];
+        int size;
+
+        void add(int value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = value;
+        }
+
+        int get(int index) {
+            return data[index];
+        }
+
+        boolean contains(int value) {
+            for (int i = 0; i < size; i++) {
+                if (data[i] == value) return true;
+            }
+            return false;
+        }
+
+        void reverse() {
+            reverseFrom(0);
+        }
+
+        void reverseFrom(int from) {
+            for (int i = from, j = size - 1; i < j; i++, j--) {
+                int tmp = data[i];
+                data[i] = data[j];
+                data[j] = tmp;
+            }
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.nau_yyf.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 跳点搜索（Jump Point Search，四方向网格）
+ * 在统一代价的网格上沿直线"跳跃"，只有遇到强制邻居、目标或需要转向的位置才加入开放列表，
+ * 空旷区域展开的节点数远少于A*；返回的路径长度与A*相同，格式也相同（逐格展开）
+ */
+public class JumpPointPathfinder {
+    // 四个方向：上、右、下、左
+    private static final int[] DIR_X = {0, 1, 0, -1};
+    private static final int[] DIR_Y = {-1, 0, 1, 0};
+
+    private static final ThreadLocal<AStarPathfinder.SearchContext> CONTEXT =
+            ThreadLocal.withInitial(AStarPathfinder.SearchContext::new);
+
+    /**
+     * 查找从起点到目标的路径
+     *
+     * @return 打包后的格子坐标数组（含起点和终点），找不到路径时返回空数组
+     */
+    public static int[] findPathPacked(boolean[][] grid, int startX, int startY, int targetX, int targetY) {
+        return findPathPacked(grid, startX, startY, targetX, targetY, null);
+    }
+
+    /**
+     * 使用地标启发式查找路径（地标距离表与网格尺寸不一致时使用曼哈顿距离）
+     * 地标估计值在网格上满足一致性，跳点之间的直线段代价等于步数，因此结果仍是最短路径
+     *
+     * @param landmarks 当前网格的地标距离表，为null时使用曼哈顿距离
+     * @return 打包后的格子坐标数组（含起点和终点），找不到路径时返回空数组
+     */
+    public static int[] findPathPacked(boolean[][] grid, int startX, int startY, int targetX, int targetY,
+                                       LandmarkHeuristic landmarks) {
+        int rows = grid.length;
+        int cols = grid[0].length;
+
+        // 验证起点和终点是否合法
+        if (startX < 0 || startX >= cols || startY < 0 || startY >= rows ||
+                targetX < 0 || targetX >= cols || targetY < 0 || targetY >= rows ||
+                grid[startY][startX] || grid[targetY][targetX]) {
+            return AStarPathfinder.EMPTY_PATH;
+        }
+
+        AStarPathfinder.SearchContext ctx = CONTEXT.get();
+        ctx.prepare(rows * cols);
+
+        int start = startY * cols + startX;
+        int target = targetY * cols + targetX;
+        if (landmarks != null && (landmarks.getCols() != cols || landmarks.getRows() != rows)) {
+            landmarks = null;
+        }
+
+        ctx.visit(start, 0, landmarks != null ? landmarks.estimate(start, target)
+                : heuristic(startX, startY, targetX, targetY), -1);
+        ctx.push(start);
+
+        while (ctx.heapSize > 0) {
+            int current = ctx.pop();
+            ctx.lastExpanded++;
+
+            if (current == target) {
+                return buildPath(ctx, current, cols);
+            }
+
+            int cx = current % cols;
+            int cy = current / cols;
+            int parent = ctx.parent[current];
+
+            for (int d = 0; d < 4; d++) {
+                int dx = DIR_X[d];
+                int dy = DIR_Y[d];
+                // 剪枝：不沿来时的方向返回
+                if (parent >= 0 && isBackwards(parent % cols, parent / cols, cx, cy, dx, dy)) {
+                    continue;
+                }
+
+                int jumpPoint = jump(grid, cols, rows, cx + dx, cy + dy, dx, dy, targetX, targetY);
+                if (jumpPoint < 0) {
+                    continue;
+                }
+
+                int jx = jumpPoint % cols;
+                int jy = jumpPoint / cols;
+                int newG = ctx.g[current] + Math.abs(jx - cx) + Math.abs(jy - cy);
+                if (!ctx.visited(jumpPoint)) {
+                    int h = landmarks != null ? landmarks.estimate(jumpPoint, target)
+                            : heuristic(jx, jy, targetX, targetY);
+                    ctx.visit(jumpPoint, newG, newG + h, current);
+                    ctx.push(jumpPoint);
+                } else if (ctx.heapIndex[jumpPoint] >= 0 && newG < ctx.g[jumpPoint]) {
+                    ctx.f[jumpPoint] -= ctx.g[jumpPoint] - newG;
+                    ctx.g[jumpPoint] = newG;
+                    ctx.parent[jumpPoint] = current;
+                    ctx.decreaseKey(jumpPoint);
+                }
+            }
+        }
+
+        return AStarPathfinder.EMPTY_PATH;
+    }
+
+    /**
+     * 查找从起点到目标的路径（与AStarPathfinder.findPath相同的返回格式）
+     */
+    public static List<AStarPathfinder.Node> findPath(boolean[][] grid, int startX, int startY,
+                                                     int targetX, int targetY) {
+        int[] packed = findPathPacked(grid, startX, startY, targetX, targetY);
+        if (packed.length == 0) {
+            return Collections.emptyList();
+        }
+
+        List<AStarPathfinder.Node> path = new ArrayList<>(packed.length);
+        for (int cell : packed) {
+            path.add(new AStarPathfinder.Node(AStarPathfinder.cellX(cell), AStarPathfinder.cellY(cell)));
+        }
+        return path;
+    }
+
+    /**
+     * 获取当前线程上一次搜索展开的节点数（只统计跳点，不含跳跃时扫描的格子）
+     */
+    public static int getLastExpandedNodeCount() {
+        return CONTEXT.get().lastExpanded;
+    }
+
+    // 从(x, y)开始沿(dx, dy)跳跃，返回遇到的跳点下标，撞墙或出界返回-1
+    private static int jump(boolean[][] grid, int cols, int rows, int x, int y, int dx, int dy,
+                            int targetX, int targetY) {
+        while (true) {
+            if (!walkable(grid, cols, rows, x, y)) {
+                return -1;
+            }
+            if (x == targetX && y == targetY) {
+                return y * cols + x;
+            }
+
+            if (dx != 0) {
+                // 水平移动：上方或下方出现刚刚绕过的障碍物时，此处是强制转向点
+                if ((walkable(grid, cols, rows, x, y - 1) && !walkable(grid, cols, rows, x - dx, y - 1)) ||
+                        (walkable(grid, cols, rows, x, y + 1) && !walkable(grid, cols, rows, x - dx, y + 1))) {
+                    return y * cols + x;
+                }
+            } else {
+                // 垂直移动：左右出现强制邻居，或向左右跳跃能找到跳点时，此处是转向点
+                if ((walkable(grid, cols, rows, x - 1, y) && !walkable(grid, cols, rows, x - 1, y - dy)) ||
+                        (walkable(grid, cols, rows, x + 1, y) && !walkable(grid, cols, rows, x + 1, y - dy))) {
+                    return y * cols + x;
+                }
+                if (jump(grid, cols, rows, x + 1, y, 1, 0, targetX, targetY) >= 0 ||
+                        jump(grid, cols, rows, x - 1, y, -1, 0, targetX, targetY) >= 0) {
+                    return y * cols + x;
+                }
+            }
+
+            x += dx;
+            y += dy;
+        }
+    }
+
+    // 方向(dx, dy)是否指回父跳点
+    private static boolean isBackwards(int px, int py, int cx, int cy, int dx, int dy) {
+        return Integer.signum(px - cx) == dx && Integer.signum(py - cy) == dy;
+    }
+
+    private static boolean walkable(boolean[][] grid, int cols, int rows, int x, int y) {
+        return x >= 0 && x < cols && y >= 0 && y < rows && !grid[y][x];
+    }
+
+    private static int heuristic(int x1, int y1, int x2, int y2) {
+        return Math.abs(x1 - x2) + Math.abs(y1 - y2);
+    }
+
+    // 从目标沿父跳点回溯，把相邻跳点之间的直线段展开为逐格路径
+    private static int[] buildPath(AStarPathfinder.SearchContext ctx, int targetCell, int cols) {
+        int length = ctx.g[targetCell] + 1;
+        int[] path = new int[length];
+
+        int i = length - 1;
+        int current = targetCell;
+        path[i] = AStarPathfinder.packCell(current % cols, current / cols);
+        while (ctx.parent[current] >= 0) {
+            int parent = ctx.parent[current];
+            int x = current % cols;
+            int y = current / cols;
+            int stepX = Integer.signum(parent % cols - x);
+            int stepY = Integer.signum(parent / cols - y);
+            while (x != parent % cols || y != parent / cols) {
+                x += stepX;
+                y += stepY;
+                path[--i] = AStarPathfinder.packCell(x, y);
+            }
+            current = parent;
+        }
+        return path;
+    }
+}
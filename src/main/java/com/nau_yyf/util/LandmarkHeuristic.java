@@ -0,0 +1,351 @@
+package com.nau_yyf.util;
+
+import java.util.Arrays;
+
+/**
+ * ALT启发式（A*、地标和三角不等式）
+ * 预处理时选出若干地标格子，分别用广度优先搜索求出所有格子到地标的步数；查询时对每个地标L，
+ * |d(L, 目标) - d(L, 格子)| 都是格子到目标步数的下界，取其最大值（不小于曼哈顿距离）作为启发式。
+ * 迷宫类地图上比曼哈顿距离紧得多，A*展开的节点明显减少，结果仍是最短路径。
+ * 实例构建后不再修改，可以被后台寻路线程共享；网格变化后由使用者调用repair得到修正后的新实例。
+ * 估计值是下界只要求相邻可行走格子的距离值之差不超过1（不要求是精确步数），
+ * 因此格子被阻挡时距离表无需修正（估计值变松但仍是下界），格子被打通时只需把变小的距离传播出去。
+ * 距离表可以随地图文件保存，加载时按网格摘要校验
+ */
+public final class LandmarkHeuristic {
+    // 默认地标数量
+    public static final int DEFAULT_LANDMARK_COUNT = 8;
+    // 距离表中不可达格子的值
+    public static final int UNREACHABLE = -1;
+
+    private static final int[] DIR_X = {0, 1, 0, -1};
+    private static final int[] DIR_Y = {-1, 0, 1, 0};
+
+    private final int cols;
+    private final int rows;
+    private final int gridHash;
+    private final int[] landmarks;   // 地标格子（打包坐标）
+    private final int[][] distances; // distances[i][y * cols + x]：格子到第i个地标的步数
+
+    private LandmarkHeuristic(int cols, int rows, int gridHash, int[] landmarks, int[][] distances) {
+        this.cols = cols;
+        this.rows = rows;
+        this.gridHash = gridHash;
+        this.landmarks = landmarks;
+        this.distances = distances;
+    }
+
+    /**
+     * 为网格选择地标并计算距离表
+     * 地标按最远点策略选择：第一个是离任意可行走格子最远的格子，之后每个都离已选地标尽量远，
+     * 让地标分布在地图边缘和死角，下界更紧
+     */
+    public static LandmarkHeuristic build(boolean[][] grid, int landmarkCount) {
+        int rows = grid.length;
+        int cols = rows > 0 ? grid[0].length : 0;
+        int cellCount = rows * cols;
+        int[] queue = new int[cellCount];
+
+        int first = -1;
+        for (int i = 0; i < cellCount && first < 0; i++) {
+            if (!grid[i / cols][i % cols]) {
+                first = i;
+            }
+        }
+        if (first < 0 || landmarkCount <= 0) {
+            return new LandmarkHeuristic(cols, rows, hash(grid), new int[0], new int[0][]);
+        }
+
+        // 离第一个可行走格子最远的格子作为第一个地标
+        int[] scratch = new int[cellCount];
+        bfs(grid, first, scratch, queue);
+        int next = farthest(scratch);
+
+        int[] minDistance = new int[cellCount];
+        Arrays.fill(minDistance, Integer.MAX_VALUE);
+        int[] chosen = new int[landmarkCount];
+        int[][] tables = new int[landmarkCount][];
+        int count = 0;
+        while (count < landmarkCount && next >= 0) {
+            int[] table = new int[cellCount];
+            bfs(grid, next, table, queue);
+            chosen[count] = AStarPathfinder.packCell(next % cols, next / cols);
+            tables[count] = table;
+            count++;
+
+            for (int i = 0; i < cellCount; i++) {
+                if (table[i] != UNREACHABLE) {
+                    minDistance[i] = Math.min(minDistance[i], table[i]);
+                }
+            }
+            next = farthest(minDistance);
+        }
+        return new LandmarkHeuristic(cols, rows, hash(grid),
+                Arrays.copyOf(chosen, count), Arrays.copyOf(tables, count));
+    }
+
+    /**
+     * 网格上有格子被打通后修正距离表，返回新的实例（本实例不变，只复制有变化的距离表）
+     * 从打通的格子出发，把变小的距离向外传播（标号修正，与FlowField相同），只访问距离变小的格子
+     *
+     * @param grid        当前网格（尺寸与距离表不一致时返回本实例）
+     * @param openedCells 上次修正以来被打通的格子下标（y * cols + x），已重新阻挡的格子会被跳过
+     */
+    public LandmarkHeuristic repair(boolean[][] grid, int[] openedCells) {
+        if (openedCells.length == 0 || distances.length == 0
+                || grid.length != rows || grid[0].length != cols) {
+            return this;
+        }
+        int cellCount = rows * cols;
+        int[] queue = new int[cellCount];
+        boolean[] queued = new boolean[cellCount];
+        int[][] repaired = distances.clone();
+        boolean changed = false;
+        for (int i = 0; i < distances.length; i++) {
+            int[] table = relaxOpenedCells(grid, distances[i], openedCells, queue, queued);
+            if (table != distances[i]) {
+                repaired[i] = table;
+                changed = true;
+            }
+        }
+        return changed ? new LandmarkHeuristic(cols, rows, gridHash, landmarks, repaired) : this;
+    }
+
+    // 修正一张距离表，第一次修改时复制（没有变化时返回原数组）
+    private int[] relaxOpenedCells(boolean[][] grid, int[] source, int[] openedCells, int[] queue, boolean[] queued) {
+        int cellCount = rows * cols;
+        int[] table = source;
+        int head = 0;
+        int size = 0;
+        for (int cell : openedCells) {
+            int cx = cell % cols;
+            int cy = cell / cols;
+            if (grid[cy][cx]) {
+                continue; // 打通后又被阻挡
+            }
+            int best = UNREACHABLE;
+            for (int d = 0; d < 4; d++) {
+                int neighborDistance = distanceAt(grid, table, cx + DIR_X[d], cy + DIR_Y[d]);
+                if (neighborDistance != UNREACHABLE && (best == UNREACHABLE || neighborDistance + 1 < best)) {
+                    best = neighborDistance + 1;
+                }
+            }
+            if (best != UNREACHABLE && (table[cell] == UNREACHABLE || best < table[cell])) {
+                if (table == source) {
+                    table = source.clone();
+                }
+                table[cell] = best;
+            }
+            // 打通的格子保留的旧值也要向外传播，保证与新相邻格子的差不超过1
+            if (table[cell] != UNREACHABLE && !queued[cell]) {
+                queued[cell] = true;
+                queue[(head + size++) % cellCount] = cell;
+            }
+        }
+
+        while (size > 0) {
+            int current = queue[head];
+            head = (head + 1) % cellCount;
+            size--;
+            queued[current] = false;
+
+            int cx = current % cols;
+            int cy = current / cols;
+            int nextDistance = table[current] + 1;
+            for (int d = 0; d < 4; d++) {
+                int nx = cx + DIR_X[d];
+                int ny = cy + DIR_Y[d];
+                if (nx < 0 || nx >= cols || ny < 0 || ny >= rows || grid[ny][nx]) {
+                    continue;
+                }
+                int neighbor = ny * cols + nx;
+                if (table[neighbor] == UNREACHABLE || nextDistance < table[neighbor]) {
+                    if (table == source) {
+                        table = source.clone();
+                    }
+                    table[neighbor] = nextDistance;
+                    if (!queued[neighbor]) {
+                        queued[neighbor] = true;
+                        queue[(head + size++) % cellCount] = neighbor;
+                    }
+                }
+            }
+        }
+        return table;
+    }
+
+    // 可行走格子的距离值，出界或被阻挡时返回UNREACHABLE
+    private int distanceAt(boolean[][] grid, int[] table, int x, int y) {
+        if (x < 0 || x >= cols || y < 0 || y >= rows || grid[y][x]) {
+            return UNREACHABLE;
+        }
+        return table[y * cols + x];
+    }
+
+    /**
+     * 从保存的数据恢复（格子数不一致时返回null）
+     */
+    public static LandmarkHeuristic fromData(LandmarkData data) {
+        if (data == null || data.getLandmarks() == null || data.getDistances() == null
+                || data.getLandmarks().length != data.getDistances().length) {
+            return null;
+        }
+        int cellCount = data.getCols() * data.getRows();
+        for (int[] table : data.getDistances()) {
+            if (table == null || table.length != cellCount) {
+                return null;
+            }
+        }
+        return new LandmarkHeuristic(data.getCols(), data.getRows(), data.getGridHash(),
+                data.getLandmarks().clone(), data.getDistances().clone());
+    }
+
+    /**
+     * 转换为可保存的数据
+     */
+    public LandmarkData toData() {
+        LandmarkData data = new LandmarkData();
+        data.setCols(cols);
+        data.setRows(rows);
+        data.setGridHash(gridHash);
+        data.setLandmarks(landmarks.clone());
+        data.setDistances(distances.clone());
+        return data;
+    }
+
+    /**
+     * 距离表是否是为该网格计算的（尺寸和内容摘要一致）
+     */
+    public boolean matches(boolean[][] grid) {
+        return grid.length == rows && (rows == 0 || grid[0].length == cols) && hash(grid) == gridHash;
+    }
+
+    /**
+     * 格子到目标步数的下界（格子下标为 y * cols + x），不小于曼哈顿距离
+     */
+    public int estimate(int cell, int target) {
+        int best = Math.abs(cell % cols - target % cols) + Math.abs(cell / cols - target / cols);
+        for (int[] table : distances) {
+            int fromCell = table[cell];
+            int fromTarget = table[target];
+            if (fromCell != UNREACHABLE && fromTarget != UNREACHABLE) {
+                best = Math.max(best, Math.abs(fromTarget - fromCell));
+            }
+        }
+        return best;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getLandmarkCount() {
+        return landmarks.length;
+    }
+
+    /**
+     * 第i个地标的打包坐标
+     */
+    public int getLandmark(int i) {
+        return landmarks[i];
+    }
+
+    private static void bfs(boolean[][] grid, int source, int[] distance, int[] queue) {
+        int rows = grid.length;
+        int cols = grid[0].length;
+        Arrays.fill(distance, UNREACHABLE);
+        int head = 0;
+        int tail = 0;
+        distance[source] = 0;
+        queue[tail++] = source;
+        while (head < tail) {
+            int current = queue[head++];
+            int cx = current % cols;
+            int cy = current / cols;
+            for (int d = 0; d < 4; d++) {
+                int nx = cx + DIR_X[d];
+                int ny = cy + DIR_Y[d];
+                if (nx < 0 || nx >= cols || ny < 0 || ny >= rows || grid[ny][nx]) {
+                    continue;
+                }
+                int neighbor = ny * cols + nx;
+                if (distance[neighbor] == UNREACHABLE) {
+                    distance[neighbor] = distance[current] + 1;
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+    }
+
+    // 距离值最大的格子（忽略不可达格子），全部为0时返回-1
+    private static int farthest(int[] distance) {
+        int best = -1;
+        int bestDistance = 0;
+        for (int i = 0; i < distance.length; i++) {
+            if (distance[i] != Integer.MAX_VALUE && distance[i] > bestDistance) {
+                bestDistance = distance[i];
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private static int hash(boolean[][] grid) {
+        return Arrays.deepHashCode(grid);
+    }
+
+    /**
+     * 可保存的距离表数据（与地图文件一起以JSON格式保存）
+     */
+    public static class LandmarkData {
+        private int cols;
+        private int rows;
+        private int gridHash;
+        private int[] landmarks;
+        private int[][] distances;
+
+        public int getCols() {
+            return cols;
+        }
+
+        public void setCols(int cols) {
+            this.cols = cols;
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        public void setRows(int rows) {
+            this.rows = rows;
+        }
+
+        public int getGridHash() {
+            return gridHash;
+        }
+
+        public void setGridHash(int gridHash) {
+            this.gridHash = gridHash;
+        }
+
+        public int[] getLandmarks() {
+            return landmarks;
+        }
+
+        public void setLandmarks(int[] landmarks) {
+            this.landmarks = landmarks;
+        }
+
+        public int[][] getDistances() {
+            return distances;
+        }
+
+        public void setDistances(int[][] distances) {
+            this.distances = distances;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.nau_yyf.util;
+
+import com.nau_yyf.model.LevelMap;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * 地标距离表预处理工具
+ * 为每个关卡计算地标距离表，保存到地图文件所在目录（levelN.landmarks.json），
+ * 并用随机起点和终点比较曼哈顿距离与地标启发式下A*展开的节点数。
+ * 地图文件修改后重新运行即可，距离表与网格不一致时游戏会在运行时重新计算
+ */
+public class LandmarkPrecomputer {
+    private static final int LEVEL_COUNT = 5;
+    private static final int QUERY_COUNT = 500;
+
+    public static void main(String[] args) {
+        // 默认写入源码资源目录
+        Path mapDir = Paths.get(args.length > 0 ? args[0] : "src/main/resources/maps");
+
+        for (int level = 1; level <= LEVEL_COUNT; level++) {
+            LevelMap levelMap = MapLoader.loadLevel(level);
+            if (levelMap == null) {
+                continue;
+            }
+            boolean[][] grid = WalkabilityGrid.fromLevel(levelMap).asArray();
+            LandmarkHeuristic landmarks = LandmarkHeuristic.build(grid, LandmarkHeuristic.DEFAULT_LANDMARK_COUNT);
+
+            try {
+                Files.createDirectories(mapDir);
+                MapLoader.saveLandmarks(landmarks, mapDir.resolve("level" + level + ".landmarks.json"));
+            } catch (IOException e) {
+                System.err.println("保存第" + level + "关地标距离表失败: " + e.getMessage());
+            }
+
+            report(level, grid, landmarks);
+        }
+    }
+
+    /**
+     * 对同一组随机查询分别使用两种启发式，输出平均展开节点数
+     */
+    private static void report(int level, boolean[][] grid, LandmarkHeuristic landmarks) {
+        int rows = grid.length;
+        int cols = grid[0].length;
+        Random random = new Random(level);
+        long manhattanExpanded = 0;
+        long landmarkExpanded = 0;
+        int queries = 0;
+
+        for (int attempt = 0; attempt < QUERY_COUNT * 10 && queries < QUERY_COUNT; attempt++) {
+            int startX = random.nextInt(cols);
+            int startY = random.nextInt(rows);
+            int targetX = random.nextInt(cols);
+            int targetY = random.nextInt(rows);
+
+            int[] plain = AStarPathfinder.findPathPacked(grid, startX, startY, targetX, targetY);
+            int plainExpanded = AStarPathfinder.getLastExpandedNodeCount();
+            if (plain.length == 0) {
+                continue; // 只统计有路径的查询
+            }
+            int[] guided = AStarPathfinder.findPathPacked(grid, startX, startY, targetX, targetY, landmarks);
+            if (guided.length != plain.length) {
+                System.err.println("第" + level + "关路径长度不一致: " + plain.length + " / " + guided.length);
+            }
+            manhattanExpanded += plainExpanded;
+            landmarkExpanded += AStarPathfinder.getLastExpandedNodeCount();
+            queries++;
+        }
+
+        if (queries > 0) {
+            System.out.printf("第%d关 %dx%d 地标%d个 查询%d次 平均展开节点: 曼哈顿 %.1f, 地标 %.1f%n",
+                    level, cols, rows, landmarks.getLandmarkCount(), queries,
+                    (double) manhattanExpanded / queries, (double) landmarkExpanded / queries);
+        }
+    }
+}
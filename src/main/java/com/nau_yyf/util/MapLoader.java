@@ -3,7 +3,9 @@ package com.nau_yyf.util;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nau_yyf.model.LevelMap;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 
 public class MapLoader {
     private static final ObjectMapper objectMapper = new ObjectMapper();
@@ -23,4 +25,36 @@ public class MapLoader {
             return null;
         }
     }
+
+    /**
+     * 加载与地图文件一起保存的地标距离表（maps/levelN.landmarks.json）
+     *
+     * @return 距离表，文件不存在或无法解析时返回null（由使用者按当前网格重新计算）
+     */
+    public static LandmarkHeuristic loadLandmarks(int level) {
+        String resourcePath = landmarksResource(level);
+        try (InputStream is = MapLoader.class.getResourceAsStream(resourcePath)) {
+            if (is == null) {
+                return null;
+            }
+            return LandmarkHeuristic.fromData(objectMapper.readValue(is, LandmarkHeuristic.LandmarkData.class));
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * 把地标距离表保存到指定文件
+     */
+    public static void saveLandmarks(LandmarkHeuristic landmarks, Path file) throws IOException {
+        objectMapper.writeValue(file.toFile(), landmarks.toData());
+    }
+
+    /**
+     * 地标距离表的资源路径（与地图文件放在同一目录）
+     */
+    public static String landmarksResource(int level) {
+        return "/maps/level" + level + ".landmarks.json";
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,126 @@
+package com.nau_yyf.util;
+
+/**
+ * 可选的网格寻路算法，返回格式相同（打包格子坐标数组，含起点和终点）
+ * 寻路调度器默认使用JPS，见PathRequestScheduler.DEFAULT_ALGORITHM
+ */
+public enum PathAlgorithm {
+    ASTAR("A*") {
+        @Override
+        public int[] findPathPacked(boolean[][] grid, int startX, int startY, int targetX, int targetY) {
+            return AStarPathfinder.findPathPacked(grid, startX, startY, targetX, targetY);
+        }
+
+        @Override
+        public int[] findPathPacked(boolean[][] grid, int startX, int startY, int targetX, int targetY,
+                                    LandmarkHeuristic landmarks) {
+            return AStarPathfinder.findPathPacked(grid, startX, startY, targetX, targetY, landmarks);
+        }
+
+        @Override
+        public int getLastExpandedNodeCount() {
+            return AStarPathfinder.getLastExpandedNodeCount();
+        }
+    },
+    JPS("跳点搜索") {
+        @Override
+        public int[] findPathPacked(boolean[][] grid, int startX, int startY, int targetX, int targetY) {
+            return JumpPointPathfinder.findPathPacked(grid, startX, startY, targetX, targetY);
+        }
+
+        @Override
+        public int[] findPathPacked(boolean[][] grid, int startX, int startY, int targetX, int targetY,
+                                    LandmarkHeuristic landmarks) {
+            return JumpPointPathfinder.findPathPacked(grid, startX, startY, targetX, targetY, landmarks);
+        }
+
+        @Override
+        public int getLastExpandedNodeCount() {
+            return JumpPointPathfinder.getLastExpandedNodeCount();
+        }
+    },
+    /**
+     * 分层寻路：需要按地图构建的区块图，由寻路调度器为当前网格维护；
+     * 直接以数组调用时没有区块图，退化为跳点搜索
+     */
+    HPA("分层寻路") {
+        @Override
+        public int[] findPathPacked(boolean[][] grid, int startX, int startY, int targetX, int targetY) {
+            return JPS.findPathPacked(grid, startX, startY, targetX, targetY);
+        }
+
+        @Override
+        public int[] findPathPacked(boolean[][] grid, int startX, int startY, int targetX, int targetY,
+                                    LandmarkHeuristic landmarks) {
+            return JPS.findPathPacked(grid, startX, startY, targetX, targetY, landmarks);
+        }
+
+        @Override
+        public int getLastExpandedNodeCount() {
+            return JPS.getLastExpandedNodeCount();
+        }
+    },
+    /**
+     * D* Lite增量寻路：每辆坦克保留自己的搜索树，由寻路调度器维护；
+     * 直接以数组调用时没有搜索树，退化为跳点搜索
+     */
+    DSTAR_LITE("增量寻路") {
+        @Override
+        public int[] findPathPacked(boolean[][] grid, int startX, int startY, int targetX, int targetY) {
+            return JPS.findPathPacked(grid, startX, startY, targetX, targetY);
+        }
+
+        @Override
+        public int[] findPathPacked(boolean[][] grid, int startX, int startY, int targetX, int targetY,
+                                    LandmarkHeuristic landmarks) {
+            return JPS.findPathPacked(grid, startX, startY, targetX, targetY, landmarks);
+        }
+
+        @Override
+        public int getLastExpandedNodeCount() {
+            return JPS.getLastExpandedNodeCount();
+        }
+    };
+
+    private final String displayName;
+
+    PathAlgorithm(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * 按名称查找算法（不区分大小写），未知名称返回null
+     */
+    public static PathAlgorithm fromString(String name) {
+        for (PathAlgorithm algorithm : values()) {
+            if (algorithm.name().equalsIgnoreCase(name)) {
+                return algorithm;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 查找从起点到目标的路径，找不到路径时返回空数组
+     */
+    public abstract int[] findPathPacked(boolean[][] grid, int startX, int startY, int targetX, int targetY);
+
+    /**
+     * 使用地标启发式查找路径（A*和跳点搜索使用地标距离表，没有区块图或搜索树时的退化实现同样使用）
+     *
+     * @param landmarks 当前网格的地标距离表，可以为null
+     */
+    public int[] findPathPacked(boolean[][] grid, int startX, int startY, int targetX, int targetY,
+                                LandmarkHeuristic landmarks) {
+        return findPathPacked(grid, startX, startY, targetX, targetY);
+    }
+
+    /**
+     * 当前线程上一次搜索展开的节点数（用于比较不同算法）
+     */
+    public abstract int getLastExpandedNodeCount();
+}
@@ -0,0 +1,191 @@
+package com.nau_yyf.util;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 寻路结果缓存（LRU）
+ * 以起点格子、终点格子和可行走网格版本号为键缓存A*路径；最短路径的任意后缀也是最短路径，
+ * 因此路径上每个格子到同一终点的查询都能命中（后缀命中）。网格版本变化（例如砖块被击毁）时整体失效
+ */
+public class PathCache {
+    public static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * 一次查询的结果：路径数组和起点在数组中的下标（数组共享，只读使用）
+     */
+    public static final class Result {
+        private final int[] path;
+        private final int offset;
+
+        Result(int[] path, int offset) {
+            this.path = path;
+            this.offset = offset;
+        }
+
+        public int[] getPath() {
+            return path;
+        }
+
+        public int getOffset() {
+            return offset;
+        }
+    }
+
+    private final int capacity;
+    // 完整路径，按访问顺序排列，超出容量时淘汰最久未使用的
+    private final LinkedHashMap<Long, int[]> paths;
+    // 后缀索引：路径上的格子+终点 → 所在路径和下标
+    private final Map<Long, Result> suffixes = new HashMap<>();
+    private int version = -1;
+
+    // 统计数据
+    private long hits;
+    private long suffixHits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    public PathCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public PathCache(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.paths = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * 查找路径（格子坐标）
+     *
+     * @param gridVersion 当前可行走网格的版本号
+     * @return 命中时返回结果，未命中返回null
+     */
+    public Result get(int startX, int startY, int targetX, int targetY, int gridVersion) {
+        checkVersion(gridVersion);
+        long key = key(startX, startY, targetX, targetY);
+
+        int[] path = paths.get(key);
+        if (path != null) {
+            hits++;
+            return new Result(path, 0);
+        }
+
+        Result suffix = suffixes.get(key);
+        if (suffix != null) {
+            suffixHits++;
+            paths.get(key(suffix.path[0], suffix.path[suffix.path.length - 1])); // 刷新所在路径的使用顺序
+            return suffix;
+        }
+
+        misses++;
+        return null;
+    }
+
+    /**
+     * 缓存一条路径（找不到路径时传入空数组，同样缓存）
+     */
+    public void put(int startX, int startY, int targetX, int targetY, int[] path, int gridVersion) {
+        checkVersion(gridVersion);
+        long key = key(startX, startY, targetX, targetY);
+        int[] previous = paths.put(key, path);
+        if (previous != null) {
+            removeSuffixes(previous);
+        }
+
+        // 登记路径上每个格子的后缀（起点本身由完整路径命中）；只通往中途格子的部分路径不登记
+        if (path.length > 0 && path[path.length - 1] == AStarPathfinder.packCell(targetX, targetY)) {
+            for (int i = 1; i < path.length - 1; i++) {
+                suffixes.putIfAbsent(key(path[i], path[path.length - 1]), new Result(path, i));
+            }
+        }
+
+        if (paths.size() > capacity) {
+            Iterator<Map.Entry<Long, int[]>> eldest = paths.entrySet().iterator();
+            int[] evicted = eldest.next().getValue();
+            eldest.remove();
+            removeSuffixes(evicted);
+            evictions++;
+        }
+    }
+
+    public void clear() {
+        paths.clear();
+        suffixes.clear();
+    }
+
+    // 网格版本变化时清空缓存
+    private void checkVersion(int gridVersion) {
+        if (gridVersion != version) {
+            if (!paths.isEmpty()) {
+                invalidations++;
+            }
+            clear();
+            version = gridVersion;
+        }
+    }
+
+    // 移除指向指定路径的后缀索引
+    private void removeSuffixes(int[] path) {
+        if (path.length == 0) {
+            return;
+        }
+        int target = path[path.length - 1];
+        for (int i = 1; i < path.length - 1; i++) {
+            long key = key(path[i], target);
+            Result suffix = suffixes.get(key);
+            if (suffix != null && suffix.path == path) {
+                suffixes.remove(key);
+            }
+        }
+    }
+
+    private static long key(int startX, int startY, int targetX, int targetY) {
+        return key(AStarPathfinder.packCell(startX, startY), AStarPathfinder.packCell(targetX, targetY));
+    }
+
+    private static long key(int startCell, int targetCell) {
+        return ((long) startCell << 32) | (targetCell & 0xFFFFFFFFL);
+    }
+
+    public int size() {
+        return paths.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getSuffixHits() {
+        return suffixHits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * 命中率（完整命中和后缀命中都计入）
+     */
+    public double getHitRate() {
+        long total = hits + suffixHits + misses;
+        return total == 0 ? 0 : (double) (hits + suffixHits) / total;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * 因网格版本变化而整体失效的次数
+     */
+    public long getInvalidations() {
+        return invalidations;
+    }
+}
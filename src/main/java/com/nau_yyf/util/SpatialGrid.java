@@ -0,0 +1,175 @@
+package com.nau_yyf.util;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 均匀网格空间索引
+ * 将对象按包围盒分桶到固定大小的单元格中，碰撞检测只需检查相关单元格内的对象
+ *
+ * @param <T> 索引的对象类型
+ */
+public class SpatialGrid<T> {
+    // 单元格大小（像素），与地图网格保持一致
+    public static final int DEFAULT_CELL_SIZE = 40;
+
+    /**
+     * 索引项，记录对象当前所在的单元格范围
+     */
+    private static class Entry<T> {
+        private final T item;
+        private int minCellX, minCellY, maxCellX, maxCellY;
+        private int queryStamp; // 查询去重标记（对象可能跨多个单元格）
+
+        Entry(T item) {
+            this.item = item;
+        }
+    }
+
+    private final int cellSize;
+    private final int cols;
+    private final int rows;
+    private final List<Entry<T>>[] buckets;
+    private final Map<T, Entry<T>> entries = new IdentityHashMap<>();
+    private int currentStamp = 0;
+
+    public SpatialGrid(int worldWidth, int worldHeight) {
+        this(worldWidth, worldHeight, DEFAULT_CELL_SIZE);
+    }
+
+    public SpatialGrid(int worldWidth, int worldHeight, int cellSize) {
+        this.cellSize = cellSize;
+        this.cols = Math.max(1, (worldWidth + cellSize - 1) / cellSize);
+        this.rows = Math.max(1, (worldHeight + cellSize - 1) / cellSize);
+        // 不能直接创建泛型数组，只在这一处赋值上抑制警告
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        List<Entry<T>>[] bucketArray = new List[cols * rows];
+        this.buckets = bucketArray;
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new ArrayList<>(4);
+        }
+    }
+
+    /**
+     * 插入或更新对象的位置
+     * 只有当对象跨越的单元格发生变化时才会重新分桶
+     */
+    public void update(T item, int x, int y, int width, int height) {
+        int minCellX = clampCol(Math.floorDiv(x, cellSize));
+        int minCellY = clampRow(Math.floorDiv(y, cellSize));
+        int maxCellX = clampCol(Math.floorDiv(x + width - 1, cellSize));
+        int maxCellY = clampRow(Math.floorDiv(y + height - 1, cellSize));
+
+        Entry<T> entry = entries.get(item);
+        if (entry == null) {
+            entry = new Entry<>(item);
+            entries.put(item, entry);
+        } else if (entry.minCellX == minCellX && entry.minCellY == minCellY &&
+                entry.maxCellX == maxCellX && entry.maxCellY == maxCellY) {
+            return; // 单元格范围未变化，无需操作
+        } else {
+            unlink(entry);
+        }
+
+        entry.minCellX = minCellX;
+        entry.minCellY = minCellY;
+        entry.maxCellX = maxCellX;
+        entry.maxCellY = maxCellY;
+        link(entry);
+    }
+
+    /**
+     * 从索引中移除对象
+     */
+    public void remove(T item) {
+        Entry<T> entry = entries.remove(item);
+        if (entry != null) {
+            unlink(entry);
+        }
+    }
+
+    public boolean contains(T item) {
+        return entries.containsKey(item);
+    }
+
+    /**
+     * 清空索引
+     */
+    public void clear() {
+        for (List<Entry<T>> bucket : buckets) {
+            bucket.clear();
+        }
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * 查询与给定区域所在单元格重叠的候选对象（粗筛，调用方仍需做精确相交判断）
+     *
+     * @param out 结果列表，调用前会被清空，可复用以避免分配
+     * @return 传入的结果列表
+     */
+    public List<T> query(int x, int y, int width, int height, List<T> out) {
+        out.clear();
+        if (entries.isEmpty()) {
+            return out;
+        }
+
+        int minCellX = clampCol(Math.floorDiv(x, cellSize));
+        int minCellY = clampRow(Math.floorDiv(y, cellSize));
+        int maxCellX = clampCol(Math.floorDiv(x + width - 1, cellSize));
+        int maxCellY = clampRow(Math.floorDiv(y + height - 1, cellSize));
+
+        int stamp = ++currentStamp;
+        for (int cy = minCellY; cy <= maxCellY; cy++) {
+            for (int cx = minCellX; cx <= maxCellX; cx++) {
+                List<Entry<T>> bucket = buckets[cy * cols + cx];
+                for (int i = 0, n = bucket.size(); i < n; i++) {
+                    Entry<T> entry = bucket.get(i);
+                    if (entry.queryStamp != stamp) {
+                        entry.queryStamp = stamp;
+                        out.add(entry.item);
+                    }
+                }
+            }
+        }
+        return out;
+    }
+
+    private void link(Entry<T> entry) {
+        for (int cy = entry.minCellY; cy <= entry.maxCellY; cy++) {
+            for (int cx = entry.minCellX; cx <= entry.maxCellX; cx++) {
+                buckets[cy * cols + cx].add(entry);
+            }
+        }
+    }
+
+    private void unlink(Entry<T> entry) {
+        for (int cy = entry.minCellY; cy <= entry.maxCellY; cy++) {
+            for (int cx = entry.minCellX; cx <= entry.maxCellX; cx++) {
+                List<Entry<T>> bucket = buckets[cy * cols + cx];
+                // 桶内对象很少，交换删除避免移动元素
+                int index = bucket.indexOf(entry);
+                if (index >= 0) {
+                    int last = bucket.size() - 1;
+                    bucket.set(index, bucket.get(last));
+                    bucket.remove(last);
+                }
+            }
+        }
+    }
+
+    // 越界对象被夹到边缘单元格，保证仍能被查询到
+    private int clampCol(int cellX) {
+        return Math.max(0, Math.min(cols - 1, cellX));
+    }
+
+    private int clampRow(int cellY) {
+        return Math.max(0, Math.min(rows - 1, cellY));
+    }
+}
@@ -0,0 +1,254 @@
+package com.nau_yyf.util;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 精灵图集（全局共享）
+ * 坦克、子弹、增益效果和地形图片在首次使用时加载一次，按类别打包到一张纹理中，
+ * 所有控制器和视图通过名称查找区域绘制，不再各自加载和持有独立的图片
+ */
+public final class SpriteAtlas {
+    // 图集中每个精灵的边长（像素），源图片为400x400，游戏中最大以40x40绘制
+    public static final int SPRITE_SIZE = 80;
+    // 精灵之间的透明间隔，避免缩放采样时混入相邻精灵的像素
+    private static final int PADDING = 2;
+    // 每行精灵数量
+    private static final int COLUMNS = 8;
+    private static final String BOMB_PLACED = "bomb_placed";
+
+    /**
+     * 图集类别，每个类别打包成一张纹理
+     */
+    public enum Category {
+        TANKS,
+        BULLETS,
+        POWERUPS,
+        TERRAIN
+    }
+
+    /**
+     * 图集中的一个区域
+     */
+    public static final class Region {
+        private final Image texture;
+        private final int x;
+        private final int y;
+        private final int width;
+        private final int height;
+
+        Region(Image texture, int x, int y, int width, int height) {
+            this.texture = texture;
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+        }
+
+        public Image getTexture() {
+            return texture;
+        }
+
+        public int getX() {
+            return x;
+        }
+
+        public int getY() {
+            return y;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+    }
+
+    private static volatile SpriteAtlas instance;
+
+    private final Map<String, Region> regions = new HashMap<>();
+    private final Map<Category, Image> textures = new HashMap<>();
+    private final Map<String, Image> extractedImages = new HashMap<>();
+
+    /**
+     * 获取全局图集，首次调用时加载所有图片
+     */
+    public static SpriteAtlas getInstance() {
+        SpriteAtlas atlas = instance;
+        if (atlas == null) {
+            synchronized (SpriteAtlas.class) {
+                atlas = instance;
+                if (atlas == null) {
+                    atlas = new SpriteAtlas();
+                    instance = atlas;
+                }
+            }
+        }
+        return atlas;
+    }
+
+    private SpriteAtlas() {
+        pack(Category.TANKS, tankSources());
+        pack(Category.BULLETS, bulletSources());
+        pack(Category.POWERUPS, powerUpSources());
+        pack(Category.TERRAIN, terrainSources());
+    }
+
+    /**
+     * 坦克精灵名称，例如 player_light_0、enemy_boss_3
+     */
+    public static String tankKey(String imageKey, int direction) {
+        return imageKey + "_" + direction;
+    }
+
+    private static Map<String, String> tankSources() {
+        Map<String, String> sources = new LinkedHashMap<>();
+        for (String type : new String[]{"light", "standard", "heavy"}) {
+            for (int i = 0; i < 4; i++) {
+                sources.put(tankKey("player_" + type, i), "/images/tanks/friendly/" + type + "/" + i + ".png");
+            }
+        }
+        for (String type : new String[]{"basic", "elite", "boss"}) {
+            for (int i = 0; i < 4; i++) {
+                sources.put(tankKey("enemy_" + type, i), "/images/tanks/enemy/" + type + "/" + i + ".png");
+            }
+        }
+        return sources;
+    }
+
+    private static Map<String, String> bulletSources() {
+        Map<String, String> sources = new LinkedHashMap<>();
+        sources.put("player_bullet", "/images/bullets/player_bullet.png");
+        sources.put("enemy_basic_bullet", "/images/bullets/enemy_basic_bullet.png");
+        sources.put("enemy_elite_bullet", "/images/bullets/enemy_elite_bullet.png");
+        sources.put("enemy_boss_bullet", "/images/bullets/enemy_boss_bullet.png");
+        // 默认子弹作为后备
+        sources.put("default_bullet", "/images/bullets/player_bullet.png");
+        return sources;
+    }
+
+    private static Map<String, String> powerUpSources() {
+        Map<String, String> sources = new LinkedHashMap<>();
+        for (String type : new String[]{"attack", "bomb", "health", "invincibility", "shield", "speed"}) {
+            sources.put(type, "/images/powerups/" + type + ".png");
+        }
+        // 放置的炸弹（可选，缺失时由调用方绘制替代图形）
+        sources.put(BOMB_PLACED, "/images/powerups/bomb_placed.png");
+        return sources;
+    }
+
+    private static Map<String, String> terrainSources() {
+        Map<String, String> sources = new LinkedHashMap<>();
+        for (String type : new String[]{"brick", "steel", "grass", "water", "base"}) {
+            sources.put(type, "/images/map/" + type + ".png");
+        }
+        return sources;
+    }
+
+    // 加载一个类别的所有图片并打包到同一张纹理
+    private void pack(Category category, Map<String, String> sources) {
+        List<String> keys = new ArrayList<>();
+        List<Image> images = new ArrayList<>();
+        for (Map.Entry<String, String> source : sources.entrySet()) {
+            Image image = loadScaled(source.getValue());
+            if (image == null && category == Category.POWERUPS && !BOMB_PLACED.equals(source.getKey())) {
+                image = loadScaled("/images/default_icon.png"); // 增益效果图片缺失时使用默认图标
+            }
+            if (image != null) {
+                keys.add(source.getKey());
+                images.add(image);
+            }
+        }
+        if (images.isEmpty()) {
+            return;
+        }
+
+        int cellSize = SPRITE_SIZE + PADDING * 2;
+        int columns = Math.min(COLUMNS, images.size());
+        int rows = (images.size() + columns - 1) / columns;
+        WritableImage texture = new WritableImage(columns * cellSize, rows * cellSize);
+        PixelWriter writer = texture.getPixelWriter();
+
+        for (int i = 0; i < images.size(); i++) {
+            Image image = images.get(i);
+            int width = (int) image.getWidth();
+            int height = (int) image.getHeight();
+            int x = (i % columns) * cellSize + PADDING;
+            int y = (i / columns) * cellSize + PADDING;
+            writer.setPixels(x, y, width, height, image.getPixelReader(), 0, 0);
+            regions.put(keys.get(i), new Region(texture, x, y, width, height));
+        }
+        textures.put(category, texture);
+    }
+
+    private Image loadScaled(String path) {
+        try (InputStream is = SpriteAtlas.class.getResourceAsStream(path)) {
+            if (is == null) {
+                return null;
+            }
+            Image image = new Image(is, SPRITE_SIZE, SPRITE_SIZE, true, true);
+            return image.isError() ? null : image;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    public Region getRegion(String key) {
+        return regions.get(key);
+    }
+
+    public boolean contains(String key) {
+        return regions.containsKey(key);
+    }
+
+    /**
+     * 获取某个类别打包后的纹理
+     */
+    public Image getTexture(Category category) {
+        return textures.get(category);
+    }
+
+    /**
+     * 绘制精灵
+     *
+     * @return 精灵不存在时返回false，调用方可绘制替代图形
+     */
+    public boolean draw(GraphicsContext gc, String key, double x, double y, double width, double height) {
+        Region region = regions.get(key);
+        if (region == null) {
+            return false;
+        }
+        gc.drawImage(region.texture, region.x, region.y, region.width, region.height, x, y, width, height);
+        return true;
+    }
+
+    /**
+     * 获取精灵的独立图片（用于ImageView等需要完整Image的场景），首次调用时从图集中复制并缓存
+     */
+    public synchronized Image getImage(String key) {
+        Image image = extractedImages.get(key);
+        if (image == null) {
+            Region region = regions.get(key);
+            if (region == null) {
+                return null;
+            }
+            PixelReader reader = region.texture.getPixelReader();
+            image = new WritableImage(reader, region.x, region.y, region.width, region.height);
+            extractedImages.put(key, image);
+        }
+        return image;
+    }
+}
@@ -0,0 +1,153 @@
+package com.nau_yyf.util;
+
+import com.nau_yyf.model.LevelMap;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 静态地形图层缓存
+ * 钢墙、水和砖块预先绘制到离屏画布并截图为图片，每帧只需绘制一张图片；
+ * 砖块被击毁时只重绘受影响的矩形区域。草地单独缓存为覆盖层，绘制在坦克之上
+ */
+public class TerrainLayerCache {
+    private LevelMap cachedMap;
+    private Canvas solidCanvas;
+    private Canvas grassCanvas;
+    private WritableImage solidImage;
+    private WritableImage grassImage;
+    private final SnapshotParameters snapshotParameters = new SnapshotParameters();
+
+    // 待重绘的脏矩形（多个区域合并为一个包围矩形）
+    private boolean dirty = false;
+    private int dirtyMinX, dirtyMinY, dirtyMaxX, dirtyMaxY;
+    private final List<LevelMap.MapElement> candidates = new ArrayList<>();
+
+    public TerrainLayerCache() {
+        snapshotParameters.setFill(Color.TRANSPARENT);
+    }
+
+    /**
+     * 使整个缓存失效，下次绘制时完整重建
+     */
+    public void invalidate() {
+        cachedMap = null;
+        dirty = false;
+    }
+
+    /**
+     * 标记需要重绘的区域（例如被击毁的砖块）
+     */
+    public void markDirty(int x, int y, int width, int height) {
+        if (!dirty) {
+            dirtyMinX = x;
+            dirtyMinY = y;
+            dirtyMaxX = x + width;
+            dirtyMaxY = y + height;
+            dirty = true;
+        } else {
+            dirtyMinX = Math.min(dirtyMinX, x);
+            dirtyMinY = Math.min(dirtyMinY, y);
+            dirtyMaxX = Math.max(dirtyMaxX, x + width);
+            dirtyMaxY = Math.max(dirtyMaxY, y + height);
+        }
+    }
+
+    /**
+     * 绘制静态障碍物图层（钢墙、水、砖块）
+     */
+    public void renderSolid(GraphicsContext gc, LevelMap map) {
+        ensureLayers(map);
+        if (solidImage != null) {
+            gc.drawImage(solidImage, 0, 0);
+        }
+    }
+
+    /**
+     * 绘制草地覆盖层，应在坦克之后调用
+     */
+    public void renderGrass(GraphicsContext gc, LevelMap map) {
+        ensureLayers(map);
+        if (grassImage != null) {
+            gc.drawImage(grassImage, 0, 0);
+        }
+    }
+
+    private void ensureLayers(LevelMap map) {
+        if (map == null || map.getWidth() <= 0 || map.getHeight() <= 0) {
+            return;
+        }
+
+        if (map != cachedMap || solidCanvas == null ||
+                solidCanvas.getWidth() != map.getWidth() || solidCanvas.getHeight() != map.getHeight()) {
+            rebuild(map);
+        } else if (dirty) {
+            repaintDirtyRect(map);
+        }
+    }
+
+    // 完整重建两个图层
+    private void rebuild(LevelMap map) {
+        int width = map.getWidth();
+        int height = map.getHeight();
+        if (solidCanvas == null || solidCanvas.getWidth() != width || solidCanvas.getHeight() != height) {
+            solidCanvas = new Canvas(width, height);
+            grassCanvas = new Canvas(width, height);
+            solidImage = new WritableImage(width, height);
+            grassImage = new WritableImage(width, height);
+        }
+
+        GraphicsContext solidGc = solidCanvas.getGraphicsContext2D();
+        GraphicsContext grassGc = grassCanvas.getGraphicsContext2D();
+        solidGc.clearRect(0, 0, width, height);
+        grassGc.clearRect(0, 0, width, height);
+
+        for (LevelMap.MapElement element : map.getElements()) {
+            GraphicsContext target = element.getTerrainType() == LevelMap.TerrainType.GRASS ? grassGc : solidGc;
+            drawElement(target, element);
+        }
+
+        solidCanvas.snapshot(snapshotParameters, solidImage);
+        grassCanvas.snapshot(snapshotParameters, grassImage);
+        cachedMap = map;
+        dirty = false;
+    }
+
+    // 只重绘脏矩形内的障碍物，草地不会被破坏，无需重绘
+    private void repaintDirtyRect(LevelMap map) {
+        int x = Math.max(0, dirtyMinX);
+        int y = Math.max(0, dirtyMinY);
+        int width = Math.min(map.getWidth(), dirtyMaxX) - x;
+        int height = Math.min(map.getHeight(), dirtyMaxY) - y;
+        dirty = false;
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+
+        GraphicsContext solidGc = solidCanvas.getGraphicsContext2D();
+        solidGc.save();
+        // 裁剪到脏矩形，避免半透明边缘被重复叠加
+        solidGc.beginPath();
+        solidGc.rect(x, y, width, height);
+        solidGc.clip();
+        solidGc.clearRect(x, y, width, height);
+        for (LevelMap.MapElement element : map.queryElements(x, y, width, height, candidates)) {
+            if (element.getTerrainType() != LevelMap.TerrainType.GRASS) {
+                drawElement(solidGc, element);
+            }
+        }
+        solidGc.restore();
+
+        solidCanvas.snapshot(snapshotParameters, solidImage);
+    }
+
+    private void drawElement(GraphicsContext gc, LevelMap.MapElement element) {
+        SpriteAtlas.getInstance().draw(gc, element.getType(),
+                element.getX(), element.getY(), element.getWidth(), element.getHeight());
+    }
+}
@@ -0,0 +1,268 @@
+package com.nau_yyf.util;
+
+import com.nau_yyf.model.LevelMap;
+import com.nau_yyf.model.LevelMap.TerrainType;
+import com.nau_yyf.model.Tank.Direction;
+
+import java.util.Arrays;
+
+/**
+ * 地形格子射线检测（DDA）
+ * 在地图的20像素地形格子上逐格前进（Amanatides-Woo算法），回答"A能否看到/打到B"和
+ * "沿某个方向第一个阻挡的格子"，耗时与距离成正比，与地图元素数量无关。
+ * 沿四个方向的子弹通道查询按（格子，方向）缓存到本帧结束：多辆坦克在同一帧内朝玩家
+ * 检查射击路线时，经过相同格子的查询只计算一次。
+ * 缓存项是单个int，并行决策阶段的多个线程可能重复计算同一项，但写入的值相同，结果确定；
+ * 地形只在碰撞阶段变化，每帧AI阶段开始前调用beginTick使缓存失效
+ */
+public class TerrainRaycaster {
+    private static final int TILE = LevelMap.TILE_SIZE;
+    private static final int EPOCH_MASK = 0xFFFF;
+
+    private final LevelMap map;
+    private final int cols;
+    private final int rows;
+    // 每个方向、每个格子的缓存：高16位是帧编号，低16位是从该格子起（含）连续不阻挡子弹的格子数
+    private final int[] laneMemo;
+    private int epoch = 1;
+
+    // 统计数据（并行阶段的计数不精确，只用于观察命中率）
+    private int lastQueries;
+    private int lastComputed;
+
+    public TerrainRaycaster(LevelMap map) {
+        this.map = map;
+        this.cols = map.getTileCols();
+        this.rows = map.getTileRows();
+        this.laneMemo = new int[4 * cols * rows];
+    }
+
+    public LevelMap getMap() {
+        return map;
+    }
+
+    /**
+     * 开始新的一帧：之前的通道缓存全部失效
+     */
+    public void beginTick() {
+        lastQueries = 0;
+        lastComputed = 0;
+        epoch = (epoch + 1) & EPOCH_MASK;
+        if (epoch == 0) {
+            // 帧编号回绕：清空缓存，避免很久以前的缓存项被误认为本帧的
+            Arrays.fill(laneMemo, 0);
+            epoch = 1;
+        }
+    }
+
+    /**
+     * 线段上第一个阻挡的格子（DDA逐格前进，包含两个端点所在的格子）
+     *
+     * @param sight true表示检查视线（砖墙、钢墙遮挡），false表示检查子弹（砖墙、钢墙、水）
+     * @return 格子下标（tileY * 列数 + tileX），没有阻挡时返回-1
+     */
+    public int firstBlockingTile(double x0, double y0, double x1, double y1, boolean sight) {
+        int tileX = (int) Math.floor(x0 / TILE);
+        int tileY = (int) Math.floor(y0 / TILE);
+        int endX = (int) Math.floor(x1 / TILE);
+        int endY = (int) Math.floor(y1 / TILE);
+        double dx = x1 - x0;
+        double dy = y1 - y0;
+
+        int stepX = dx > 0 ? 1 : dx < 0 ? -1 : 0;
+        int stepY = dy > 0 ? 1 : dy < 0 ? -1 : 0;
+        // 沿射线到达下一条竖直/水平格线时的参数t（0..1），以及跨过一个格子的参数增量
+        double tMaxX = stepX == 0 ? Double.POSITIVE_INFINITY
+                : ((stepX > 0 ? (tileX + 1) * TILE : tileX * TILE) - x0) / dx;
+        double tMaxY = stepY == 0 ? Double.POSITIVE_INFINITY
+                : ((stepY > 0 ? (tileY + 1) * TILE : tileY * TILE) - y0) / dy;
+        double tDeltaX = stepX == 0 ? Double.POSITIVE_INFINITY : TILE / Math.abs(dx);
+        double tDeltaY = stepY == 0 ? Double.POSITIVE_INFINITY : TILE / Math.abs(dy);
+
+        while (true) {
+            if (blocks(tileX, tileY, sight)) {
+                return tileY * cols + tileX;
+            }
+            if (tileX == endX && tileY == endY) {
+                return -1;
+            }
+            if (tMaxX < tMaxY) {
+                if (tMaxX > 1) return -1;
+                tMaxX += tDeltaX;
+                tileX += stepX;
+            } else {
+                if (tMaxY > 1) return -1;
+                tMaxY += tDeltaY;
+                tileY += stepY;
+            }
+        }
+    }
+
+    /**
+     * 两点之间是否没有遮挡视线的地形
+     */
+    public boolean hasLineOfSight(int ax, int ay, int bx, int by) {
+        return firstBlockingTile(ax, ay, bx, by, true) < 0;
+    }
+
+    /**
+     * 两点之间是否没有阻挡子弹的地形
+     */
+    public boolean hasLineOfFire(int ax, int ay, int bx, int by) {
+        return firstBlockingTile(ax, ay, bx, by, false) < 0;
+    }
+
+    /**
+     * 子弹沿方向能飞多远（像素）：从子弹当前位置到通道内第一个阻挡子弹的格子，没有阻挡时到地图边缘
+     *
+     * @param bulletX 子弹左上角
+     * @param size    子弹边长
+     */
+    public int laneClearance(int bulletX, int bulletY, int size, Direction direction) {
+        int boundary = laneBoundary(bulletX, bulletY, size, direction);
+        int leadingEdge = leadingEdge(bulletX, bulletY, size, direction);
+        boolean forward = direction == Direction.RIGHT || direction == Direction.DOWN;
+        return Math.max(0, forward ? boundary - leadingEdge : leadingEdge - boundary);
+    }
+
+    /**
+     * 子弹通道内第一个阻挡子弹的地形类型，一直飞到地图边缘时返回EMPTY
+     */
+    public TerrainType laneBlocker(int bulletX, int bulletY, int size, Direction direction) {
+        int tile = laneBlockerTile(bulletX, bulletY, size, direction);
+        return tile < 0 ? TerrainType.EMPTY : map.getTerrainAtTile(tile % cols, tile / cols);
+    }
+
+    /**
+     * 子弹通道内第一个阻挡子弹的格子（多行或多列同时被阻挡时取下标较小的一行或一列）
+     *
+     * @return 格子下标（tileY * 列数 + tileX），一直飞到地图边缘时返回-1
+     */
+    public int laneBlockerTile(int bulletX, int bulletY, int size, Direction direction) {
+        boolean horizontal = direction == Direction.LEFT || direction == Direction.RIGHT;
+        boolean forward = direction == Direction.RIGHT || direction == Direction.DOWN;
+        // 通道边界是阻挡格子的近边，由此得到阻挡格子沿方向的位置
+        int boundary = laneBoundary(bulletX, bulletY, size, direction);
+        int along = Math.floorDiv(boundary, TILE) - (forward ? 0 : 1);
+        int from = Math.floorDiv(horizontal ? bulletY : bulletX, TILE);
+        int to = Math.floorDiv((horizontal ? bulletY : bulletX) + size - 1, TILE);
+        for (int lateral = from; lateral <= to; lateral++) {
+            int tileX = horizontal ? along : lateral;
+            int tileY = horizontal ? lateral : along;
+            if (blocks(tileX, tileY, false)) {
+                return tileY * cols + tileX;
+            }
+        }
+        return -1; // 地图边缘
+    }
+
+    /**
+     * 从指定位置沿方向发射的子弹能否打到目标区域（目标在通道内，且在第一个阻挡的格子之前）
+     */
+    public boolean canHit(int bulletX, int bulletY, int size, Direction direction,
+                          int targetX, int targetY, int targetWidth, int targetHeight) {
+        int boundary = laneBoundary(bulletX, bulletY, size, direction);
+        switch (direction) {
+            case RIGHT:
+                return overlaps(bulletY, size, targetY, targetHeight)
+                        && targetX + targetWidth > bulletX && targetX < boundary;
+            case LEFT:
+                return overlaps(bulletY, size, targetY, targetHeight)
+                        && targetX < bulletX + size && targetX + targetWidth > boundary;
+            case DOWN:
+                return overlaps(bulletX, size, targetX, targetWidth)
+                        && targetY + targetHeight > bulletY && targetY < boundary;
+            default:
+                return overlaps(bulletX, size, targetX, targetWidth)
+                        && targetY < bulletY + size && targetY + targetHeight > boundary;
+        }
+    }
+
+    /**
+     * 上一帧的通道查询次数和实际计算次数
+     */
+    public int getLastQueries() {
+        return lastQueries;
+    }
+
+    public int getLastComputed() {
+        return lastComputed;
+    }
+
+    // 子弹通道（子弹覆盖的1~2行或列格子）被阻挡的位置：沿方向最近的阻挡格子的近边（像素）
+    private int laneBoundary(int bulletX, int bulletY, int size, Direction direction) {
+        boolean horizontal = direction == Direction.LEFT || direction == Direction.RIGHT;
+        int sign = direction == Direction.RIGHT || direction == Direction.DOWN ? 1 : -1;
+        // 通道横向覆盖的格子范围，以及纵向起始格子（子弹当前所在的格子）
+        int from = Math.floorDiv(horizontal ? bulletY : bulletX, TILE);
+        int to = Math.floorDiv((horizontal ? bulletY : bulletX) + size - 1, TILE);
+        int start = Math.floorDiv(horizontal
+                ? (sign > 0 ? bulletX : bulletX + size - 1)
+                : (sign > 0 ? bulletY : bulletY + size - 1), TILE);
+        int length = horizontal ? cols : rows;
+
+        int nearest = Integer.MAX_VALUE;
+        for (int lateral = from; lateral <= to; lateral++) {
+            if (lateral >= 0 && lateral < (horizontal ? rows : cols)) { // 通道超出地图的部分没有地形
+                nearest = Math.min(nearest,
+                        clearSteps(horizontal ? start : lateral, horizontal ? lateral : start, direction));
+            }
+        }
+
+        if (nearest == Integer.MAX_VALUE) {
+            nearest = sign > 0 ? length - start : start + 1;
+        }
+        // 阻挡格子（或地图边缘外第一个格子）的近边
+        return sign > 0 ? (start + nearest) * TILE : (start - nearest + 1) * TILE;
+    }
+
+    // 从格子（含）起沿方向连续不阻挡子弹的格子数，按帧缓存
+    private int clearSteps(int tileX, int tileY, Direction direction) {
+        lastQueries++;
+        if (tileX < 0 || tileX >= cols || tileY < 0 || tileY >= rows) {
+            return 0;
+        }
+        int index = direction.ordinal() * cols * rows + tileY * cols + tileX;
+        int cached = laneMemo[index];
+        if ((cached >>> 16) == epoch) {
+            return cached & 0xFFFF;
+        }
+
+        lastComputed++;
+        int steps = 0;
+        int x = tileX;
+        int y = tileY;
+        while (x >= 0 && x < cols && y >= 0 && y < rows && !blocks(x, y, false)) {
+            steps++;
+            x += direction.getDx();
+            y += direction.getDy();
+        }
+        laneMemo[index] = (epoch << 16) | steps;
+        return steps;
+    }
+
+    private int leadingEdge(int bulletX, int bulletY, int size, Direction direction) {
+        switch (direction) {
+            case RIGHT:
+                return bulletX + size;
+            case LEFT:
+                return bulletX;
+            case DOWN:
+                return bulletY + size;
+            default:
+                return bulletY;
+        }
+    }
+
+    private boolean blocks(int tileX, int tileY, boolean sight) {
+        if (tileX < 0 || tileX >= cols || tileY < 0 || tileY >= rows) {
+            return false;
+        }
+        TerrainType terrain = map.getTerrainAtTile(tileX, tileY);
+        return sight ? terrain.blocksSight() : terrain.blocksBullets();
+    }
+
+    private static boolean overlaps(int start, int size, int otherStart, int otherSize) {
+        return start < otherStart + otherSize && otherStart < start + size;
+    }
+}
@@ -0,0 +1,160 @@
+package com.nau_yyf.util;
+
+import com.nau_yyf.model.LevelMap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 可增量维护的可行走网格
+ * 每个格子记录覆盖它的障碍物数量，障碍物增减时只更新相关格子，
+ * 格子的可行走状态发生变化时通知监听者并递增版本号，依赖网格的缓存据此局部失效
+ */
+public class WalkabilityGrid {
+    // 网格大小（像素），与地图元素保持一致
+    public static final int DEFAULT_CELL_SIZE = 40;
+
+    /**
+     * 格子状态变化监听器
+     */
+    public interface ChangeListener {
+        /**
+         * 格子的可行走状态发生变化后调用
+         *
+         * @param blocked 变化后是否不可行走
+         */
+        void onCellChanged(int cellX, int cellY, boolean blocked);
+    }
+
+    private final int cellSize;
+    private final int cols;
+    private final int rows;
+    private final boolean[][] blocked;  // 供寻路直接读取的视图，随障碍物变化原地更新
+    private final short[] blockerCount; // 每个格子被多少个障碍物覆盖
+    private final List<ChangeListener> listeners = new ArrayList<>();
+    private int version = 0;
+    // 最近一次生成的只读副本及其版本号
+    private boolean[][] snapshotCells;
+    private int snapshotVersion = -1;
+
+    public WalkabilityGrid(int worldWidth, int worldHeight) {
+        this(worldWidth, worldHeight, DEFAULT_CELL_SIZE);
+    }
+
+    public WalkabilityGrid(int worldWidth, int worldHeight, int cellSize) {
+        this.cellSize = cellSize;
+        this.cols = Math.max(1, (worldWidth + cellSize - 1) / cellSize);
+        this.rows = Math.max(1, (worldHeight + cellSize - 1) / cellSize);
+        this.blocked = new boolean[rows][cols];
+        this.blockerCount = new short[rows * cols];
+    }
+
+    /**
+     * 按地图元素创建网格：水、钢墙和砖块不可通过（砖块被击毁后由游戏世界移除障碍物）
+     */
+    public static WalkabilityGrid fromLevel(LevelMap levelMap) {
+        WalkabilityGrid grid = new WalkabilityGrid(levelMap.getWidth(), levelMap.getHeight());
+        for (LevelMap.MapElement element : levelMap.getElements()) {
+            if (element.getTerrainType().isSolid()) {
+                grid.addObstacle(element.getX(), element.getY(), element.getWidth(), element.getHeight());
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * 添加一个障碍物，它覆盖到的所有格子都变为不可行走
+     */
+    public void addObstacle(int x, int y, int width, int height) {
+        adjust(x, y, width, height, 1);
+    }
+
+    /**
+     * 移除一个障碍物，不再被任何障碍物覆盖的格子恢复为可行走
+     */
+    public void removeObstacle(int x, int y, int width, int height) {
+        adjust(x, y, width, height, -1);
+    }
+
+    private void adjust(int x, int y, int width, int height, int delta) {
+        int minCellX = Math.max(0, Math.floorDiv(x, cellSize));
+        int minCellY = Math.max(0, Math.floorDiv(y, cellSize));
+        int maxCellX = Math.min(cols - 1, Math.floorDiv(x + width - 1, cellSize));
+        int maxCellY = Math.min(rows - 1, Math.floorDiv(y + height - 1, cellSize));
+
+        for (int cy = minCellY; cy <= maxCellY; cy++) {
+            for (int cx = minCellX; cx <= maxCellX; cx++) {
+                int index = cy * cols + cx;
+                int count = Math.max(0, blockerCount[index] + delta);
+                blockerCount[index] = (short) count;
+
+                boolean nowBlocked = count > 0;
+                if (nowBlocked != blocked[cy][cx]) {
+                    blocked[cy][cx] = nowBlocked;
+                    version++;
+                    for (int i = 0, n = listeners.size(); i < n; i++) {
+                        listeners.get(i).onCellChanged(cx, cy, nowBlocked);
+                    }
+                }
+            }
+        }
+    }
+
+    public boolean isBlocked(int cellX, int cellY) {
+        if (cellX < 0 || cellX >= cols || cellY < 0 || cellY >= rows) {
+            return true; // 地图外视为不可行走
+        }
+        return blocked[cellY][cellX];
+    }
+
+    /**
+     * 获取网格的数组视图（[y][x]，true表示不可行走）
+     * 返回的始终是同一个数组，只读使用；格子变化通过监听器或版本号感知
+     */
+    public boolean[][] asArray() {
+        return blocked;
+    }
+
+    /**
+     * 获取当前版本网格的只读副本（[y][x]），供后台线程寻路使用
+     * 同一版本只复制一次；格子变化后返回新的副本，已交给其他线程的旧副本保持不变，调用方不得修改
+     */
+    public boolean[][] snapshot() {
+        if (snapshotCells == null || snapshotVersion != version) {
+            boolean[][] copy = new boolean[rows][];
+            for (int y = 0; y < rows; y++) {
+                copy[y] = blocked[y].clone();
+            }
+            snapshotCells = copy;
+            snapshotVersion = version;
+        }
+        return snapshotCells;
+    }
+
+    /**
+     * 获取网格版本号，任何格子的可行走状态变化都会使其递增
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    public void addListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(ChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCellSize() {
+        return cellSize;
+    }
+}